@@ -0,0 +1,219 @@
+package com.monitoring.server.data.checkpoint;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.monitoring.server.data.store.MetricStore;
+import com.monitoring.server.data.window.HotWindow;
+import com.monitoring.server.util.EpochMillis;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Punto de control del estado en memoria ({@link WarmState}): la ventana de muestras
+ * recientes, la última instantánea de procesos, la última muestra del sistema y los
+ * tiempos de espera entre alertas. Se escribe periódicamente y al detener la aplicación
+ * en un archivo mapeado en memoria (primero en un temporal que luego se renombra), y se
+ * restaura al arrancar antes de la primera recolección.
+ *
+ * Formato: {magic, guardado en (epoch ms), secciones} y por sección
+ * {nombre, longitud, crc32, datos}. Una sección dañada se descarta sin afectar a las demás.
+ * Tras restaurar, la ventana se completa con lo que el almacén recibió después del
+ * punto de control (por ejemplo, si la aplicación terminó sin detenerse).
+ */
+@Component
+public class WarmStartCheckpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmStartCheckpoint.class);
+
+    private static final int MAGIC = 0x57535431; // "WST1"
+    private static final int HEADER_SIZE = 4 + 8 + 4;
+
+    // Muestras tomadas justo antes del punto de control pueden encolarse después
+    private static final long BACKFILL_MARGIN_MILLIS = 60_000;
+
+    private final List<WarmState> states;
+    private final HotWindow hotWindow;
+    private final MetricStore metricStore;
+
+    @Value("${system.checkpoint.enabled:true}")
+    private boolean enabled;
+
+    @Value("${system.checkpoint.file:./data/checkpoint/warm-state.bin}")
+    private String checkpointFile;
+
+    // Un punto de control más antiguo ya no aporta nada: la ventana estaría vacía
+    @Value("${system.checkpoint.max-age:${system.metric.hot-window:6h}}")
+    private Duration maxAge;
+
+    public WarmStartCheckpoint(List<WarmState> states, HotWindow hotWindow, MetricStore metricStore) {
+        this.states = states;
+        this.hotWindow = hotWindow;
+        this.metricStore = metricStore;
+    }
+
+    @PostConstruct
+    public void restore() {
+        Path path = Path.of(checkpointFile);
+        if (!enabled || !Files.isRegularFile(path)) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<String> restored = new ArrayList<>();
+        long savedAt;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC) {
+                logger.warn("Punto de control {} no válido; se arranca en frío", path);
+                return;
+            }
+            savedAt = in.getLong();
+            int sections = in.getInt();
+            long age = EpochMillis.toMillis(LocalDateTime.now()) - savedAt;
+            if (age > maxAge.toMillis()) {
+                logger.info("Punto de control de hace {} min, más antiguo que {}; se arranca en frío",
+                        age / 60_000, maxAge);
+                return;
+            }
+            CRC32 crc = new CRC32();
+            for (int i = 0; i < sections; i++) {
+                String name = WarmState.getString(in);
+                int length = in.getInt();
+                int checksum = in.getInt();
+                ByteBuffer section = in.slice(in.position(), length).asReadOnlyBuffer();
+                in.position(in.position() + length);
+                crc.reset();
+                crc.update(section.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    logger.warn("Sección {} del punto de control dañada; se descarta", name);
+                    continue;
+                }
+                WarmState state = find(name);
+                if (state == null) {
+                    continue;
+                }
+                try {
+                    state.restoreState(section);
+                    restored.add(name);
+                } catch (RuntimeException e) {
+                    logger.warn("No se pudo restaurar la sección {}: {}", name, e.getMessage());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("No se pudo leer el punto de control {}: {}; se arranca en frío", path, e.getMessage());
+            return;
+        }
+        if (restored.contains(hotWindow.getStateName())) {
+            backfill(savedAt);
+        }
+        logger.info("Estado restaurado desde {} en {} ms: {}", path, (System.nanoTime() - start) / 1_000_000,
+                restored);
+    }
+
+    /**
+     * Punto de control periódico, por defecto cada minuto
+     */
+    @Scheduled(fixedDelayString = "${system.checkpoint.interval:60000}",
+            initialDelayString = "${system.checkpoint.interval:60000}")
+    public void scheduledCheckpoint() {
+        if (enabled) {
+            checkpoint();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (enabled) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Escribe el estado actual de todas las secciones
+     */
+    public synchronized void checkpoint() {
+        long start = System.nanoTime();
+        List<String> names = new ArrayList<>();
+        List<ByteBuffer> sections = new ArrayList<>();
+        long size = HEADER_SIZE;
+        for (WarmState state : states) {
+            try {
+                ByteBuffer section = state.saveState();
+                names.add(state.getStateName());
+                sections.add(section);
+                size += WarmState.stringSize(state.getStateName()) + 8 + section.remaining();
+            } catch (RuntimeException e) {
+                logger.warn("No se pudo guardar la sección {}: {}", state.getStateName(), e.getMessage());
+            }
+        }
+
+        Path target = Path.of(checkpointFile);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                out.putInt(MAGIC).putLong(EpochMillis.toMillis(LocalDateTime.now())).putInt(sections.size());
+                CRC32 crc = new CRC32();
+                for (int i = 0; i < sections.size(); i++) {
+                    ByteBuffer section = sections.get(i);
+                    crc.reset();
+                    crc.update(section.duplicate());
+                    WarmState.putString(out, names.get(i));
+                    out.putInt(section.remaining()).putInt((int) crc.getValue());
+                    out.put(section);
+                }
+                out.force();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Punto de control escrito: {} KB en {} ms", size / 1024,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            logger.warn("No se pudo escribir el punto de control {}: {}", target, e.getMessage());
+        }
+    }
+
+    /**
+     * Añade a la ventana las muestras que el almacén recibió desde el punto de control.
+     * Si el almacén no responde, la ventana no puede garantizar que está completa y se vacía.
+     */
+    private void backfill(long savedAt) {
+        LocalDateTime from = LocalDateTime.ofEpochSecond(Math.floorDiv(savedAt - BACKFILL_MARGIN_MILLIS, 1000), 0,
+                ZoneOffset.UTC);
+        try {
+            hotWindow.record(metricStore.findByTimestampBetween(from, LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo completar la ventana en memoria desde el almacén: {}; se descarta", e.getMessage());
+            hotWindow.clear();
+        }
+    }
+
+    private WarmState find(String name) {
+        for (WarmState state : states) {
+            if (state.getStateName().equals(name)) {
+                return state;
+            }
+        }
+        return null;
+    }
+}
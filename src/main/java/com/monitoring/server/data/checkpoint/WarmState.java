@@ -0,0 +1,55 @@
+package com.monitoring.server.data.checkpoint;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Estado en memoria que se guarda en el punto de control ({@link WarmStartCheckpoint})
+ * y se restaura al arrancar, para no empezar en frío tras un reinicio.
+ */
+public interface WarmState {
+
+    /**
+     * Nombre de la sección en el archivo; debe ser estable entre versiones
+     */
+    String getStateName();
+
+    /**
+     * Copia coherente del estado actual
+     * @return Buffer con el estado entre la posición 0 y el límite
+     */
+    ByteBuffer saveState();
+
+    /**
+     * Restaura el estado guardado; se llama antes de que empiece la recolección
+     * @param state Sección del archivo, de solo lectura
+     */
+    void restoreState(ByteBuffer state);
+
+    /**
+     * Bytes que ocupa una cadena escrita con {@link #putString}
+     */
+    static int stringSize(String value) {
+        return 4 + (value != null ? value.getBytes(StandardCharsets.UTF_8).length : 0);
+    }
+
+    static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length);
+        out.put(bytes);
+    }
+
+    static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,169 @@
+package com.monitoring.server.data.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+/**
+ * Entidad con el detalle de CPU de una muestra: uso por núcleo y reparto del
+ * tiempo por categoría de tick. Se guarda una sola fila por muestra; el uso de
+ * cada núcleo va en un arreglo compacto de tipo real[].
+ */
+@Entity
+@Table(name = "cpu_detail_metrics")
+public class CpuDetailMetric {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cpu_detail_metrics_seq")
+    @SequenceGenerator(name = "cpu_detail_metrics_seq", sequenceName = "cpu_detail_metrics_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "timestamp", nullable = false)
+    private LocalDateTime timestamp;
+
+    // Reparto del tiempo de CPU en porcentaje
+    @Column(name = "user_pct")
+    private float user;
+
+    @Column(name = "nice_pct")
+    private float nice;
+
+    @Column(name = "system_pct")
+    private float system;
+
+    @Column(name = "idle_pct")
+    private float idle;
+
+    @Column(name = "iowait_pct")
+    private float iowait;
+
+    @Column(name = "irq_pct")
+    private float irq;
+
+    @Column(name = "softirq_pct")
+    private float softirq;
+
+    @Column(name = "steal_pct")
+    private float steal;
+
+    // Uso por CPU lógica en porcentaje, en el orden que reporta el sistema
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "core_loads", columnDefinition = "real[]")
+    private float[] coreLoads;
+
+    public CpuDetailMetric() {
+        this.timestamp = LocalDateTime.now();
+    }
+
+    // Getters y setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public float getUser() {
+        return user;
+    }
+
+    public void setUser(float user) {
+        this.user = user;
+    }
+
+    public float getNice() {
+        return nice;
+    }
+
+    public void setNice(float nice) {
+        this.nice = nice;
+    }
+
+    public float getSystem() {
+        return system;
+    }
+
+    public void setSystem(float system) {
+        this.system = system;
+    }
+
+    public float getIdle() {
+        return idle;
+    }
+
+    public void setIdle(float idle) {
+        this.idle = idle;
+    }
+
+    public float getIowait() {
+        return iowait;
+    }
+
+    public void setIowait(float iowait) {
+        this.iowait = iowait;
+    }
+
+    public float getIrq() {
+        return irq;
+    }
+
+    public void setIrq(float irq) {
+        this.irq = irq;
+    }
+
+    public float getSoftirq() {
+        return softirq;
+    }
+
+    public void setSoftirq(float softirq) {
+        this.softirq = softirq;
+    }
+
+    public float getSteal() {
+        return steal;
+    }
+
+    public void setSteal(float steal) {
+        this.steal = steal;
+    }
+
+    public float[] getCoreLoads() {
+        return coreLoads;
+    }
+
+    public void setCoreLoads(float[] coreLoads) {
+        this.coreLoads = coreLoads;
+    }
+
+    @Override
+    public String toString() {
+        return "CpuDetailMetric{" +
+                "id=" + id +
+                ", timestamp=" + timestamp +
+                ", user=" + user +
+                ", system=" + system +
+                ", iowait=" + iowait +
+                ", steal=" + steal +
+                ", cores=" + (coreLoads != null ? coreLoads.length : 0) +
+                '}';
+    }
+}
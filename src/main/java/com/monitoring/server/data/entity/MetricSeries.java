@@ -0,0 +1,90 @@
+package com.monitoring.server.data.entity;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Serie registrada: una métrica con sus etiquetas (base de datos, interfaz, dispositivo...)
+ * identificada por un entero. Las muestras en series_samples solo guardan este identificador.
+ */
+@Entity
+@Table(name = "metric_series", uniqueConstraints = @UniqueConstraint(columnNames = {"metric", "tags"}))
+public class MetricSeries implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "metric_series_seq")
+    @SequenceGenerator(name = "metric_series_seq", sequenceName = "metric_series_seq", allocationSize = 50)
+    private Integer id;
+
+    // Nombre de la métrica sin etiquetas, por ejemplo "DB_ResponseTime"
+    @Column(name = "metric", nullable = false, length = 128)
+    private String metric;
+
+    // Etiquetas en forma canónica "clave=valor,clave=valor" ordenadas por clave; vacío si no tiene
+    @Column(name = "tags", nullable = false)
+    private String tags;
+
+    @Column(name = "unit", length = 32)
+    private String unit;
+
+    public MetricSeries() {
+    }
+
+    public MetricSeries(String metric, String tags, String unit) {
+        this.metric = metric;
+        this.tags = tags;
+        this.unit = unit;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    public void setMetric(String metric) {
+        this.metric = metric;
+    }
+
+    public String getTags() {
+        return tags;
+    }
+
+    public void setTags(String tags) {
+        this.tags = tags;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricSeries{" +
+                "id=" + id +
+                ", metric='" + metric + '\'' +
+                ", tags='" + tags + '\'' +
+                ", unit='" + unit + '\'' +
+                '}';
+    }
+}
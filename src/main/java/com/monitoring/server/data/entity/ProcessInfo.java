@@ -7,6 +7,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 /**
@@ -17,7 +18,8 @@ import jakarta.persistence.Table;
 public class ProcessInfo {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "process_info_seq")
+    @SequenceGenerator(name = "process_info_seq", sequenceName = "process_info_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "process_id")
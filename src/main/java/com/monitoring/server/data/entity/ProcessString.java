@@ -0,0 +1,53 @@
+package com.monitoring.server.data.entity;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+/**
+ * Cadena del diccionario de procesos (nombre, usuario, estado o PID no numérico)
+ * identificada por un entero. Las instantáneas de process_snapshots solo guardan este identificador.
+ */
+@Entity
+@Table(name = "process_strings")
+public class ProcessString implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "process_strings_seq")
+    @SequenceGenerator(name = "process_strings_seq", sequenceName = "process_strings_seq", allocationSize = 50)
+    private Integer id;
+
+    @Column(name = "text", nullable = false, unique = true, length = 512)
+    private String text;
+
+    public ProcessString() {
+    }
+
+    public ProcessString(String text) {
+        this.text = text;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+}
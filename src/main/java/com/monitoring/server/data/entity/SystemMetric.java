@@ -8,12 +8,16 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 /**
  * Entidad unificada que representa métricas del sistema.
  * Soporta tanto métricas genéricas (metricName/value) para bases de datos
  * como métricas específicas (cpuUsage, memoryUsage, diskUsage) para el sistema.
+ * Solo las métricas del sistema se guardan en system_metrics; las genéricas se
+ * guardan como (serie, timestamp, valor) en series_samples a través del registro de series.
  */
 @Entity
 @Table(name = "system_metrics")
@@ -22,17 +26,19 @@ public class SystemMetric implements Serializable {
     private static final long serialVersionUID = 1L;
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con asignación por bloques: permite inserciones JDBC en lote
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "system_metrics_seq")
+    @SequenceGenerator(name = "system_metrics_seq", sequenceName = "system_metrics_seq", allocationSize = 50)
     private Long id;
     
-    // Campos para métricas genéricas (bases de datos)
-    @Column(name = "metric_name")
+    // Campos para métricas genéricas (bases de datos); no son columnas de system_metrics
+    @Transient
     private String metricName;
     
-    @Column(name = "value")
+    @Transient
     private Double value;
     
-    @Column(name = "unit")
+    @Transient
     private String unit;
     
     // Campos para métricas del sistema operativo
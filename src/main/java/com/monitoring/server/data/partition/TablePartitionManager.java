@@ -0,0 +1,329 @@
+package com.monitoring.server.data.partition;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.monitoring.server.util.EpochMillis;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Particionado nativo de PostgreSQL por rangos diarios para las tablas de series
+ * que reciben escrituras ({@link #PARTITIONED_TABLES}). Al arrancar, una tabla
+ * normal se convierte en particionada y la tabla original se adjunta como
+ * partición "legacy" con todo lo anterior a mañana, sin copiar filas. Cada día
+ * se crean por adelantado las particiones de los próximos días, y la retención
+ * elimina las particiones completas con un DROP en lugar de borrar filas.
+ * process_info ya no recibe filas y no se particiona; si ya lo estaba, la
+ * retención sigue eliminando sus particiones.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class TablePartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(TablePartitionManager.class);
+
+    /**
+     * Tablas particionadas. system_metrics solo recibe filas con el almacén jpa; con
+     * el almacén tsdb sigue vacía y sus particiones no ocupan espacio.
+     */
+    public static final List<String> PARTITIONED_TABLES = List.of("system_metrics", "series_samples",
+            "cpu_detail_metrics", "process_snapshots");
+
+    // Columna de partición en epoch (ms, UTC) en lugar de "timestamp"
+    private static final Map<String, String> EPOCH_MILLIS_COLUMNS = Map.of("series_samples", "ts");
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final Pattern RANGE_BOUND = Pattern.compile(
+            "FOR VALUES FROM \\((?:MINVALUE|'?([^')]+)'?)\\) TO \\((?:MAXVALUE|'?([^')]+)'?)\\)");
+
+    /**
+     * Partición existente con su rango [from, to); null indica MINVALUE o MAXVALUE
+     */
+    public record Partition(String name, LocalDateTime from, LocalDateTime to) {
+    }
+
+    /**
+     * Resultado de eliminar particiones completas
+     * @param rows Filas eliminadas (estimadas a partir de las estadísticas de la tabla)
+     * @param bytes Bytes liberados
+     */
+    public record DropResult(long rows, long bytes) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${system.partition.enabled:true}")
+    private boolean enabled;
+
+    @Value("${system.partition.days-ahead:7}")
+    private int daysAhead;
+
+    private volatile boolean active;
+
+    public TablePartitionManager(JdbcTemplate jdbcTemplate, DataSource dataSource,
+            PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        if (!isPostgres()) {
+            logger.info("Particionado desactivado: la base de datos no es PostgreSQL");
+            return;
+        }
+        for (String table : PARTITIONED_TABLES) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> convertIfNeeded(table));
+            } catch (Exception e) {
+                logger.error("No se pudo particionar {}: {}", table, e.getMessage());
+            }
+        }
+        active = true;
+        createUpcomingPartitions();
+    }
+
+    /**
+     * Crea las particiones diarias que faltan desde hoy hasta {@code system.partition.days-ahead}
+     */
+    @Scheduled(cron = "${system.partition.cron:0 0 1 * * *}")
+    public void createUpcomingPartitions() {
+        if (!active) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        for (String table : PARTITIONED_TABLES) {
+            if (!isPartitioned(table)) {
+                continue;
+            }
+            List<Partition> partitions = listPartitions(table);
+            for (LocalDate day = today; !day.isAfter(today.plusDays(daysAhead)); day = day.plusDays(1)) {
+                LocalDateTime start = day.atStartOfDay();
+                if (covered(partitions, start)) {
+                    continue;
+                }
+                String name = table + "_p" + day.format(SUFFIX);
+                try {
+                    jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF " + table
+                            + " FOR VALUES FROM (" + bound(table, start) + ") TO (" + bound(table, start.plusDays(1))
+                            + ")");
+                    partitions.add(new Partition(name, start, start.plusDays(1)));
+                    logger.debug("Partición creada: {}", name);
+                } catch (Exception e) {
+                    logger.warn("No se pudo crear la partición {}: {}", name, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Elimina las particiones cuyo rango termina antes de la fecha límite
+     * @param table Tabla particionada
+     * @param cutoff Fecha límite
+     * @return Filas y bytes liberados, o null si la tabla no está particionada
+     */
+    public DropResult dropPartitionsBefore(String table, LocalDateTime cutoff) {
+        if (!active || !isPartitioned(table)) {
+            return null;
+        }
+        long rows = 0;
+        long bytes = 0;
+        for (Partition partition : listPartitions(table)) {
+            if (partition.to() == null || partition.to().isAfter(cutoff)) {
+                continue;
+            }
+            Long size = jdbcTemplate.queryForObject("SELECT pg_total_relation_size(CAST(? AS regclass))",
+                    Long.class, partition.name());
+            Long tuples = jdbcTemplate.queryForObject(
+                    "SELECT CAST(GREATEST(reltuples, 0) AS bigint) FROM pg_class WHERE oid = CAST(? AS regclass)",
+                    Long.class, partition.name());
+            jdbcTemplate.execute("DROP TABLE " + partition.name());
+            rows += tuples != null ? tuples : 0;
+            bytes += size != null ? size : 0;
+            logger.info("Partición eliminada por retención: {}", partition.name());
+        }
+        return new DropResult(rows, bytes);
+    }
+
+    /**
+     * Particiones de rango de una tabla (sin incluir la partición por defecto)
+     */
+    public List<Partition> listPartitions(String table) {
+        List<Partition> partitions = new ArrayList<>();
+        jdbcTemplate.query("SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = CAST(? AS regclass)", rs -> {
+                    Matcher matcher = RANGE_BOUND.matcher(rs.getString(2));
+                    if (matcher.find()) {
+                        partitions.add(new Partition(rs.getString(1), parse(matcher.group(1)),
+                                parse(matcher.group(2))));
+                    }
+                }, table);
+        return partitions;
+    }
+
+    /**
+     * Convierte una tabla normal en particionada adjuntando la original como primera partición
+     */
+    private void convertIfNeeded(String table) {
+        if (!"r".equals(relationKind(table))) {
+            return;
+        }
+        String legacy = table + "_legacy";
+        String column = partitionColumn(table);
+        String primaryKey = jdbcTemplate.queryForList("SELECT conname FROM pg_constraint "
+                + "WHERE conrelid = CAST(? AS regclass) AND contype = 'p'", String.class, table)
+                .stream().findFirst().orElse(null);
+        List<String> keyColumns = jdbcTemplate.queryForList("SELECT a.attname FROM pg_constraint c "
+                + "CROSS JOIN LATERAL unnest(c.conkey) WITH ORDINALITY k(attnum, position) "
+                + "JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = k.attnum "
+                + "WHERE c.conrelid = CAST(? AS regclass) AND c.contype = 'p' ORDER BY k.position", String.class,
+                table);
+        List<String> identityColumns = jdbcTemplate.queryForList("SELECT attname FROM pg_attribute "
+                + "WHERE attrelid = CAST(? AS regclass) AND attidentity <> ''", String.class, table);
+        jdbcTemplate.execute("ALTER TABLE " + table + " RENAME TO " + legacy);
+        if (primaryKey != null) {
+            jdbcTemplate.execute("ALTER TABLE " + legacy + " RENAME CONSTRAINT " + primaryKey + " TO " + legacy
+                    + "_pkey");
+        }
+        // Los IDs vienen de secuencias de Hibernate; una columna IDENTITY impediría adjuntar la tabla
+        for (String identity : identityColumns) {
+            jdbcTemplate.execute("ALTER TABLE " + legacy + " ALTER COLUMN " + identity + " DROP IDENTITY");
+        }
+        jdbcTemplate.execute("CREATE TABLE " + table + " (LIKE " + legacy + " INCLUDING DEFAULTS) "
+                + "PARTITION BY RANGE (\"" + column + "\")");
+        // La clave primaria de una tabla particionada debe incluir la columna de partición
+        if (!keyColumns.isEmpty()) {
+            List<String> key = new ArrayList<>();
+            keyColumns.forEach(name -> key.add("\"" + name + "\""));
+            if (!keyColumns.contains(column)) {
+                key.add("\"" + column + "\"");
+            }
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD PRIMARY KEY (" + String.join(", ", key) + ")");
+        }
+        copyIndexes(legacy, table);
+
+        LocalDateTime newest = newestRow(table, legacy, column);
+        if (newest == null) {
+            jdbcTemplate.execute("DROP TABLE " + legacy);
+        } else {
+            LocalDateTime boundary = newest.toLocalDate().plusDays(1).atStartOfDay();
+            jdbcTemplate.execute("ALTER TABLE " + table + " ATTACH PARTITION " + legacy
+                    + " FOR VALUES FROM (MINVALUE) TO (" + bound(table, boundary) + ")");
+        }
+        // Recoge filas fuera de todas las particiones (p. ej. relojes adelantados) en lugar de rechazarlas
+        jdbcTemplate.execute("CREATE TABLE " + table + "_default PARTITION OF " + table + " DEFAULT");
+        logger.info("Tabla {} convertida en particionada por día{}", table,
+                newest != null ? " (datos anteriores en " + legacy + ")" : "");
+    }
+
+    /**
+     * Recrea en la tabla particionada los índices no únicos de la original (los de las
+     * migraciones); al adjuntarla, PostgreSQL reutiliza los de la original como particiones del índice
+     */
+    private void copyIndexes(String legacy, String table) {
+        List<String[]> indexes = new ArrayList<>();
+        jdbcTemplate.query("SELECT i.relname, pg_get_indexdef(i.oid) FROM pg_index x "
+                + "JOIN pg_class i ON i.oid = x.indexrelid "
+                + "WHERE x.indrelid = CAST(? AS regclass) AND NOT x.indisunique", rs -> {
+                    indexes.add(new String[] {rs.getString(1), rs.getString(2)});
+                }, legacy);
+        for (String[] index : indexes) {
+            String name = index[0];
+            String definition = index[1].replaceFirst(" ON (\\S+\\.)?" + legacy + " ", " ON " + table + " ");
+            String legacyName = name.length() > 56 ? name.substring(0, 56) : name;
+            jdbcTemplate.execute("ALTER INDEX " + name + " RENAME TO " + legacyName + "_legacy");
+            jdbcTemplate.execute(definition);
+        }
+    }
+
+    private LocalDateTime newestRow(String table, String legacy, String column) {
+        if (EPOCH_MILLIS_COLUMNS.containsKey(table)) {
+            Long millis = jdbcTemplate.queryForObject("SELECT MAX(\"" + column + "\") FROM " + legacy, Long.class);
+            return millis != null ? EpochMillis.toLocalDateTime(millis) : null;
+        }
+        return jdbcTemplate.queryForObject("SELECT MAX(\"" + column + "\") FROM " + legacy, LocalDateTime.class);
+    }
+
+    private static String partitionColumn(String table) {
+        return EPOCH_MILLIS_COLUMNS.getOrDefault(table, "timestamp");
+    }
+
+    /**
+     * Límite de un rango en el tipo de la columna de partición
+     */
+    private static String bound(String table, LocalDateTime time) {
+        if (EPOCH_MILLIS_COLUMNS.containsKey(table)) {
+            return Long.toString(EpochMillis.toMillis(time));
+        }
+        return "'" + time + "'";
+    }
+
+    private boolean isPartitioned(String table) {
+        return "p".equals(relationKind(table));
+    }
+
+    /**
+     * Tipo de relación en pg_class: "r" tabla normal, "p" tabla particionada, null si no existe
+     */
+    private String relationKind(String table) {
+        return jdbcTemplate.queryForList("SELECT CAST(relkind AS text) FROM pg_class WHERE oid = to_regclass(?)",
+                String.class, table).stream().findFirst().orElse(null);
+    }
+
+    private boolean isPostgres() {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            logger.warn("No se pudo identificar la base de datos: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean covered(List<Partition> partitions, LocalDateTime time) {
+        for (Partition partition : partitions) {
+            boolean afterStart = partition.from() == null || !time.isBefore(partition.from());
+            boolean beforeEnd = partition.to() == null || time.isBefore(partition.to());
+            if (afterStart && beforeEnd) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static LocalDateTime parse(String bound) {
+        if (bound == null) {
+            return null;
+        }
+        if (bound.chars().allMatch(c -> c == '-' || Character.isDigit(c))) {
+            return EpochMillis.toLocalDateTime(Long.parseLong(bound));
+        }
+        return LocalDateTime.parse(bound.replace(' ', 'T'));
+    }
+}
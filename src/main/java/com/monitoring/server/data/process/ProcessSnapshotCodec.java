@@ -0,0 +1,206 @@
+package com.monitoring.server.data.process;
+
+import java.nio.ByteBuffer;
+
+import com.monitoring.server.data.store.BitInput;
+import com.monitoring.server.data.store.BitOutput;
+
+/**
+ * Codificación de una instantánea de procesos respecto a la anterior.
+ * Cada proceso que ya estaba en la instantánea base (mismo PID, nombre y usuario)
+ * se escribe como su posición en ella más los cambios: un bit si el estado no
+ * cambia y, por valor (CPU, memoria, disco), un bit si es igual, la diferencia en
+ * centésimas si ambos valores tienen como mucho dos decimales, o el XOR de sus bits
+ * en otro caso. Los procesos nuevos escriben sus cadenas como identificadores del
+ * {@link ProcessStringDictionary}. Sin base (fotograma clave), todos son nuevos.
+ * Una instantánea habitual de 10 procesos ocupa unas decenas de bytes.
+ */
+final class ProcessSnapshotCodec {
+
+    /**
+     * Proceso con sus cadenas ya convertidas a identificadores del diccionario
+     * @param pid PID numérico, o -1 si no lo es
+     * @param pidText Identificador del PID como cadena cuando no es numérico; 0 si lo es
+     */
+    record Entry(long pid, int pidText, int name, int user, int status, double cpu, double memory, double disk) {
+
+        boolean sameProcess(Entry other) {
+            return pid == other.pid && pidText == other.pidText && name == other.name && user == other.user;
+        }
+    }
+
+    private static final Entry[] NO_BASE = new Entry[0];
+
+    private ProcessSnapshotCodec() {
+    }
+
+    /**
+     * Codifica una instantánea
+     * @param entries Procesos de la instantánea
+     * @param base Instantánea anterior, o null para un fotograma clave
+     * @return Bytes codificados
+     */
+    static byte[] encode(Entry[] entries, Entry[] base) {
+        if (base == null) {
+            base = NO_BASE;
+        }
+        int indexBits = indexBits(base.length);
+        BitOutput out = new BitOutput(entries.length * 8);
+        for (Entry entry : entries) {
+            // Búsqueda lineal: las instantáneas guardadas tienen pocas decenas de procesos
+            Entry previous = null;
+            int index = 0;
+            for (; index < base.length; index++) {
+                if (base[index].sameProcess(entry)) {
+                    previous = base[index];
+                    break;
+                }
+            }
+            if (previous != null) {
+                out.writeBit(true);
+                out.writeBits(index, indexBits);
+                if (entry.status() == previous.status()) {
+                    out.writeBit(false);
+                } else {
+                    out.writeBit(true);
+                    writeVarint(out, entry.status());
+                }
+                encodeValue(out, entry.cpu(), previous.cpu());
+                encodeValue(out, entry.memory(), previous.memory());
+                encodeValue(out, entry.disk(), previous.disk());
+            } else {
+                out.writeBit(false);
+                if (entry.pid() >= 0) {
+                    out.writeBit(true);
+                    writeVarint(out, entry.pid());
+                } else {
+                    out.writeBit(false);
+                    writeVarint(out, entry.pidText());
+                }
+                writeVarint(out, entry.name());
+                writeVarint(out, entry.user());
+                writeVarint(out, entry.status());
+                encodeValue(out, entry.cpu(), 0.0);
+                encodeValue(out, entry.memory(), 0.0);
+                encodeValue(out, entry.disk(), 0.0);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodifica una instantánea escrita con {@link #encode}
+     * @param data Bytes codificados
+     * @param count Número de procesos
+     * @param base La misma instantánea base usada al codificar, o null
+     * @return Procesos de la instantánea
+     */
+    static Entry[] decode(byte[] data, int count, Entry[] base) {
+        if (base == null) {
+            base = NO_BASE;
+        }
+        int indexBits = indexBits(base.length);
+        BitInput in = new BitInput(ByteBuffer.wrap(data), 0);
+        Entry[] entries = new Entry[count];
+        for (int i = 0; i < count; i++) {
+            if (in.readBit()) {
+                Entry previous = base[(int) in.readBits(indexBits)];
+                int status = in.readBit() ? (int) readVarint(in) : previous.status();
+                entries[i] = new Entry(previous.pid(), previous.pidText(), previous.name(), previous.user(), status,
+                        decodeValue(in, previous.cpu()), decodeValue(in, previous.memory()),
+                        decodeValue(in, previous.disk()));
+            } else {
+                long pid = -1;
+                int pidText = 0;
+                if (in.readBit()) {
+                    pid = readVarint(in);
+                } else {
+                    pidText = (int) readVarint(in);
+                }
+                int name = (int) readVarint(in);
+                int user = (int) readVarint(in);
+                int status = (int) readVarint(in);
+                entries[i] = new Entry(pid, pidText, name, user, status, decodeValue(in, 0.0),
+                        decodeValue(in, 0.0), decodeValue(in, 0.0));
+            }
+        }
+        return entries;
+    }
+
+    private static int indexBits(int baseLength) {
+        return baseLength <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(baseLength - 1);
+    }
+
+    private static void encodeValue(BitOutput out, double value, double previous) {
+        long bits = Double.doubleToRawLongBits(value);
+        long xor = bits ^ Double.doubleToRawLongBits(previous);
+        if (xor == 0) {
+            out.writeBit(false);
+            return;
+        }
+        out.writeBit(true);
+        if (isHundredths(value) && isHundredths(previous)) {
+            // Valores como los de "ps" (un decimal): la diferencia cabe en uno o dos bytes
+            out.writeBit(false);
+            long delta = Math.round(value * 100) - Math.round(previous * 100);
+            writeVarint(out, (delta << 1) ^ (delta >> 63));
+            return;
+        }
+        out.writeBit(true);
+        int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        int significant = 64 - leading - trailing;
+        out.writeBits(leading, 5);
+        out.writeBits(significant == 64 ? 0 : significant, 6);
+        out.writeBits(xor >>> trailing, significant);
+    }
+
+    private static double decodeValue(BitInput in, double previous) {
+        if (!in.readBit()) {
+            return previous;
+        }
+        if (!in.readBit()) {
+            long zigzag = readVarint(in);
+            long delta = (zigzag >>> 1) ^ -(zigzag & 1);
+            return (Math.round(previous * 100) + delta) / 100.0;
+        }
+        int leading = (int) in.readBits(5);
+        int significant = (int) in.readBits(6);
+        if (significant == 0) {
+            significant = 64;
+        }
+        long xor = in.readBits(significant) << (64 - leading - significant);
+        return Double.longBitsToDouble(Double.doubleToRawLongBits(previous) ^ xor);
+    }
+
+    /**
+     * Valor que se reconstruye exactamente a partir de sus centésimas (bit a bit:
+     * -0.0 y NaN van por XOR)
+     */
+    private static boolean isHundredths(double value) {
+        return Math.abs(value) < 1e13
+                && Double.doubleToRawLongBits(Math.round(value * 100) / 100.0) == Double.doubleToRawLongBits(value);
+    }
+
+    /**
+     * Entero sin signo en grupos de 7 bits con bit de continuación
+     */
+    private static void writeVarint(BitOutput out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.writeBits(0x80 | (value & 0x7F), 8);
+            value >>>= 7;
+        }
+        out.writeBits(value, 8);
+    }
+
+    private static long readVarint(BitInput in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            long group = in.readBits(8);
+            value |= (group & 0x7F) << shift;
+            if ((group & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.monitoring.server.data.process;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.monitoring.server.data.entity.ProcessInfo;
+import com.monitoring.server.data.process.ProcessSnapshotCodec.Entry;
+
+/**
+ * Historial de procesos como una fila por ciclo de recolección en process_snapshots,
+ * en lugar de una fila por proceso. Cada instantánea se codifica con
+ * {@link ProcessSnapshotCodec} respecto a la anterior (base_timestamp) y cada
+ * {@code system.process.snapshot.keyframe-interval} instantáneas se escribe un
+ * fotograma clave sin base, desde el que empieza la decodificación de cualquier rango.
+ *
+ * Los procesos de una misma instantánea comparten timestamp. La instantánea anterior
+ * solo avanza cuando la escritura termina bien: si falla, el pipeline reenvía el lote
+ * y se vuelve a codificar respecto a lo que realmente quedó guardado.
+ */
+@Component
+public class ProcessSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessSnapshotStore.class);
+
+    private static final int FETCH_SIZE = 500;
+    private static final int RECENT_BASES = 8;
+
+    private static final String INSERT_SNAPSHOT = "INSERT INTO process_snapshots "
+            + "(timestamp, base_timestamp, process_count, data) VALUES (?, ?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final String UPDATE_SNAPSHOT =
+            "UPDATE process_snapshots SET process_count = ?, data = ? WHERE timestamp = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProcessStringDictionary dictionary;
+
+    // Instantáneas entre fotogramas clave: 120 a 30 s es una hora
+    @Value("${system.process.snapshot.keyframe-interval:120}")
+    private int keyframeInterval;
+
+    // Última instantánea guardada, base de la siguiente, y la base con la que se codificó
+    private Entry[] previous;
+    private Entry[] previousBase;
+    private LocalDateTime previousTimestamp;
+    private int sinceKeyframe;
+
+    public ProcessSnapshotStore(JdbcTemplate jdbcTemplate, ProcessStringDictionary dictionary) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Guarda los procesos de uno o varios ciclos, agrupados por timestamp
+     * @param processes Procesos en orden de recolección
+     */
+    public synchronized void append(List<ProcessInfo> processes) {
+        Map<LocalDateTime, List<ProcessInfo>> snapshots = new LinkedHashMap<>();
+        for (ProcessInfo process : processes) {
+            snapshots.computeIfAbsent(process.getTimestamp(), t -> new ArrayList<>()).add(process);
+        }
+
+        Entry[] base = previous;
+        Entry[] baseOfBase = previousBase;
+        LocalDateTime baseTimestamp = previousTimestamp;
+        int count = sinceKeyframe;
+        List<Object[]> rows = new ArrayList<>(snapshots.size());
+        List<Object[]> updates = new ArrayList<>(1);
+        for (Map.Entry<LocalDateTime, List<ProcessInfo>> snapshot : snapshots.entrySet()) {
+            LocalDateTime timestamp = snapshot.getKey();
+            Entry[] entries = toEntries(snapshot.getValue());
+            if (base != null && timestamp.equals(baseTimestamp)) {
+                // Resto de la última instantánea guardada (el lote se partió a mitad de un ciclo)
+                Entry[] combined = Arrays.copyOf(base, base.length + entries.length);
+                System.arraycopy(entries, 0, combined, base.length, entries.length);
+                updates.add(new Object[] {combined.length, ProcessSnapshotCodec.encode(combined, baseOfBase),
+                        Timestamp.valueOf(timestamp)});
+                base = combined;
+                continue;
+            }
+            if (baseTimestamp != null && timestamp.isBefore(baseTimestamp)) {
+                // Fuera de orden (reenvío de un lote antiguo): fotograma clave que no sirve de base
+                rows.add(new Object[] {Timestamp.valueOf(timestamp), null, entries.length,
+                        ProcessSnapshotCodec.encode(entries, null)});
+                continue;
+            }
+            boolean keyframe = base == null || count >= keyframeInterval;
+            byte[] data = ProcessSnapshotCodec.encode(entries, keyframe ? null : base);
+            rows.add(new Object[] {Timestamp.valueOf(timestamp), keyframe ? null : Timestamp.valueOf(baseTimestamp),
+                    entries.length, data});
+            baseOfBase = keyframe ? null : base;
+            base = entries;
+            baseTimestamp = timestamp;
+            count = keyframe ? 1 : count + 1;
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SNAPSHOT, updates);
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SNAPSHOT, rows);
+        }
+
+        previous = base;
+        previousBase = baseOfBase;
+        previousTimestamp = baseTimestamp;
+        sinceKeyframe = count;
+        logger.debug("Guardadas {} instantáneas de procesos", rows.size());
+    }
+
+    /**
+     * Recorre los procesos de las instantáneas de un rango. La lectura empieza en el
+     * último fotograma clave anterior al rango, pero solo se crean objetos para las
+     * instantáneas dentro de él. Debe llamarse dentro de una transacción para que la
+     * lectura sea por cursor.
+     * @param start Fecha de inicio
+     * @param end Fecha de fin
+     * @param action Recibe cada proceso, en orden de timestamp
+     */
+    public void forEach(LocalDateTime start, LocalDateTime end, Consumer<ProcessInfo> action) {
+        LocalDateTime keyframe = findKeyframeAtOrBefore(start);
+        Timestamp from = Timestamp.valueOf(keyframe != null ? keyframe : start);
+
+        // Últimas instantáneas decodificadas: una reenviada fuera de orden puede quedar
+        // entre otra y su base
+        Map<Timestamp, Entry[]> decoded = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Timestamp, Entry[]> eldest) {
+                return size() > RECENT_BASES;
+            }
+        };
+        int[] skipped = new int[1];
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement("SELECT timestamp, base_timestamp, process_count, data "
+                    + "FROM process_snapshots WHERE timestamp BETWEEN ? AND ? ORDER BY timestamp");
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setTimestamp(1, from);
+            statement.setTimestamp(2, Timestamp.valueOf(end));
+            return statement;
+        }, rs -> {
+            Timestamp timestamp = rs.getTimestamp(1);
+            Timestamp reference = rs.getTimestamp(2);
+            Entry[] base = reference != null ? decoded.get(reference) : null;
+            if (reference != null && base == null) {
+                // Falta su base (retención o escritura perdida): hasta el próximo fotograma clave
+                skipped[0]++;
+                return;
+            }
+            Entry[] entries = ProcessSnapshotCodec.decode(rs.getBytes(4), rs.getInt(3), base);
+            decoded.put(timestamp, entries);
+            LocalDateTime time = timestamp.toLocalDateTime();
+            if (!time.isBefore(start)) {
+                for (Entry entry : entries) {
+                    action.accept(toProcessInfo(entry, time));
+                }
+            }
+        });
+        if (skipped[0] > 0) {
+            logger.debug("{} instantáneas de procesos sin base entre {} y {}", skipped[0], start, end);
+        }
+    }
+
+    /**
+     * Procesos de las instantáneas de un rango
+     */
+    public List<ProcessInfo> find(LocalDateTime start, LocalDateTime end) {
+        List<ProcessInfo> result = new ArrayList<>();
+        forEach(start, end, result::add);
+        return result;
+    }
+
+    /**
+     * Último fotograma clave en o antes de una fecha. Lo anterior a él se puede eliminar
+     * sin dejar instantáneas posteriores sin base.
+     * @return Su timestamp, o null si no hay ninguno
+     */
+    public LocalDateTime findKeyframeAtOrBefore(LocalDateTime time) {
+        Timestamp keyframe = jdbcTemplate.queryForObject("SELECT max(timestamp) FROM process_snapshots "
+                + "WHERE base_timestamp IS NULL AND timestamp <= ?", Timestamp.class, Timestamp.valueOf(time));
+        return keyframe != null ? keyframe.toLocalDateTime() : null;
+    }
+
+    /**
+     * Elimina como máximo {@code limit} instantáneas anteriores a una fecha. Se conserva
+     * el último fotograma clave anterior a la fecha y lo que le sigue, para que las
+     * instantáneas posteriores se puedan seguir decodificando.
+     * @return Número de instantáneas eliminadas
+     */
+    public int deleteChunkBefore(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.update("DELETE FROM process_snapshots WHERE timestamp IN "
+                + "(SELECT timestamp FROM process_snapshots WHERE timestamp < "
+                + "(SELECT max(timestamp) FROM process_snapshots WHERE base_timestamp IS NULL AND timestamp <= ?) "
+                + "ORDER BY timestamp LIMIT ?)", Timestamp.valueOf(cutoff), limit);
+    }
+
+    private Entry[] toEntries(List<ProcessInfo> processes) {
+        Entry[] entries = new Entry[processes.size()];
+        for (int i = 0; i < entries.length; i++) {
+            ProcessInfo process = processes.get(i);
+            long pid = parsePid(process.getProcessId());
+            entries[i] = new Entry(pid, pid < 0 ? dictionary.idOf(process.getProcessId()) : 0,
+                    dictionary.idOf(process.getProcessName()), dictionary.idOf(process.getUsername()),
+                    dictionary.idOf(process.getStatus()), process.getCpuUsage(), process.getMemoryUsage(),
+                    process.getDiskUsage());
+        }
+        return entries;
+    }
+
+    private ProcessInfo toProcessInfo(Entry entry, LocalDateTime timestamp) {
+        String processId = entry.pid() >= 0 ? Long.toString(entry.pid()) : dictionary.get(entry.pidText());
+        ProcessInfo process = new ProcessInfo(processId, dictionary.get(entry.name()), entry.cpu(), entry.memory());
+        process.setUsername(dictionary.get(entry.user()));
+        process.setStatus(dictionary.get(entry.status()));
+        process.setDiskUsage(entry.disk());
+        process.setTimestamp(timestamp);
+        return process;
+    }
+
+    /**
+     * PID numérico en su forma canónica ("0042" o "+1" se guardan como texto)
+     * @return El PID, o -1 si no es numérico
+     */
+    private static long parsePid(String processId) {
+        if (processId == null || processId.isEmpty() || processId.length() > 18) {
+            return -1;
+        }
+        for (int i = 0; i < processId.length(); i++) {
+            char c = processId.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+        }
+        if (processId.length() > 1 && processId.charAt(0) == '0') {
+            return -1;
+        }
+        return Long.parseLong(processId);
+    }
+}
@@ -0,0 +1,102 @@
+package com.monitoring.server.data.process;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import com.monitoring.server.data.entity.ProcessString;
+import com.monitoring.server.data.repository.ProcessStringRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Diccionario de las cadenas que se repiten en cada instantánea de procesos
+ * (nombres, usuarios, estados y PID no numéricos), persistido en process_strings
+ * y mantenido en memoria. El identificador 0 representa null.
+ */
+@Component
+public class ProcessStringDictionary {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessStringDictionary.class);
+
+    // Longitud máxima de la columna text
+    private static final int MAX_LENGTH = 512;
+
+    private final ProcessStringRepository stringRepository;
+
+    private final Map<String, Integer> byText = new ConcurrentHashMap<>();
+    private volatile String[] byId = new String[64];
+
+    public ProcessStringDictionary(ProcessStringRepository stringRepository) {
+        this.stringRepository = stringRepository;
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        stringRepository.findAll().forEach(this::add);
+        logger.info("Diccionario de procesos cargado: {} cadenas", byText.size());
+    }
+
+    /**
+     * Obtiene el identificador de una cadena, registrándola si es nueva
+     * @return Identificador, o 0 si la cadena es null
+     */
+    public int idOf(String text) {
+        if (text == null) {
+            return 0;
+        }
+        if (text.length() > MAX_LENGTH) {
+            text = text.substring(0, MAX_LENGTH);
+        }
+        Integer id = byText.get(text);
+        return id != null ? id : register(text);
+    }
+
+    /**
+     * Obtiene una cadena por su identificador
+     * @return La cadena (compartida por todas las lecturas), o null si es 0 o no está registrada
+     */
+    public String get(int id) {
+        String[] strings = byId;
+        return id > 0 && id < strings.length ? strings[id] : null;
+    }
+
+    /**
+     * Número de cadenas registradas
+     */
+    public int size() {
+        return byText.size();
+    }
+
+    private synchronized int register(String text) {
+        Integer id = byText.get(text);
+        if (id != null) {
+            return id;
+        }
+        ProcessString entity;
+        try {
+            entity = stringRepository.findByText(text)
+                    .orElseGet(() -> stringRepository.saveAndFlush(new ProcessString(text)));
+        } catch (DataIntegrityViolationException e) {
+            // Otro nodo registró la misma cadena a la vez: se usa la suya
+            entity = stringRepository.findByText(text).orElseThrow(() -> e);
+        }
+        return add(entity);
+    }
+
+    private synchronized int add(ProcessString entity) {
+        String[] current = byId;
+        if (entity.getId() >= current.length) {
+            current = Arrays.copyOf(current, Math.max(entity.getId() + 1, current.length * 2));
+        }
+        current[entity.getId()] = entity.getText();
+        byId = current;
+        byText.put(entity.getText(), entity.getId());
+        return entity.getId();
+    }
+}
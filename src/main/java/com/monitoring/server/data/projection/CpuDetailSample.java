@@ -0,0 +1,27 @@
+package com.monitoring.server.data.projection;
+
+import java.time.LocalDateTime;
+
+import com.monitoring.server.data.entity.CpuDetailMetric;
+
+/**
+ * Proyección de solo lectura de una fila de cpu_detail_metrics
+ */
+public record CpuDetailSample(LocalDateTime timestamp, float user, float nice, float system, float idle, float iowait,
+        float irq, float softirq, float steal, float[] coreLoads) {
+
+    public CpuDetailMetric toCpuDetailMetric() {
+        CpuDetailMetric metric = new CpuDetailMetric();
+        metric.setTimestamp(timestamp);
+        metric.setUser(user);
+        metric.setNice(nice);
+        metric.setSystem(system);
+        metric.setIdle(idle);
+        metric.setIowait(iowait);
+        metric.setIrq(irq);
+        metric.setSoftirq(softirq);
+        metric.setSteal(steal);
+        metric.setCoreLoads(coreLoads);
+        return metric;
+    }
+}
@@ -0,0 +1,24 @@
+package com.monitoring.server.data.projection;
+
+import java.time.LocalDateTime;
+
+import com.monitoring.server.data.entity.SystemMetric;
+
+/**
+ * Proyección de solo lectura de una fila de system_metrics, sin entidad gestionada
+ */
+public record MetricSample(double cpuUsage, double memoryUsage, double diskUsage, boolean cpuAlert,
+        boolean memoryAlert, boolean diskAlert, LocalDateTime timestamp) {
+
+    /**
+     * Crea una métrica no gestionada con los valores de la proyección
+     */
+    public SystemMetric toSystemMetric() {
+        SystemMetric metric = new SystemMetric(cpuUsage, memoryUsage, diskUsage);
+        metric.setTimestamp(timestamp);
+        metric.setCpuAlert(cpuAlert);
+        metric.setMemoryAlert(memoryAlert);
+        metric.setDiskAlert(diskAlert);
+        return metric;
+    }
+}
@@ -0,0 +1,21 @@
+package com.monitoring.server.data.projection;
+
+import java.time.LocalDateTime;
+
+import com.monitoring.server.data.entity.ProcessInfo;
+
+/**
+ * Proyección de solo lectura de una fila de process_info
+ */
+public record ProcessSample(String processId, String processName, String username, String status, double cpuUsage,
+        double memoryUsage, double diskUsage, LocalDateTime timestamp) {
+
+    public ProcessInfo toProcessInfo() {
+        ProcessInfo process = new ProcessInfo(processId, processName, cpuUsage, memoryUsage);
+        process.setUsername(username);
+        process.setStatus(status);
+        process.setDiskUsage(diskUsage);
+        process.setTimestamp(timestamp);
+        return process;
+    }
+}
@@ -19,6 +19,11 @@ public interface AlertConfigRepository extends JpaRepository<AlertConfiguration,
      */
     Optional<AlertConfiguration> findByIsActiveTrue();
     
+    /**
+     * Encuentra la primera configuración activa (la de menor ID)
+     */
+    Optional<AlertConfiguration> findFirstByIsActiveTrueOrderByIdAsc();
+    
     /**
      * Encuentra configuraciones por estado de habilitación
      */
@@ -0,0 +1,58 @@
+package com.monitoring.server.data.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.monitoring.server.data.entity.CpuDetailMetric;
+import com.monitoring.server.data.projection.CpuDetailSample;
+
+import jakarta.persistence.QueryHint;
+
+/**
+ * Repositorio para acceder al detalle de CPU (por núcleo y por categoría de tick)
+ */
+@Repository
+public interface CpuDetailMetricRepository extends JpaRepository<CpuDetailMetric, Long> {
+
+    /**
+     * Encuentra muestras entre dos fechas ordenadas por tiempo
+     */
+    List<CpuDetailMetric> findByTimestampBetweenOrderByTimestampAsc(LocalDateTime startTime, LocalDateTime endTime);
+
+    /**
+     * Recorre las muestras de un rango con un cursor, como proyecciones de solo lectura;
+     * debe consumirse dentro de una transacción de solo lectura y cerrarse
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.monitoring.server.data.projection.CpuDetailSample(c.timestamp, c.user, c.nice, c.system, "
+            + "c.idle, c.iowait, c.irq, c.softirq, c.steal, c.coreLoads) FROM CpuDetailMetric c "
+            + "WHERE c.timestamp BETWEEN :startTime AND :endTime ORDER BY c.timestamp")
+    Stream<CpuDetailSample> streamByTimestampBetween(@Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * Elimina muestras anteriores a una fecha
+     */
+    int deleteByTimestampBefore(LocalDateTime date);
+
+    /**
+     * Elimina como máximo {@code limit} filas anteriores a una fecha en una transacción corta,
+     * sin cargar las entidades
+     * @return Número de filas eliminadas
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM cpu_detail_metrics WHERE id IN "
+            + "(SELECT id FROM cpu_detail_metrics WHERE timestamp < :cutoff LIMIT :limit)", nativeQuery = true)
+    int deleteChunkBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
@@ -2,13 +2,23 @@ package com.monitoring.server.data.repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.monitoring.server.data.entity.SystemMetric;
+import com.monitoring.server.data.projection.MetricSample;
+
+import jakarta.persistence.QueryHint;
 
 /**
  * Repositorio para acceder a las métricas del sistema en la base de datos
@@ -17,15 +27,26 @@ import com.monitoring.server.data.entity.SystemMetric;
 public interface MetricRepository extends JpaRepository<SystemMetric, Long> {
     
     /**
-     * Encuentra métricas por nombre
+     * Proyección común de las lecturas en streaming: solo columnas, sin entidades gestionadas
      */
-    List<SystemMetric> findByMetricName(String metricName);
+    String METRIC_SAMPLE = "SELECT new com.monitoring.server.data.projection.MetricSample(m.cpuUsage, "
+            + "m.memoryUsage, m.diskUsage, m.cpuAlert, m.memoryAlert, m.diskAlert, m.timestamp) "
+            + "FROM SystemMetric m ";
     
     /**
      * Encuentra métricas entre dos fechas
      */
     List<SystemMetric> findByTimestampBetween(LocalDateTime startTime, LocalDateTime endTime);
     
+    /**
+     * Recorre las filas resumen de un rango con un cursor; debe consumirse dentro de una
+     * transacción de solo lectura y cerrarse
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(METRIC_SAMPLE + "WHERE m.timestamp BETWEEN :startTime AND :endTime ORDER BY m.timestamp")
+    Stream<MetricSample> streamSystemSamples(@Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime);
+    
     /**
      * Encuentra métricas posteriores a una fecha
      */
@@ -45,4 +66,15 @@ public interface MetricRepository extends JpaRepository<SystemMetric, Long> {
      * Elimina métricas anteriores a una fecha
      */
     int deleteByTimestampBefore(LocalDateTime date);
-}
\ No newline at end of file
+    
+    /**
+     * Elimina como máximo {@code limit} filas anteriores a una fecha en una transacción corta,
+     * sin cargar las entidades
+     * @return Número de filas eliminadas
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM system_metrics WHERE id IN "
+            + "(SELECT id FROM system_metrics WHERE timestamp < :cutoff LIMIT :limit)", nativeQuery = true)
+    int deleteChunkBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
@@ -0,0 +1,20 @@
+package com.monitoring.server.data.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.monitoring.server.data.entity.MetricSeries;
+
+/**
+ * Repositorio del registro de series
+ */
+@Repository
+public interface MetricSeriesRepository extends JpaRepository<MetricSeries, Integer> {
+
+    /**
+     * Encuentra una serie por métrica y etiquetas canónicas
+     */
+    Optional<MetricSeries> findByMetricAndTags(String metric, String tags);
+}
@@ -2,11 +2,21 @@ package com.monitoring.server.data.repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.monitoring.server.data.entity.ProcessInfo;
+import com.monitoring.server.data.projection.ProcessSample;
+
+import jakarta.persistence.QueryHint;
 
 /**
  * Repositorio para acceder a la información de procesos en la base de datos
@@ -19,6 +29,17 @@ public interface ProcessInfoRepository extends JpaRepository<ProcessInfo, Long>
      */
     List<ProcessInfo> findByTimestampBetween(LocalDateTime startTime, LocalDateTime endTime);
     
+    /**
+     * Recorre los procesos de un rango con un cursor, como proyecciones de solo lectura;
+     * debe consumirse dentro de una transacción de solo lectura y cerrarse
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.monitoring.server.data.projection.ProcessSample(p.processId, p.processName, p.username, "
+            + "p.status, p.cpuUsage, p.memoryUsage, p.diskUsage, p.timestamp) FROM ProcessInfo p "
+            + "WHERE p.timestamp BETWEEN :startTime AND :endTime ORDER BY p.timestamp")
+    Stream<ProcessSample> streamByTimestampBetween(@Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime);
+    
     /**
      * Encuentra procesos por nombre
      */
@@ -34,4 +55,15 @@ public interface ProcessInfoRepository extends JpaRepository<ProcessInfo, Long>
      * Encuentra procesos por ID de proceso
      */
     List<ProcessInfo> findByProcessId(String processId);
-}
\ No newline at end of file
+    
+    /**
+     * Elimina como máximo {@code limit} filas anteriores a una fecha en una transacción corta,
+     * sin cargar las entidades
+     * @return Número de filas eliminadas
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM process_info WHERE id IN "
+            + "(SELECT id FROM process_info WHERE timestamp < :cutoff LIMIT :limit)", nativeQuery = true)
+    int deleteChunkBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
@@ -0,0 +1,20 @@
+package com.monitoring.server.data.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.monitoring.server.data.entity.ProcessString;
+
+/**
+ * Repositorio del diccionario de cadenas de procesos
+ */
+@Repository
+public interface ProcessStringRepository extends JpaRepository<ProcessString, Integer> {
+
+    /**
+     * Encuentra una cadena del diccionario por su texto
+     */
+    Optional<ProcessString> findByText(String text);
+}
@@ -0,0 +1,121 @@
+package com.monitoring.server.data.rollup;
+
+import java.time.LocalDateTime;
+
+import com.monitoring.server.data.entity.SystemMetric;
+
+/**
+ * Agregado (mínimo, máximo, media, último valor y número de muestras) de las
+ * filas resumen de un intervalo. Las columnas se indexan con {@link #CPU},
+ * {@link #MEMORY} y {@link #DISK}.
+ */
+public class MetricRollup {
+
+    public static final int CPU = 0;
+    public static final int MEMORY = 1;
+    public static final int DISK = 2;
+    private static final int COLUMNS = 3;
+
+    private final LocalDateTime start;
+    private final double[] min = new double[COLUMNS];
+    private final double[] max = new double[COLUMNS];
+    private final double[] sum = new double[COLUMNS];
+    private final double[] last = new double[COLUMNS];
+    private LocalDateTime lastTimestamp;
+    private long count;
+    private boolean cpuAlert;
+    private boolean memoryAlert;
+    private boolean diskAlert;
+
+    public MetricRollup(LocalDateTime start) {
+        this.start = start;
+    }
+
+    /**
+     * Incorpora una fila resumen al agregado
+     */
+    void add(SystemMetric metric) {
+        double[] values = {metric.getCpuUsage(), metric.getMemoryUsage(), metric.getDiskUsage()};
+        for (int i = 0; i < COLUMNS; i++) {
+            if (count == 0) {
+                min[i] = values[i];
+                max[i] = values[i];
+            } else {
+                min[i] = Math.min(min[i], values[i]);
+                max[i] = Math.max(max[i], values[i]);
+            }
+            sum[i] += values[i];
+        }
+        // Las muestras pueden llegar desordenadas (reenvío desde el spool)
+        if (lastTimestamp == null || !metric.getTimestamp().isBefore(lastTimestamp)) {
+            System.arraycopy(values, 0, last, 0, COLUMNS);
+            lastTimestamp = metric.getTimestamp();
+        }
+        count++;
+        cpuAlert |= metric.isCpuAlert();
+        memoryAlert |= metric.isMemoryAlert();
+        diskAlert |= metric.isDiskAlert();
+    }
+
+    MetricRollup copy() {
+        MetricRollup copy = new MetricRollup(start);
+        System.arraycopy(min, 0, copy.min, 0, COLUMNS);
+        System.arraycopy(max, 0, copy.max, 0, COLUMNS);
+        System.arraycopy(sum, 0, copy.sum, 0, COLUMNS);
+        System.arraycopy(last, 0, copy.last, 0, COLUMNS);
+        copy.lastTimestamp = lastTimestamp;
+        copy.count = count;
+        copy.cpuAlert = cpuAlert;
+        copy.memoryAlert = memoryAlert;
+        copy.diskAlert = diskAlert;
+        return copy;
+    }
+
+    /**
+     * Convierte el agregado en una fila resumen con los valores medios del intervalo
+     */
+    public SystemMetric toSystemMetric() {
+        SystemMetric metric = new SystemMetric(getAvg(CPU), getAvg(MEMORY), getAvg(DISK));
+        metric.setTimestamp(start);
+        metric.setCpuAlert(cpuAlert);
+        metric.setMemoryAlert(memoryAlert);
+        metric.setDiskAlert(diskAlert);
+        return metric;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin(int column) {
+        return min[column];
+    }
+
+    public double getMax(int column) {
+        return max[column];
+    }
+
+    public double getAvg(int column) {
+        return count == 0 ? 0 : sum[column] / count;
+    }
+
+    public double getLast(int column) {
+        return last[column];
+    }
+
+    public boolean isCpuAlert() {
+        return cpuAlert;
+    }
+
+    public boolean isMemoryAlert() {
+        return memoryAlert;
+    }
+
+    public boolean isDiskAlert() {
+        return diskAlert;
+    }
+}
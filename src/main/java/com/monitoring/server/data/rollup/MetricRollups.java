@@ -0,0 +1,213 @@
+package com.monitoring.server.data.rollup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.monitoring.server.data.entity.SystemMetric;
+import com.monitoring.server.data.store.MetricStore;
+import com.monitoring.server.data.window.HotWindow;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Agregados de 1 minuto, 15 minutos y 1 hora de las filas resumen del sistema,
+ * mantenidos de forma incremental al guardar cada lote. Al arrancar se
+ * reconstruyen una vez recorriendo el {@link MetricStore} sin cargar el rango en memoria.
+ * Solo se incorporan filas posteriores a la última agregada, de modo que un lote
+ * reenviado no se cuenta dos veces.
+ */
+@Component
+public class MetricRollups {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricRollups.class);
+
+    private final MetricStore metricStore;
+    private final HotWindow hotWindow;
+    private final Map<RollupTier, TreeMap<Long, MetricRollup>> tiers = new EnumMap<>(RollupTier.class);
+
+    // Timestamp de la última fila resumen agregada
+    private LocalDateTime lastTimestamp;
+
+    @Value("${system.metric.collection.interval:10000}")
+    private long collectionIntervalMs;
+
+    @Value("${system.metric.history.max-points:1000}")
+    private int maxPoints;
+
+    // Antigüedad máxima que se mantiene en memoria para cada nivel
+    @Value("${system.retention.rollup.1m:2d}")
+    private Duration minuteRetention;
+
+    @Value("${system.retention.rollup.15m:31d}")
+    private Duration quarterHourRetention;
+
+    @Value("${system.retention.rollup.1h:366d}")
+    private Duration hourRetention;
+
+    public MetricRollups(MetricStore metricStore, HotWindow hotWindow) {
+        this.metricStore = metricStore;
+        this.hotWindow = hotWindow;
+        for (RollupTier tier : RollupTier.values()) {
+            tiers.put(tier, new TreeMap<>());
+        }
+    }
+
+    @PostConstruct
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        Duration longest = Duration.ZERO;
+        for (RollupTier tier : RollupTier.values()) {
+            longest = getRetention(tier).compareTo(longest) > 0 ? getRetention(tier) : longest;
+        }
+        long[] rows = new long[1];
+        metricStore.forEachSystemMetric(now.minus(longest), now, metric -> {
+            add(metric);
+            rows[0]++;
+        });
+        trim(now);
+        logger.info("Agregados reconstruidos desde {} filas en {} ms", rows[0], (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Incorpora las filas resumen de un lote; las métricas genéricas se ignoran
+     * @param metrics Lote guardado
+     */
+    public synchronized void record(List<SystemMetric> metrics) {
+        LocalDateTime newest = null;
+        for (SystemMetric metric : metrics) {
+            if (add(metric) && (newest == null || metric.getTimestamp().isAfter(newest))) {
+                newest = metric.getTimestamp();
+            }
+        }
+        if (newest != null) {
+            trim(newest);
+        }
+    }
+
+    /**
+     * Incorpora una fila a todos los niveles
+     * @return false si no es una fila resumen o ya se agregó una fila igual o posterior
+     */
+    private boolean add(SystemMetric metric) {
+        if (metric.getMetricName() != null || metric.getTimestamp() == null) {
+            return false;
+        }
+        if (lastTimestamp != null && !metric.getTimestamp().isAfter(lastTimestamp)) {
+            return false;
+        }
+        lastTimestamp = metric.getTimestamp();
+        for (RollupTier tier : RollupTier.values()) {
+            long bucket = bucketStart(metric.getTimestamp(), tier);
+            tiers.get(tier).computeIfAbsent(bucket, key -> new MetricRollup(toLocalDateTime(key))).add(metric);
+        }
+        return true;
+    }
+
+    /**
+     * Descarta los agregados que superan la retención de su nivel
+     * @param reference Instante desde el que se mide la antigüedad
+     * @return Número de agregados descartados
+     */
+    public synchronized int trim(LocalDateTime reference) {
+        int removed = 0;
+        for (RollupTier tier : RollupTier.values()) {
+            Map<Long, MetricRollup> expired = tiers.get(tier).headMap(bucketStart(reference.minus(getRetention(tier)), tier));
+            removed += expired.size();
+            expired.clear();
+        }
+        return removed;
+    }
+
+    /**
+     * Agregados de un nivel cuyo intervalo empieza dentro del rango
+     * @param tier Nivel de agregación
+     * @param start Fecha de inicio
+     * @param end Fecha de fin
+     * @return Copias de los agregados ordenadas por inicio
+     */
+    public synchronized List<MetricRollup> find(RollupTier tier, LocalDateTime start, LocalDateTime end) {
+        List<MetricRollup> result = new ArrayList<>();
+        for (MetricRollup rollup : tiers.get(tier).subMap(bucketStart(start, tier), true, toSeconds(end), true)
+                .values()) {
+            result.add(rollup.copy());
+        }
+        return result;
+    }
+
+    /**
+     * Elige el nivel más fino que no supera el número máximo de puntos para el rango
+     * ({@code system.metric.history.max-points}) y que aún conserva su inicio
+     * @param start Fecha de inicio
+     * @param end Fecha de fin
+     * @return Nivel elegido, o vacío si las filas originales ya caben
+     */
+    public Optional<RollupTier> selectTier(LocalDateTime start, LocalDateTime end) {
+        Duration range = Duration.between(start, end);
+        if (range.toMillis() / Math.max(collectionIntervalMs, 1) <= maxPoints) {
+            return Optional.empty();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (RollupTier tier : RollupTier.values()) {
+            boolean fits = range.dividedBy(tier.getStep()) <= maxPoints;
+            boolean retained = !start.isBefore(now.minus(getRetention(tier)));
+            if (fits && retained) {
+                return Optional.of(tier);
+            }
+        }
+        return Optional.of(RollupTier.HOUR_1);
+    }
+
+    /**
+     * Historial de filas resumen con la resolución elegida por {@link #selectTier}
+     * @param start Fecha de inicio
+     * @param end Fecha de fin
+     * @return Filas originales (de la ventana en memoria si cubre el rango) o medias de cada
+     *         intervalo, ordenadas por timestamp
+     */
+    public List<SystemMetric> findHistory(LocalDateTime start, LocalDateTime end) {
+        Optional<RollupTier> tier = selectTier(start, end);
+        if (tier.isEmpty()) {
+            return hotWindow.findSystemMetrics(start, end).orElseGet(() -> metricStore.findSystemMetrics(start, end));
+        }
+        return find(tier.get(), start, end).stream()
+                .map(MetricRollup::toSystemMetric)
+                .toList();
+    }
+
+    /**
+     * Antigüedad máxima configurada para un nivel
+     */
+    public Duration getRetention(RollupTier tier) {
+        return switch (tier) {
+            case MINUTE_1 -> minuteRetention;
+            case MINUTE_15 -> quarterHourRetention;
+            case HOUR_1 -> hourRetention;
+        };
+    }
+
+    private static long bucketStart(LocalDateTime time, RollupTier tier) {
+        long step = tier.getStep().toSeconds();
+        return Math.floorDiv(toSeconds(time), step) * step;
+    }
+
+    private static long toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toLocalDateTime(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+}
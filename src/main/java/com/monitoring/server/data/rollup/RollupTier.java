@@ -0,0 +1,26 @@
+package com.monitoring.server.data.rollup;
+
+import java.time.Duration;
+
+/**
+ * Niveles de agregación precalculados para las filas resumen del sistema
+ */
+public enum RollupTier {
+
+    MINUTE_1(Duration.ofMinutes(1)),
+    MINUTE_15(Duration.ofMinutes(15)),
+    HOUR_1(Duration.ofHours(1));
+
+    private final Duration step;
+
+    RollupTier(Duration step) {
+        this.step = step;
+    }
+
+    /**
+     * Tamaño de cada intervalo agregado
+     */
+    public Duration getStep() {
+        return step;
+    }
+}
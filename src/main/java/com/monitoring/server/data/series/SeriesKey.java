@@ -0,0 +1,54 @@
+package com.monitoring.server.data.series;
+
+import java.util.Map;
+
+/**
+ * Identidad de una serie: métrica y etiquetas en forma canónica.
+ * Los recolectores publican nombres planos como "DB_5_ResponseTime" o
+ * "NET_eth0_RxKBps"; {@link #parse} separa la parte variable como etiqueta
+ * ("DB_ResponseTime" con "database=5") y {@link #name()} la vuelve a componer.
+ * La migración V4 aplica la misma regla en SQL a las filas existentes.
+ */
+public record SeriesKey(String metric, String tags) {
+
+    // Prefijos con una parte variable entre el prefijo y la métrica, y su clave de etiqueta
+    private static final Map<String, String> TAG_KEYS = Map.of(
+            "DB", "database",
+            "NET", "interface",
+            "DISK", "device",
+            "FS", "mount",
+            "RETENTION", "table");
+
+    /**
+     * Separa un nombre plano en métrica y etiquetas
+     * @param name Nombre publicado por el recolector
+     * @return Clave de la serie; sin etiquetas si el nombre no sigue un patrón conocido
+     */
+    public static SeriesKey parse(String name) {
+        int first = name.indexOf('_');
+        int last = name.lastIndexOf('_');
+        if (first > 0 && last > first + 1 && last < name.length() - 1) {
+            String prefix = name.substring(0, first);
+            String tagKey = TAG_KEYS.get(prefix);
+            if (tagKey != null) {
+                return new SeriesKey(prefix + name.substring(last), tagKey + "=" + name.substring(first + 1, last));
+            }
+        }
+        return new SeriesKey(name, "");
+    }
+
+    /**
+     * Nombre plano de la serie, el que usan las vistas y la API
+     */
+    public String name() {
+        if (tags.isEmpty()) {
+            return metric;
+        }
+        int separator = metric.indexOf('_');
+        int equals = tags.indexOf('=');
+        if (separator < 0 || equals < 0 || tags.indexOf(',') >= 0) {
+            return metric + "{" + tags + "}";
+        }
+        return metric.substring(0, separator) + "_" + tags.substring(equals + 1) + metric.substring(separator);
+    }
+}
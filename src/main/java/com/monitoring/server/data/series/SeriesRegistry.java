@@ -0,0 +1,123 @@
+package com.monitoring.server.data.series;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import com.monitoring.server.data.entity.MetricSeries;
+import com.monitoring.server.data.repository.MetricSeriesRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Registro de series: asigna a cada (métrica, etiquetas) un identificador entero
+ * persistido en metric_series y lo mantiene en memoria. Resolver un nombre ya
+ * conocido es una búsqueda en un mapa, sin acceso a la base de datos; los nombres,
+ * etiquetas y unidades se guardan una sola vez y se comparten entre todas las
+ * muestras que se leen.
+ */
+@Component
+public class SeriesRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeriesRegistry.class);
+
+    /**
+     * Serie resuelta, con sus cadenas ya internadas
+     */
+    public record Series(int id, String metric, String tags, String name, String unit) {
+    }
+
+    private final MetricSeriesRepository seriesRepository;
+
+    private final Map<String, Series> byName = new ConcurrentHashMap<>();
+    // Diccionario de cadenas: una sola instancia por métrica, etiqueta o unidad
+    private final Map<String, String> dictionary = new ConcurrentHashMap<>();
+    private volatile Series[] byId = new Series[64];
+
+    public SeriesRegistry(MetricSeriesRepository seriesRepository) {
+        this.seriesRepository = seriesRepository;
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        seriesRepository.findAll().forEach(this::add);
+        logger.info("Registro de series cargado: {} series", byName.size());
+    }
+
+    /**
+     * Obtiene la serie de un nombre plano, registrándola si es nueva
+     * @param name Nombre publicado por el recolector
+     * @param unit Unidad, se guarda al registrar la serie
+     * @return Serie con su identificador
+     */
+    public Series resolve(String name, String unit) {
+        Series series = byName.get(name);
+        return series != null ? series : register(name, unit);
+    }
+
+    /**
+     * Busca una serie ya registrada por su nombre plano
+     */
+    public Optional<Series> find(String name) {
+        return Optional.ofNullable(byName.get(name));
+    }
+
+    /**
+     * Obtiene una serie por su identificador
+     * @return La serie, o null si no está registrada
+     */
+    public Series get(int id) {
+        Series[] series = byId;
+        return id >= 0 && id < series.length ? series[id] : null;
+    }
+
+    /**
+     * Número de series registradas
+     */
+    public int size() {
+        return byName.size();
+    }
+
+    private synchronized Series register(String name, String unit) {
+        Series series = byName.get(name);
+        if (series != null) {
+            return series;
+        }
+        SeriesKey key = SeriesKey.parse(name);
+        MetricSeries entity;
+        try {
+            entity = seriesRepository.findByMetricAndTags(key.metric(), key.tags())
+                    .orElseGet(() -> seriesRepository.saveAndFlush(new MetricSeries(key.metric(), key.tags(), unit)));
+        } catch (DataIntegrityViolationException e) {
+            // Otro nodo registró la misma serie a la vez: se usa la suya
+            entity = seriesRepository.findByMetricAndTags(key.metric(), key.tags()).orElseThrow(() -> e);
+        }
+        logger.debug("Serie registrada: {} -> {}", name, entity.getId());
+        return add(entity);
+    }
+
+    private synchronized Series add(MetricSeries entity) {
+        String metric = intern(entity.getMetric());
+        String tags = intern(entity.getTags());
+        Series series = new Series(entity.getId(), metric, tags, intern(new SeriesKey(metric, tags).name()),
+                intern(entity.getUnit()));
+        Series[] current = byId;
+        if (series.id() >= current.length) {
+            current = Arrays.copyOf(current, Math.max(series.id() + 1, current.length * 2));
+        }
+        current[series.id()] = series;
+        byId = current;
+        byName.put(series.name(), series);
+        return series;
+    }
+
+    private String intern(String value) {
+        return value != null ? dictionary.computeIfAbsent(value, v -> v) : null;
+    }
+}
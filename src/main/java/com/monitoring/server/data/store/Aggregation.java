@@ -0,0 +1,12 @@
+package com.monitoring.server.data.store;
+
+/**
+ * Función de agregación para las consultas por intervalos
+ */
+public enum Aggregation {
+    AVG,
+    MIN,
+    MAX,
+    SUM,
+    COUNT
+}
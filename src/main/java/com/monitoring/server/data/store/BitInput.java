@@ -0,0 +1,47 @@
+package com.monitoring.server.data.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Lector de bits sobre una región de un {@link ByteBuffer} (por ejemplo, un archivo mapeado)
+ */
+public class BitInput {
+
+    private final ByteBuffer buffer;
+    private final int start;
+    private long bitPosition;
+
+    public BitInput(ByteBuffer buffer, int start) {
+        this.buffer = buffer;
+        this.start = start;
+    }
+
+    /**
+     * Lee {@code count} bits (hasta 64) como entero sin signo
+     */
+    public long readBits(int count) {
+        long value = 0;
+        for (int remaining = count; remaining > 0; ) {
+            int current = buffer.get(start + (int) (bitPosition >>> 3)) & 0xFF;
+            int availableInByte = 8 - (int) (bitPosition & 7);
+            int take = Math.min(availableInByte, remaining);
+            int chunk = (current >>> (availableInByte - take)) & ((1 << take) - 1);
+            value = (value << take) | chunk;
+            bitPosition += take;
+            remaining -= take;
+        }
+        return value;
+    }
+
+    public boolean readBit() {
+        return readBits(1) != 0;
+    }
+
+    /**
+     * Lee {@code count} bits como entero con signo en complemento a dos
+     */
+    public long readSigned(int count) {
+        long value = readBits(count);
+        return (value << (64 - count)) >> (64 - count);
+    }
+}
@@ -0,0 +1,51 @@
+package com.monitoring.server.data.store;
+
+import java.util.Arrays;
+
+/**
+ * Escritor de bits sobre un arreglo de bytes que crece según se necesita
+ */
+public class BitOutput {
+
+    private byte[] bytes;
+    private long bitPosition;
+
+    public BitOutput(int initialBytes) {
+        this.bytes = new byte[Math.max(16, initialBytes)];
+    }
+
+    /**
+     * Escribe los {@code count} bits menos significativos de {@code value}, del más
+     * significativo al menos significativo
+     */
+    public void writeBits(long value, int count) {
+        ensureCapacity(count);
+        for (int remaining = count; remaining > 0; ) {
+            int byteIndex = (int) (bitPosition >>> 3);
+            int freeInByte = 8 - (int) (bitPosition & 7);
+            int take = Math.min(freeInByte, remaining);
+            int chunk = (int) ((value >>> (remaining - take)) & ((1 << take) - 1));
+            bytes[byteIndex] |= (byte) (chunk << (freeInByte - take));
+            bitPosition += take;
+            remaining -= take;
+        }
+    }
+
+    public void writeBit(boolean bit) {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    /**
+     * @return Bytes escritos (el último byte se completa con ceros)
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, (int) ((bitPosition + 7) >>> 3));
+    }
+
+    private void ensureCapacity(int extraBits) {
+        long needed = (bitPosition + extraBits + 7) >>> 3;
+        if (needed > bytes.length) {
+            bytes = Arrays.copyOf(bytes, (int) Math.max(needed, bytes.length * 2L));
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.monitoring.server.data.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Codificación columnar de un bloque de muestras al estilo Gorilla:
+ * primero la columna de timestamps (delta de deltas con prefijos de longitud
+ * variable) y a continuación cada columna de valores (XOR con el valor anterior,
+ * guardando solo los bits significativos). Series regulares ocupan del orden
+ * de 1-2 bytes por punto en lugar de decenas.
+ */
+final class ChunkCodec {
+
+    private ChunkCodec() {
+    }
+
+    /**
+     * Codifica {@code count} puntos
+     * @param timestamps Timestamps en milisegundos, en orden creciente
+     * @param columns Columnas de valores, cada una con al menos {@code count} elementos
+     * @return Bytes codificados
+     */
+    static byte[] encode(long[] timestamps, double[][] columns, int count) {
+        BitOutput out = new BitOutput(count * (2 + columns.length * 2));
+        encodeTimestamps(out, timestamps, count);
+        for (double[] column : columns) {
+            encodeValues(out, column, count);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodifica un bloque escrito con {@link #encode}
+     * @param buffer Buffer con los datos (puede ser un archivo mapeado)
+     * @param offset Posición de inicio del bloque en el buffer
+     * @param count Número de puntos
+     * @param timestamps Destino de los timestamps
+     * @param columns Destino de las columnas de valores
+     */
+    static void decode(ByteBuffer buffer, int offset, int count, long[] timestamps, double[][] columns) {
+        BitInput in = new BitInput(buffer, offset);
+        decodeTimestamps(in, timestamps, count);
+        for (double[] column : columns) {
+            decodeValues(in, column, count);
+        }
+    }
+
+    private static void encodeTimestamps(BitOutput out, long[] timestamps, int count) {
+        if (count == 0) {
+            return;
+        }
+        out.writeBits(timestamps[0], 64);
+        long previous = timestamps[0];
+        long previousDelta = 0;
+        for (int i = 1; i < count; i++) {
+            long delta = timestamps[i] - previous;
+            long deltaOfDelta = delta - previousDelta;
+            if (deltaOfDelta == 0) {
+                out.writeBits(0b0, 1);
+            } else if (deltaOfDelta >= -64 && deltaOfDelta <= 63) {
+                out.writeBits(0b10, 2);
+                out.writeBits(deltaOfDelta, 7);
+            } else if (deltaOfDelta >= -256 && deltaOfDelta <= 255) {
+                out.writeBits(0b110, 3);
+                out.writeBits(deltaOfDelta, 9);
+            } else if (deltaOfDelta >= -2048 && deltaOfDelta <= 2047) {
+                out.writeBits(0b1110, 4);
+                out.writeBits(deltaOfDelta, 12);
+            } else {
+                out.writeBits(0b1111, 4);
+                out.writeBits(deltaOfDelta, 64);
+            }
+            previous = timestamps[i];
+            previousDelta = delta;
+        }
+    }
+
+    private static void decodeTimestamps(BitInput in, long[] timestamps, int count) {
+        if (count == 0) {
+            return;
+        }
+        timestamps[0] = in.readBits(64);
+        long previousDelta = 0;
+        for (int i = 1; i < count; i++) {
+            long deltaOfDelta;
+            if (!in.readBit()) {
+                deltaOfDelta = 0;
+            } else if (!in.readBit()) {
+                deltaOfDelta = in.readSigned(7);
+            } else if (!in.readBit()) {
+                deltaOfDelta = in.readSigned(9);
+            } else if (!in.readBit()) {
+                deltaOfDelta = in.readSigned(12);
+            } else {
+                deltaOfDelta = in.readBits(64);
+            }
+            long delta = previousDelta + deltaOfDelta;
+            timestamps[i] = timestamps[i - 1] + delta;
+            previousDelta = delta;
+        }
+    }
+
+    private static void encodeValues(BitOutput out, double[] values, int count) {
+        if (count == 0) {
+            return;
+        }
+        long previous = Double.doubleToRawLongBits(values[0]);
+        out.writeBits(previous, 64);
+        // Ventana de bits significativos del valor anterior (leading = 65: sin ventana)
+        int previousLeading = 65;
+        int previousTrailing = 0;
+        for (int i = 1; i < count; i++) {
+            long bits = Double.doubleToRawLongBits(values[i]);
+            long xor = bits ^ previous;
+            if (xor == 0) {
+                out.writeBits(0b0, 1);
+            } else {
+                int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+                int trailing = Long.numberOfTrailingZeros(xor);
+                if (previousLeading <= 64 && leading >= previousLeading && trailing >= previousTrailing) {
+                    // Cabe en la ventana anterior: solo se escriben los bits de la ventana
+                    out.writeBits(0b10, 2);
+                    out.writeBits(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+                } else {
+                    int significant = 64 - leading - trailing;
+                    out.writeBits(0b11, 2);
+                    out.writeBits(leading, 5);
+                    out.writeBits(significant == 64 ? 0 : significant, 6);
+                    out.writeBits(xor >>> trailing, significant);
+                    previousLeading = leading;
+                    previousTrailing = trailing;
+                }
+            }
+            previous = bits;
+        }
+    }
+
+    private static void decodeValues(BitInput in, double[] values, int count) {
+        if (count == 0) {
+            return;
+        }
+        long previous = in.readBits(64);
+        values[0] = Double.longBitsToDouble(previous);
+        int previousLeading = 0;
+        int previousTrailing = 0;
+        for (int i = 1; i < count; i++) {
+            if (in.readBit()) {
+                if (in.readBit()) {
+                    previousLeading = (int) in.readBits(5);
+                    int significant = (int) in.readBits(6);
+                    if (significant == 0) {
+                        significant = 64;
+                    }
+                    previousTrailing = 64 - previousLeading - significant;
+                }
+                int significant = 64 - previousLeading - previousTrailing;
+                long xor = in.readBits(significant) << previousTrailing;
+                previous ^= xor;
+            }
+            values[i] = Double.longBitsToDouble(previous);
+        }
+    }
+}
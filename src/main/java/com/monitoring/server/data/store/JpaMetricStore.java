@@ -0,0 +1,237 @@
+package com.monitoring.server.data.store;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.monitoring.server.data.entity.SystemMetric;
+import com.monitoring.server.data.projection.MetricSample;
+import com.monitoring.server.data.repository.MetricRepository;
+import com.monitoring.server.data.series.SeriesRegistry;
+import com.monitoring.server.data.series.SeriesRegistry.Series;
+import com.monitoring.server.util.EpochMillis;
+
+/**
+ * Almacenamiento de métricas en PostgreSQL. Modo de compatibilidad: {@code system.metric.store=jpa}.
+ * Las filas resumen se guardan en system_metrics; las series genéricas se guardan en
+ * series_samples como (serie, epoch en ms, valor), resolviendo el nombre a su
+ * identificador en el {@link SeriesRegistry}. Ambas se escriben con {@link PgBulkWriter}.
+ */
+@Component
+@ConditionalOnProperty(name = "system.metric.store", havingValue = "jpa")
+public class JpaMetricStore implements MetricStore {
+
+    private static final int DELETE_CHUNK_SIZE = 5000;
+    private static final int FETCH_SIZE = 1000;
+
+    private final MetricRepository metricRepository;
+    private final SeriesRegistry seriesRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final PgBulkWriter bulkWriter;
+
+    public JpaMetricStore(MetricRepository metricRepository, SeriesRegistry seriesRegistry,
+            JdbcTemplate jdbcTemplate, PgBulkWriter bulkWriter) {
+        this.metricRepository = metricRepository;
+        this.seriesRegistry = seriesRegistry;
+        this.jdbcTemplate = jdbcTemplate;
+        this.bulkWriter = bulkWriter;
+    }
+
+    @Override
+    @Transactional
+    public void append(List<SystemMetric> metrics) {
+        List<SystemMetric> summaries = new ArrayList<>();
+        int[] seriesIds = new int[metrics.size()];
+        long[] timestamps = new long[metrics.size()];
+        double[] values = new double[metrics.size()];
+        int samples = 0;
+        for (SystemMetric metric : metrics) {
+            if (metric.getMetricName() == null) {
+                summaries.add(metric);
+            } else {
+                seriesIds[samples] = seriesRegistry.resolve(metric.getMetricName(), metric.getUnit()).id();
+                timestamps[samples] = EpochMillis.toMillis(metric.getTimestamp());
+                values[samples] = metric.getValue() != null ? metric.getValue() : Double.NaN;
+                samples++;
+            }
+        }
+        bulkWriter.writeSummaries(summaries);
+        bulkWriter.writeSamples(seriesIds, timestamps, values, samples);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SystemMetric> findSystemMetrics(LocalDateTime start, LocalDateTime end) {
+        return toList(metricRepository.streamSystemSamples(start, end));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachSystemMetric(LocalDateTime start, LocalDateTime end, Consumer<SystemMetric> action) {
+        try (Stream<MetricSample> samples = metricRepository.streamSystemSamples(start, end)) {
+            samples.forEach(sample -> action.accept(sample.toSystemMetric()));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SystemMetric> findByMetricName(String metricName, LocalDateTime start, LocalDateTime end) {
+        Optional<Series> series = seriesRegistry.find(metricName);
+        if (series.isEmpty()) {
+            return List.of();
+        }
+        List<SystemMetric> result = new ArrayList<>();
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(
+                    "SELECT ts, value FROM series_samples WHERE series_id = ? AND ts BETWEEN ? AND ? ORDER BY ts");
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setInt(1, series.get().id());
+            statement.setLong(2, EpochMillis.toMillis(start));
+            statement.setLong(3, EpochMillis.toMillis(end));
+            return statement;
+        }, rs -> {
+            result.add(toSystemMetric(series.get(), rs.getLong(1), rs.getDouble(2)));
+        });
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SystemMetric> findByTimestampBetween(LocalDateTime start, LocalDateTime end) {
+        List<SystemMetric> result = new ArrayList<>(toList(metricRepository.streamSystemSamples(start, end)));
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(
+                    "SELECT series_id, ts, value FROM series_samples WHERE ts BETWEEN ? AND ? ORDER BY ts");
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setLong(1, EpochMillis.toMillis(start));
+            statement.setLong(2, EpochMillis.toMillis(end));
+            return statement;
+        }, rs -> {
+            Series series = seriesRegistry.get(rs.getInt(1));
+            if (series != null) {
+                result.add(toSystemMetric(series, rs.getLong(2), rs.getDouble(3)));
+            }
+        });
+        // Ordenación estable: a igual timestamp la fila resumen va primero
+        result.sort(Comparator.comparing(SystemMetric::getTimestamp));
+        return result;
+    }
+
+    @Override
+    public int deleteOlderThan(LocalDateTime date) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = deleteOlderThan(date, DELETE_CHUNK_SIZE);
+            total += deleted;
+        } while (deleted == DELETE_CHUNK_SIZE);
+        return total;
+    }
+
+    /**
+     * Primero las filas resumen y, cuando ya no quedan, las muestras de las series genéricas
+     */
+    @Override
+    public int deleteOlderThan(LocalDateTime date, int limit) {
+        int deleted = metricRepository.deleteChunkBefore(date, limit);
+        if (deleted < limit) {
+            deleted += jdbcTemplate.update("DELETE FROM series_samples WHERE (series_id, ts) IN "
+                    + "(SELECT series_id, ts FROM series_samples WHERE ts < ? LIMIT ?)", EpochMillis.toMillis(date),
+                    limit - deleted);
+        }
+        return deleted;
+    }
+
+    @Override
+    public long diskUsageBytes() {
+        return -1;
+    }
+
+    /**
+     * Las columnas resumen se agregan sobre system_metrics y el resto sobre su serie en
+     * series_samples. En ambos casos la consulta solo calcula la función pedida.
+     */
+    @Override
+    public MetricBuckets aggregate(String metricName, LocalDateTime start, LocalDateTime end, Duration step,
+            Aggregation aggregation) {
+        long stepSeconds = step.toSeconds();
+        if (stepSeconds <= 0) {
+            throw new IllegalArgumentException("El intervalo debe ser de al menos un segundo: " + step);
+        }
+        long stepMillis = stepSeconds * 1000;
+        String column = switch (metricName) {
+            case SYSTEM_CPU -> "cpu_usage";
+            case SYSTEM_MEMORY -> "memory_usage";
+            case SYSTEM_DISK -> "disk_usage";
+            default -> null;
+        };
+        if (column != null) {
+            // extract(epoch) de un timestamp sin zona lo interpreta como UTC, igual que toMillis
+            return queryBuckets("SELECT CAST(floor(extract(epoch FROM timestamp) / ?) AS bigint) * ?, "
+                    + aggregateFunction(aggregation, column) + " FROM system_metrics "
+                    + "WHERE timestamp BETWEEN ? AND ? GROUP BY 1 ORDER BY 1",
+                    stepSeconds, stepMillis, Timestamp.valueOf(start), Timestamp.valueOf(end));
+        }
+        Optional<Series> series = seriesRegistry.find(metricName);
+        if (series.isEmpty()) {
+            return MetricBuckets.EMPTY;
+        }
+        return queryBuckets("SELECT (ts / ?) * ?, " + aggregateFunction(aggregation, "value")
+                + " FROM series_samples WHERE series_id = ? AND ts BETWEEN ? AND ? GROUP BY 1 ORDER BY 1",
+                stepMillis, stepMillis, series.get().id(), EpochMillis.toMillis(start), EpochMillis.toMillis(end));
+    }
+
+    /**
+     * Función de agregación sobre una columna; ambas salen de valores fijos, nunca de la entrada
+     */
+    private static String aggregateFunction(Aggregation aggregation, String column) {
+        return switch (aggregation) {
+            case MIN -> "min(" + column + ")";
+            case MAX -> "max(" + column + ")";
+            case SUM -> "sum(" + column + ")";
+            case COUNT -> "CAST(count(" + column + ") AS double precision)";
+            case AVG -> "avg(" + column + ")";
+        };
+    }
+
+    /**
+     * Ejecuta una consulta agregada que devuelve (inicio del intervalo en ms, valor)
+     */
+    private MetricBuckets queryBuckets(String sql, Object... args) {
+        record Row(long bucket, double value) {
+        }
+        List<Row> rows = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            double value = rs.getDouble(2);
+            return new Row(rs.getLong(1), rs.wasNull() ? Double.NaN : value);
+        }, args);
+        long[] timestamps = new long[rows.size()];
+        double[] values = new double[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            timestamps[i] = rows.get(i).bucket();
+            values[i] = rows.get(i).value();
+        }
+        return new MetricBuckets(timestamps, values);
+    }
+
+    private static SystemMetric toSystemMetric(Series series, long millis, double value) {
+        return new SystemMetric(series.name(), value, series.unit(), EpochMillis.toLocalDateTime(millis));
+    }
+
+
+    private static List<SystemMetric> toList(Stream<MetricSample> samples) {
+        try (samples) {
+            return samples.map(MetricSample::toSystemMetric).toList();
+        }
+    }
+}
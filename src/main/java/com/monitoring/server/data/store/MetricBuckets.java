@@ -0,0 +1,15 @@
+package com.monitoring.server.data.store;
+
+/**
+ * Resultado de una consulta agregada por intervalos: el inicio de cada intervalo
+ * con datos (epoch en milisegundos) y su valor agregado, en orden creciente.
+ * Los intervalos sin muestras no se incluyen.
+ */
+public record MetricBuckets(long[] timestamps, double[] values) {
+
+    public static final MetricBuckets EMPTY = new MetricBuckets(new long[0], new double[0]);
+
+    public int size() {
+        return timestamps.length;
+    }
+}
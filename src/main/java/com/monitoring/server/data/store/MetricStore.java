@@ -0,0 +1,97 @@
+package com.monitoring.server.data.store;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.monitoring.server.data.entity.SystemMetric;
+
+/**
+ * Almacenamiento de series de métricas detrás de {@code MetricService}.
+ * Se elige con la propiedad {@code system.metric.store}: "tsdb" (por defecto,
+ * archivos locales comprimidos) o "jpa" (tablas system_metrics y series_samples, modo de compatibilidad).
+ */
+public interface MetricStore {
+
+    /**
+     * Nombres para agregar las columnas de las filas resumen con {@link #aggregate}
+     */
+    String SYSTEM_CPU = "SYSTEM_CpuUsage";
+    String SYSTEM_MEMORY = "SYSTEM_MemoryUsage";
+    String SYSTEM_DISK = "SYSTEM_DiskUsage";
+
+    /**
+     * Guarda un lote de métricas
+     * @param metrics Métricas a guardar
+     */
+    void append(List<SystemMetric> metrics);
+
+    /**
+     * Obtiene las filas resumen del sistema (CPU, memoria, disco y alertas) de un rango
+     * @param start Fecha de inicio
+     * @param end Fecha de fin
+     * @return Métricas ordenadas por timestamp
+     */
+    List<SystemMetric> findSystemMetrics(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Recorre las filas resumen de un rango en orden sin acumularlas en memoria
+     * @param start Fecha de inicio
+     * @param end Fecha de fin
+     * @param action Acción para cada fila
+     */
+    void forEachSystemMetric(LocalDateTime start, LocalDateTime end, Consumer<SystemMetric> action);
+
+    /**
+     * Obtiene una serie genérica en un rango
+     * @param metricName Nombre de la métrica
+     * @param start Fecha de inicio
+     * @param end Fecha de fin
+     * @return Métricas ordenadas por timestamp
+     */
+    List<SystemMetric> findByMetricName(String metricName, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Obtiene todas las métricas (resumen y genéricas) de un rango
+     * @param start Fecha de inicio
+     * @param end Fecha de fin
+     * @return Métricas ordenadas por timestamp
+     */
+    List<SystemMetric> findByTimestampBetween(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Elimina las métricas anteriores a una fecha
+     * @param date Fecha límite
+     * @return Número de métricas eliminadas
+     */
+    int deleteOlderThan(LocalDateTime date);
+
+    /**
+     * Elimina un lote acotado de métricas anteriores a una fecha. Se llama
+     * repetidamente hasta que devuelve menos de {@code limit}; el almacén de
+     * archivos elimina días completos y puede superar el límite.
+     * @param date Fecha límite
+     * @param limit Número máximo orientativo de métricas a eliminar
+     * @return Número de métricas eliminadas
+     */
+    int deleteOlderThan(LocalDateTime date, int limit);
+
+    /**
+     * Espacio ocupado en disco por el almacén
+     * @return Bytes, o -1 si el almacén no lo puede calcular
+     */
+    long diskUsageBytes();
+
+    /**
+     * Agrega una serie en intervalos de tamaño fijo alineados a epoch
+     * @param metricName Nombre de la métrica o una de las columnas resumen ({@link #SYSTEM_CPU}, ...)
+     * @param start Fecha de inicio
+     * @param end Fecha de fin
+     * @param step Tamaño del intervalo (al menos un segundo)
+     * @param aggregation Función de agregación
+     * @return Intervalos con datos y su valor agregado
+     */
+    MetricBuckets aggregate(String metricName, LocalDateTime start, LocalDateTime end, Duration step,
+            Aggregation aggregation);
+}
@@ -0,0 +1,301 @@
+package com.monitoring.server.data.store;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import com.monitoring.server.data.entity.SystemMetric;
+
+/**
+ * Escritura masiva de muestras para {@link JpaMetricStore}. Con el driver de PostgreSQL
+ * los lotes se envían con {@code COPY ... FROM STDIN (FORMAT binary)} a través de su
+ * {@link CopyManager}: las filas se codifican en un búfer de 64 KB que se vacía al
+ * servidor a medida que se llena, sin sentencias preparadas ni conversión a texto.
+ * Con cualquier otra conexión (o {@code system.metric.bulk.copy=false}) se usan
+ * inserciones JDBC en lote.
+ *
+ * Los IDs de system_metrics se reservan de system_metrics_seq en bloques de 50, igual
+ * que el optimizador "pooled" de Hibernate: cada nextval v reserva (v - 50, v], de modo
+ * que ambos caminos pueden convivir sin colisiones.
+ * Se usa la conexión de la transacción en curso, por lo que participa en ella.
+ */
+@Component
+@ConditionalOnProperty(name = "system.metric.store", havingValue = "jpa")
+public class PgBulkWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PgBulkWriter.class);
+
+    private static final String COPY_SYSTEM_METRICS = "COPY system_metrics (id, cpu_usage, memory_usage, disk_usage, "
+            + "cpu_alert, memory_alert, disk_alert, timestamp) FROM STDIN (FORMAT binary)";
+    private static final String COPY_SAMPLES = "COPY series_samples (series_id, ts, value) FROM STDIN (FORMAT binary)";
+
+    private static final String INSERT_SYSTEM_METRIC = "INSERT INTO system_metrics (id, cpu_usage, memory_usage, "
+            + "disk_usage, cpu_alert, memory_alert, disk_alert, timestamp) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SAMPLE =
+            "INSERT INTO series_samples (series_id, ts, value) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+
+    // Cabecera del formato binario: firma, flags y longitud de la extensión
+    private static final byte[] COPY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Tamaño de cada fila codificada: número de campos y, por campo, longitud y datos
+    private static final int SYSTEM_TUPLE_SIZE = 2 + (4 + 8) * 5 + (4 + 1) * 3;
+    private static final int SAMPLE_TUPLE_SIZE = 2 + (4 + 4) + (4 + 8) * 2;
+
+    // Incremento de system_metrics_seq (allocationSize de SystemMetric)
+    private static final int ID_BLOCK_SIZE = 50;
+
+    // Los timestamp binarios son microsegundos desde 2000-01-01
+    private static final long POSTGRES_EPOCH_SECONDS = 946_684_800L;
+
+    /**
+     * Codifica la fila {@code index} de un lote en el búfer de COPY
+     */
+    @FunctionalInterface
+    interface TupleEncoder {
+        void encode(ByteBuffer out, int index);
+    }
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${system.metric.bulk.copy:true}")
+    private boolean copyEnabled;
+
+    // Se detecta con la primera conexión
+    private volatile Boolean copySupported;
+
+    public PgBulkWriter(DataSource dataSource, JdbcTemplate jdbcTemplate) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Guarda filas resumen en system_metrics y les asigna su ID
+     * @param metrics Filas resumen (sin metricName)
+     */
+    public void writeSummaries(List<SystemMetric> metrics) {
+        writeSummaries(metrics, isCopyAvailable());
+    }
+
+    /**
+     * Guarda muestras de series genéricas en series_samples; las que ya existen se ignoran
+     * @param seriesIds Identificador de serie de cada muestra
+     * @param timestamps Epoch en ms de cada muestra
+     * @param values Valor de cada muestra
+     * @param count Número de muestras válidas en los arrays
+     */
+    public void writeSamples(int[] seriesIds, long[] timestamps, double[] values, int count) {
+        writeSamples(seriesIds, timestamps, values, count, isCopyAvailable());
+    }
+
+    /**
+     * Indica si los lotes se envían con COPY
+     */
+    public boolean isCopyAvailable() {
+        Boolean supported = copySupported;
+        if (supported == null) {
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            try {
+                supported = connection.isWrapperFor(PGConnection.class);
+            } catch (SQLException e) {
+                supported = false;
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            }
+            copySupported = supported;
+            logger.info("Escritura masiva de métricas: {}", supported && copyEnabled
+                    ? "COPY binario" : "inserciones JDBC en lote");
+        }
+        return supported && copyEnabled;
+    }
+
+    void writeSummaries(List<SystemMetric> metrics, boolean copy) {
+        if (metrics.isEmpty()) {
+            return;
+        }
+        assignIds(metrics);
+        if (copy) {
+            copyIn(COPY_SYSTEM_METRICS, metrics.size(), SYSTEM_TUPLE_SIZE, (out, i) -> {
+                SystemMetric metric = metrics.get(i);
+                out.putShort((short) 8);
+                out.putInt(8).putLong(metric.getId());
+                out.putInt(8).putDouble(metric.getCpuUsage());
+                out.putInt(8).putDouble(metric.getMemoryUsage());
+                out.putInt(8).putDouble(metric.getDiskUsage());
+                out.putInt(1).put((byte) (metric.isCpuAlert() ? 1 : 0));
+                out.putInt(1).put((byte) (metric.isMemoryAlert() ? 1 : 0));
+                out.putInt(1).put((byte) (metric.isDiskAlert() ? 1 : 0));
+                out.putInt(8).putLong(toPostgresMicros(metric.getTimestamp()));
+            });
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SYSTEM_METRIC, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                SystemMetric metric = metrics.get(i);
+                ps.setLong(1, metric.getId());
+                ps.setDouble(2, metric.getCpuUsage());
+                ps.setDouble(3, metric.getMemoryUsage());
+                ps.setDouble(4, metric.getDiskUsage());
+                ps.setBoolean(5, metric.isCpuAlert());
+                ps.setBoolean(6, metric.isMemoryAlert());
+                ps.setBoolean(7, metric.isDiskAlert());
+                ps.setObject(8, metric.getTimestamp());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return metrics.size();
+            }
+        });
+    }
+
+    void writeSamples(int[] seriesIds, long[] timestamps, double[] values, int count, boolean copy) {
+        if (count == 0) {
+            return;
+        }
+        if (copy) {
+            // COPY no admite ON CONFLICT: un duplicado (reenvío del spool) hace repetir el lote con INSERT
+            try {
+                copyIn(COPY_SAMPLES, count, SAMPLE_TUPLE_SIZE, (out, i) -> {
+                    out.putShort((short) 3);
+                    out.putInt(4).putInt(seriesIds[i]);
+                    out.putInt(8).putLong(timestamps[i]);
+                    out.putInt(8).putDouble(values[i]);
+                });
+                return;
+            } catch (DuplicateKeyException e) {
+                logger.debug("Muestras duplicadas en el lote; se reintenta con inserciones en lote");
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SAMPLE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, seriesIds[i]);
+                ps.setLong(2, timestamps[i]);
+                ps.setDouble(3, values[i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return count;
+            }
+        });
+    }
+
+    /**
+     * Envía un lote con COPY binario. Dentro de una transacción se protege con un
+     * savepoint para que un duplicado no la deje abortada.
+     */
+    private void copyIn(String sql, int count, int tupleSize, TupleEncoder encoder) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            Savepoint savepoint = connection.getAutoCommit() ? null : connection.setSavepoint();
+            try {
+                copy(copyManager, sql, count, tupleSize, encoder);
+            } catch (SQLException e) {
+                if (savepoint != null) {
+                    connection.rollback(savepoint);
+                }
+                throw e;
+            }
+            if (savepoint != null) {
+                connection.releaseSavepoint(savepoint);
+            }
+        } catch (SQLException e) {
+            // 23505 se traduce a DuplicateKeyException
+            throw jdbcTemplate.getExceptionTranslator().translate("COPY", sql, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private static void copy(CopyManager copyManager, String sql, int count, int tupleSize, TupleEncoder encoder)
+            throws SQLException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.put(COPY_SIGNATURE).putInt(0).putInt(0);
+        CopyIn copyIn = copyManager.copyIn(sql);
+        try {
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < tupleSize) {
+                    copyIn.writeToCopy(buffer.array(), 0, buffer.position());
+                    buffer.clear();
+                }
+                encoder.encode(buffer, i);
+            }
+            if (buffer.remaining() < 2) {
+                copyIn.writeToCopy(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            buffer.putShort((short) -1);
+            copyIn.writeToCopy(buffer.array(), 0, buffer.position());
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    /**
+     * Reserva IDs de system_metrics_seq para las filas que no lo tienen
+     */
+    private void assignIds(List<SystemMetric> metrics) {
+        int pending = 0;
+        for (SystemMetric metric : metrics) {
+            if (metric.getId() == null) {
+                pending++;
+            }
+        }
+        if (pending == 0) {
+            return;
+        }
+        // Un valor inicial de la secuencia (< 50) reserva menos IDs: se pide un bloque de más
+        int blocks = (pending + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE + 1;
+        List<Long> highs = jdbcTemplate.queryForList(
+                "SELECT nextval('system_metrics_seq') FROM generate_series(1, ?)", Long.class, blocks);
+        int block = 0;
+        long next = 0;
+        long high = -1;
+        for (SystemMetric metric : metrics) {
+            if (metric.getId() != null) {
+                continue;
+            }
+            while (next > high) {
+                if (block == highs.size()) {
+                    highs = jdbcTemplate.queryForList("SELECT nextval('system_metrics_seq')", Long.class);
+                    block = 0;
+                }
+                high = highs.get(block++);
+                next = Math.max(1, high - ID_BLOCK_SIZE + 1);
+            }
+            metric.setId(next++);
+        }
+    }
+
+    private static long toPostgresMicros(LocalDateTime time) {
+        return (time.toEpochSecond(ZoneOffset.UTC) - POSTGRES_EPOCH_SECONDS) * 1_000_000 + time.getNano() / 1000;
+    }
+}
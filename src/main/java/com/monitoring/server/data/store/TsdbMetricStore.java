@@ -0,0 +1,938 @@
+package com.monitoring.server.data.store;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.monitoring.server.data.entity.SystemMetric;
+import com.monitoring.server.util.EpochMillis;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Motor de series temporales embebido para las métricas del sistema.
+ * Cada serie (el resumen CPU/memoria/disco o una métrica genérica) acumula sus
+ * puntos en memoria y, al llegar a {@value #MAX_CHUNK_POINTS} puntos o
+ * {@value #MAX_CHUNK_AGE_MILLIS} ms, los sella en un bloque columnar comprimido
+ * ({@link ChunkCodec}) que se anexa al archivo del día. Las lecturas recorren
+ * un índice en memoria de los bloques y los decodifican directamente desde el
+ * archivo mapeado.
+ *
+ * Formato del registro: {magic, longitud, crc32} y un cuerpo con
+ * {nombre, unidad, columnas, puntos, timestamp mínimo, timestamp máximo, datos}.
+ * Un registro incompleto al final del archivo (caída durante la escritura) se
+ * descarta al abrir.
+ *
+ * Cada serie solo admite puntos posteriores al último guardado: un lote reenviado
+ * tras un fallo parcial no duplica puntos y los bloques de una serie quedan en orden
+ * de tiempo.
+ *
+ * Los puntos de los bloques abiertos se anotan antes en un registro de escritura
+ * anticipada ({@value #WAL_FILE}) sincronizado en cada lote, que se vuelve a aplicar
+ * al abrir; así una caída solo pierde el lote que se estaba escribiendo. Cuando el
+ * registro supera {@value #WAL_CHECKPOINT_BYTES} bytes se reescribe solo con los
+ * puntos de los bloques aún abiertos.
+ *
+ * Si falla la escritura de un bloque sellado (disco lleno, error de E/S), el bloque
+ * se conserva en memoria y en el WAL y se reintenta con la siguiente escritura.
+ */
+@Component
+@ConditionalOnProperty(name = "system.metric.store", havingValue = "tsdb", matchIfMissing = true)
+public class TsdbMetricStore implements MetricStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(TsdbMetricStore.class);
+
+    private static final int MAX_CHUNK_POINTS = 120;
+    private static final long MAX_CHUNK_AGE_MILLIS = 5 * 60 * 1000L;
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+    private static final int MAX_AGGREGATE_BUCKETS = 1_000_000;
+
+    private static final int RECORD_MAGIC = 0x54534331; // "TSC1"
+    private static final int RECORD_PREFIX = 12;
+
+    // Registro de escritura anticipada: registros {magic, longitud, crc32} con los puntos de un lote
+    private static final String WAL_FILE = "heads.wal";
+    private static final int WAL_MAGIC = 0x54535731; // "TSW1"
+    private static final long WAL_CHECKPOINT_BYTES = 4L * 1024 * 1024;
+
+    // Serie de las filas resumen: cpu, memoria, disco y alertas (bits) por punto
+    private static final String SYSTEM_SERIES = "";
+    private static final int SYSTEM_COLUMNS = 4;
+
+    /**
+     * Bloque abierto de una serie, aún en memoria
+     */
+    private static final class Head {
+        final String name;
+        final String unit;
+        final long[] timestamps = new long[MAX_CHUNK_POINTS];
+        final double[][] columns;
+        int count;
+
+        Head(String name, String unit, int columnCount) {
+            this.name = name;
+            this.unit = unit;
+            this.columns = new double[columnCount][MAX_CHUNK_POINTS];
+        }
+
+        Head copy() {
+            Head copy = new Head(name, unit, columns.length);
+            System.arraycopy(timestamps, 0, copy.timestamps, 0, count);
+            for (int c = 0; c < columns.length; c++) {
+                System.arraycopy(columns[c], 0, copy.columns[c], 0, count);
+            }
+            copy.count = count;
+            return copy;
+        }
+    }
+
+    /**
+     * Entrada del índice: un bloque sellado dentro de un archivo
+     */
+    private static final class ChunkRef {
+        final String name;
+        final String unit;
+        final int columns;
+        final int count;
+        final long minTimestamp;
+        final long maxTimestamp;
+        final int dataOffset;
+
+        ChunkRef(String name, String unit, int columns, int count, long minTimestamp, long maxTimestamp,
+                int dataOffset) {
+            this.name = name;
+            this.unit = unit;
+            this.columns = columns;
+            this.count = count;
+            this.minTimestamp = minTimestamp;
+            this.maxTimestamp = maxTimestamp;
+            this.dataOffset = dataOffset;
+        }
+    }
+
+    /**
+     * Archivo de un día con el índice de sus bloques
+     */
+    private static final class Partition {
+        final Path path;
+        final List<ChunkRef> chunks = new ArrayList<>();
+        long size;
+        MappedByteBuffer mapped;
+        FileChannel writeChannel;
+
+        Partition(Path path) {
+            this.path = path;
+        }
+    }
+
+    /**
+     * Bloque leído, listo para decodificar fuera del lock
+     */
+    private record ChunkRead(ChunkRef chunk, ByteBuffer buffer) {
+    }
+
+    /**
+     * Recibe los puntos decodificados de un bloque
+     */
+    @FunctionalInterface
+    private interface ChunkVisitor {
+        void visit(String name, String unit, long[] timestamps, double[][] columns, int count);
+    }
+
+    /**
+     * Bloques sellados y copias de los bloques abiertos que cubren un rango
+     */
+    private record Snapshot(List<ChunkRead> reads, List<Head> openHeads) {
+
+        int seriesCount() {
+            return (int) Stream.concat(reads.stream().map(read -> read.chunk().name),
+                    openHeads.stream().map(head -> head.name)).distinct().count();
+        }
+
+        void forEachChunk(ChunkVisitor visitor) {
+            long[] timestamps = new long[MAX_CHUNK_POINTS];
+            for (ChunkRead read : reads) {
+                ChunkRef chunk = read.chunk();
+                double[][] columns = new double[chunk.columns][chunk.count];
+                long[] target = chunk.count <= timestamps.length ? timestamps : new long[chunk.count];
+                ChunkCodec.decode(read.buffer(), chunk.dataOffset, chunk.count, target, columns);
+                visitor.visit(chunk.name, chunk.unit, target, columns, chunk.count);
+            }
+            for (Head head : openHeads) {
+                visitor.visit(head.name, head.unit, head.timestamps, head.columns, head.count);
+            }
+        }
+    }
+
+    @Value("${system.metric.store.dir:./data/tsdb}")
+    private String directory;
+
+    private Path root;
+    private final Map<String, Head> heads = new HashMap<>();
+    // Último timestamp guardado (sellado o en memoria) de cada serie
+    private final Map<String, Long> lastTimestamps = new HashMap<>();
+    // Bloques sellados cuya escritura falló: siguen en memoria y en el WAL hasta escribirse
+    private final List<Head> unwritten = new ArrayList<>();
+    private FileChannel wal;
+    private long walSize;
+    private final TreeMap<Long, Partition> partitions = new TreeMap<>();
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        root = Path.of(directory);
+        Files.createDirectories(root);
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(root)) {
+            files = stream.filter(path -> path.getFileName().toString().matches("metrics-\\d{4}-\\d{2}-\\d{2}\\.tsdb"))
+                    .sorted()
+                    .toList();
+        }
+        long chunks = 0;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long day = LocalDate.parse(name.substring(8, 18)).toEpochDay();
+            Partition partition = loadPartition(file);
+            partitions.put(day, partition);
+            chunks += partition.chunks.size();
+            for (ChunkRef chunk : partition.chunks) {
+                lastTimestamps.merge(chunk.name, chunk.maxTimestamp, Math::max);
+            }
+        }
+        int recovered = replayWal();
+        logger.info("Almacén de series abierto en {}: {} archivos, {} bloques, {} puntos recuperados del WAL",
+                root.toAbsolutePath(), partitions.size(), chunks, recovered);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        List<Head> pending = new ArrayList<>();
+        for (Head head : heads.values()) {
+            if (head.count > 0) {
+                pending.add(head);
+            }
+        }
+        writeChunks(pending);
+        heads.clear();
+        try {
+            // Todo quedó sellado: el registro se queda vacío salvo lo que no se pudo escribir
+            checkpointWal();
+        } catch (IOException e) {
+            logger.warn("No se pudo vaciar el WAL: {}", e.getMessage());
+        }
+        closeWal();
+        for (Partition partition : partitions.values()) {
+            closeChannel(partition);
+        }
+    }
+
+    /**
+     * Los puntos nuevos se anotan primero en el WAL. Si esa escritura falla se lanza
+     * {@link UncheckedIOException} sin haber tocado el estado, para que el llamador
+     * reintente o desvíe el lote.
+     */
+    @Override
+    public synchronized void append(List<SystemMetric> metrics) {
+        List<SystemMetric> accepted = new ArrayList<>(metrics.size());
+        Map<String, Long> batchTimestamps = new HashMap<>();
+        int skipped = 0;
+        ByteArrayOutputStream walBytes = new ByteArrayOutputStream();
+        DataOutputStream walRecord = new DataOutputStream(walBytes);
+        double[] summaryValues = new double[SYSTEM_COLUMNS];
+        double[] singleValue = new double[1];
+        for (SystemMetric metric : metrics) {
+            long timestamp = EpochMillis.toMillis(metric.getTimestamp());
+            String name = seriesName(metric);
+            Long last = batchTimestamps.getOrDefault(name, lastTimestamps.get(name));
+            if (last != null && timestamp <= last) {
+                // Ya guardado (reenvío) o fuera de orden
+                skipped++;
+                continue;
+            }
+            batchTimestamps.put(name, timestamp);
+            accepted.add(metric);
+            try {
+                writeWalPoint(walRecord, name, seriesUnit(metric), timestamp,
+                        values(metric, summaryValues, singleValue));
+            } catch (IOException e) {
+                // No ocurre al escribir en memoria
+                throw new IllegalStateException(e);
+            }
+        }
+        if (!accepted.isEmpty()) {
+            try {
+                logWal(walBytes.toByteArray(), accepted.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo escribir en el WAL de series", e);
+            }
+        }
+        lastTimestamps.putAll(batchTimestamps);
+
+        List<Head> sealed = new ArrayList<>();
+        long newest = Long.MIN_VALUE;
+        for (SystemMetric metric : accepted) {
+            long timestamp = EpochMillis.toMillis(metric.getTimestamp());
+            newest = Math.max(newest, timestamp);
+            addPoint(seriesName(metric), seriesUnit(metric), timestamp, values(metric, summaryValues, singleValue),
+                    sealed);
+        }
+
+        // Sellar también las series que dejaron de reportar (disco retirado, base de datos eliminada...)
+        for (Iterator<Head> it = heads.values().iterator(); it.hasNext(); ) {
+            Head head = it.next();
+            if (head.count > 0 && newest - head.timestamps[0] >= MAX_CHUNK_AGE_MILLIS) {
+                sealed.add(head);
+                it.remove();
+            }
+        }
+        writeChunks(sealed);
+        if (skipped > 0) {
+            logger.debug("Descartados {} puntos ya guardados o fuera de orden", skipped);
+        }
+    }
+
+    private static String seriesName(SystemMetric metric) {
+        return metric.getMetricName() == null ? SYSTEM_SERIES : metric.getMetricName();
+    }
+
+    private static String seriesUnit(SystemMetric metric) {
+        return metric.getMetricName() == null ? "%" : metric.getUnit();
+    }
+
+    /**
+     * Columnas de un punto: las cuatro de la fila resumen o el valor de una métrica genérica
+     * @return Uno de los dos arrays recibidos, rellenado
+     */
+    private static double[] values(SystemMetric metric, double[] summaryValues, double[] singleValue) {
+        if (metric.getMetricName() == null) {
+            summaryValues[0] = metric.getCpuUsage();
+            summaryValues[1] = metric.getMemoryUsage();
+            summaryValues[2] = metric.getDiskUsage();
+            summaryValues[3] = (metric.isCpuAlert() ? 1 : 0) | (metric.isMemoryAlert() ? 2 : 0)
+                    | (metric.isDiskAlert() ? 4 : 0);
+            return summaryValues;
+        }
+        singleValue[0] = metric.getValue() != null ? metric.getValue() : Double.NaN;
+        return singleValue;
+    }
+
+    /**
+     * Añade un punto al bloque abierto de su serie, sellando antes el bloque si está
+     * lleno, es demasiado antiguo o cambió la unidad
+     */
+    private void addPoint(String name, String unit, long timestamp, double[] values, List<Head> sealed) {
+        Head head = heads.get(name);
+        if (head != null && head.count > 0 && (head.count == MAX_CHUNK_POINTS
+                || timestamp - head.timestamps[0] >= MAX_CHUNK_AGE_MILLIS
+                || !Objects.equals(head.unit, unit) || head.columns.length != values.length)) {
+            sealed.add(head);
+            head = null;
+        }
+        if (head == null) {
+            head = new Head(name, unit, values.length);
+            heads.put(name, head);
+        }
+        int index = head.count++;
+        head.timestamps[index] = timestamp;
+        for (int c = 0; c < values.length; c++) {
+            head.columns[c][index] = values[c];
+        }
+    }
+
+    @Override
+    public List<SystemMetric> findSystemMetrics(LocalDateTime start, LocalDateTime end) {
+        return query(SYSTEM_SERIES::equals, start, end);
+    }
+
+    /**
+     * La serie resumen se escribe en orden de tiempo, así que sus bloques se decodifican
+     * de uno en uno ya ordenados y solo el bloque actual ocupa memoria
+     */
+    @Override
+    public void forEachSystemMetric(LocalDateTime start, LocalDateTime end, Consumer<SystemMetric> action) {
+        long from = EpochMillis.toMillis(start);
+        long to = EpochMillis.toMillis(end);
+        snapshot(SYSTEM_SERIES::equals, from, to).forEachChunk((name, unit, timestamps, columns, count) ->
+                addPoints(action, name, unit, timestamps, columns, count, from, to));
+    }
+
+    @Override
+    public List<SystemMetric> findByMetricName(String metricName, LocalDateTime start, LocalDateTime end) {
+        return query(metricName::equals, start, end);
+    }
+
+    @Override
+    public List<SystemMetric> findByTimestampBetween(LocalDateTime start, LocalDateTime end) {
+        return query(name -> true, start, end);
+    }
+
+    @Override
+    public synchronized int deleteOlderThan(LocalDateTime date) {
+        long cutoff = EpochMillis.toMillis(date);
+        int deleted = 0;
+        Iterator<Map.Entry<Long, Partition>> it = partitions.headMap(Math.floorDiv(cutoff, DAY_MILLIS), true)
+                .entrySet().iterator();
+        while (it.hasNext()) {
+            Partition partition = it.next().getValue();
+            // Solo se eliminan archivos completos: todos sus bloques deben ser anteriores a la fecha
+            boolean expired = partition.chunks.stream().allMatch(chunk -> chunk.maxTimestamp < cutoff);
+            if (!expired) {
+                continue;
+            }
+            for (ChunkRef chunk : partition.chunks) {
+                deleted += chunk.count;
+            }
+            closeChannel(partition);
+            partition.mapped = null;
+            try {
+                Files.deleteIfExists(partition.path);
+            } catch (IOException e) {
+                logger.warn("No se pudo eliminar {}: {}", partition.path, e.getMessage());
+            }
+            it.remove();
+        }
+        return deleted;
+    }
+
+    @Override
+    public int deleteOlderThan(LocalDateTime date, int limit) {
+        return deleteOlderThan(date);
+    }
+
+    @Override
+    public synchronized long diskUsageBytes() {
+        long total = 0;
+        for (Partition partition : partitions.values()) {
+            total += partition.size;
+        }
+        return total;
+    }
+
+    /**
+     * Lee los puntos de las series que cumplen el filtro dentro del rango
+     */
+    private List<SystemMetric> query(Predicate<String> seriesFilter, LocalDateTime start, LocalDateTime end) {
+        long from = EpochMillis.toMillis(start);
+        long to = EpochMillis.toMillis(end);
+        Snapshot snapshot = snapshot(seriesFilter, from, to);
+        List<SystemMetric> result = new ArrayList<>();
+        snapshot.forEachChunk((name, unit, timestamps, columns, count) ->
+                addPoints(result::add, name, unit, timestamps, columns, count, from, to));
+        if (snapshot.seriesCount() > 1) {
+            result.sort(Comparator.comparing(SystemMetric::getTimestamp));
+        }
+        return result;
+    }
+
+    @Override
+    public MetricBuckets aggregate(String metricName, LocalDateTime start, LocalDateTime end, Duration step,
+            Aggregation aggregation) {
+        long stepMillis = step.toSeconds() * 1000;
+        if (stepMillis <= 0) {
+            throw new IllegalArgumentException("El intervalo debe ser de al menos un segundo: " + step);
+        }
+        long from = EpochMillis.toMillis(start);
+        long to = EpochMillis.toMillis(end);
+        if (to < from) {
+            return MetricBuckets.EMPTY;
+        }
+        long firstBucket = Math.floorDiv(from, stepMillis);
+        long bucketCount = Math.floorDiv(to, stepMillis) - firstBucket + 1;
+        if (bucketCount > MAX_AGGREGATE_BUCKETS) {
+            throw new IllegalArgumentException("Demasiados intervalos (" + bucketCount + "), use un intervalo mayor");
+        }
+
+        // Las columnas resumen se leen de la serie del sistema; el resto, de su propia serie
+        int systemColumn = switch (metricName) {
+            case SYSTEM_CPU -> 0;
+            case SYSTEM_MEMORY -> 1;
+            case SYSTEM_DISK -> 2;
+            default -> -1;
+        };
+        String series = systemColumn >= 0 ? SYSTEM_SERIES : metricName;
+        int column = Math.max(systemColumn, 0);
+
+        int buckets = (int) bucketCount;
+        long[] counts = new long[buckets];
+        double[] values = new double[buckets];
+        snapshot(series::equals, from, to).forEachChunk((name, unit, timestamps, columns, count) -> {
+            double[] source = columns[column];
+            for (int i = 0; i < count; i++) {
+                long timestamp = timestamps[i];
+                double value = source[i];
+                if (timestamp < from || timestamp > to || Double.isNaN(value)) {
+                    continue;
+                }
+                int bucket = (int) (Math.floorDiv(timestamp, stepMillis) - firstBucket);
+                values[bucket] = counts[bucket] == 0 ? value : accumulate(aggregation, values[bucket], value);
+                counts[bucket]++;
+            }
+        });
+
+        int size = 0;
+        for (long c : counts) {
+            if (c > 0) {
+                size++;
+            }
+        }
+        long[] resultTimestamps = new long[size];
+        double[] resultValues = new double[size];
+        for (int bucket = 0, next = 0; bucket < buckets; bucket++) {
+            if (counts[bucket] == 0) {
+                continue;
+            }
+            resultTimestamps[next] = (firstBucket + bucket) * stepMillis;
+            resultValues[next] = switch (aggregation) {
+                case AVG -> values[bucket] / counts[bucket];
+                case COUNT -> counts[bucket];
+                default -> values[bucket];
+            };
+            next++;
+        }
+        return new MetricBuckets(resultTimestamps, resultValues);
+    }
+
+    private static double accumulate(Aggregation aggregation, double current, double value) {
+        return switch (aggregation) {
+            case MIN -> Math.min(current, value);
+            case MAX -> Math.max(current, value);
+            // AVG acumula la suma y divide al final; COUNT solo usa el contador
+            default -> current + value;
+        };
+    }
+
+    /**
+     * Copia bajo el lock las referencias a los bloques y los bloques abiertos del
+     * rango; la decodificación se hace después, fuera del lock
+     */
+    private synchronized Snapshot snapshot(Predicate<String> seriesFilter, long from, long to) {
+        List<ChunkRead> reads = new ArrayList<>();
+        List<Head> openHeads = new ArrayList<>();
+        // Un bloque puede empezar el día anterior y terminar en el rango
+        long firstDay = Math.floorDiv(from, DAY_MILLIS) - 1;
+        long lastDay = Math.floorDiv(to, DAY_MILLIS);
+        for (Partition partition : partitions.subMap(firstDay, true, lastDay, true).values()) {
+            ByteBuffer buffer = null;
+            for (ChunkRef chunk : partition.chunks) {
+                if (chunk.maxTimestamp < from || chunk.minTimestamp > to || !seriesFilter.test(chunk.name)) {
+                    continue;
+                }
+                if (buffer == null) {
+                    buffer = map(partition);
+                    if (buffer == null) {
+                        break;
+                    }
+                }
+                reads.add(new ChunkRead(chunk, buffer));
+            }
+        }
+        // Los bloques pendientes de escribir son anteriores a los abiertos
+        for (Head head : Stream.concat(unwritten.stream(), heads.values().stream()).toList()) {
+            if (head.count > 0 && seriesFilter.test(head.name)) {
+                openHeads.add(head.copy());
+            }
+        }
+        return new Snapshot(reads, openHeads);
+    }
+
+    private static void addPoints(Consumer<SystemMetric> result, String name, String unit, long[] timestamps,
+            double[][] columns, int count, long from, long to) {
+        for (int i = 0; i < count; i++) {
+            long timestamp = timestamps[i];
+            if (timestamp < from || timestamp > to) {
+                continue;
+            }
+            LocalDateTime time = EpochMillis.toLocalDateTime(timestamp);
+            if (SYSTEM_SERIES.equals(name)) {
+                SystemMetric metric = new SystemMetric(columns[0][i], columns[1][i], columns[2][i]);
+                int alerts = (int) columns[3][i];
+                metric.setCpuAlert((alerts & 1) != 0);
+                metric.setMemoryAlert((alerts & 2) != 0);
+                metric.setDiskAlert((alerts & 4) != 0);
+                metric.setTimestamp(time);
+                result.accept(metric);
+            } else {
+                double value = columns[0][i];
+                result.accept(new SystemMetric(name, Double.isNaN(value) ? null : value, unit, time));
+            }
+        }
+    }
+
+    /**
+     * Codifica los bloques sellados, precedidos de los que no se pudieron escribir antes,
+     * y los anexa a los archivos de su día con una escritura y una sincronización por
+     * archivo. Tras el primer fallo, ese día y los siguientes quedan pendientes, para que
+     * los bloques de cada serie sigan en orden de tiempo en los archivos.
+     */
+    private void writeChunks(List<Head> sealed) {
+        if (sealed.isEmpty() && unwritten.isEmpty()) {
+            return;
+        }
+        Map<Long, List<Head>> byDay = new TreeMap<>();
+        for (List<Head> group : List.of(new ArrayList<>(unwritten), sealed)) {
+            for (Head head : group) {
+                byDay.computeIfAbsent(Math.floorDiv(minTimestamp(head), DAY_MILLIS), day -> new ArrayList<>())
+                        .add(head);
+            }
+        }
+        unwritten.clear();
+        for (Map.Entry<Long, List<Head>> entry : byDay.entrySet()) {
+            if (!unwritten.isEmpty()) {
+                unwritten.addAll(entry.getValue());
+                continue;
+            }
+            long day = entry.getKey();
+            Partition partition = partitions.computeIfAbsent(day,
+                    d -> new Partition(root.resolve("metrics-" + LocalDate.ofEpochDay(d) + ".tsdb")));
+            try {
+                writePartition(partition, entry.getValue());
+            } catch (IOException e) {
+                logger.error("Error al escribir bloques en {}, se reintentará: {}", partition.path, e.getMessage());
+                unwritten.addAll(entry.getValue());
+            }
+        }
+        if (!unwritten.isEmpty()) {
+            logger.warn("{} bloques sellados pendientes de escribir", unwritten.size());
+        }
+    }
+
+    private void writePartition(Partition partition, List<Head> sealed) throws IOException {
+        List<byte[]> records = new ArrayList<>(sealed.size());
+        List<ChunkRef> refs = new ArrayList<>(sealed.size());
+        long position = partition.size;
+        for (Head head : sealed) {
+            byte[] data = ChunkCodec.encode(head.timestamps, head.columns, head.count);
+            byte[] name = head.name.getBytes(StandardCharsets.UTF_8);
+            byte[] unit = head.unit != null ? head.unit.getBytes(StandardCharsets.UTF_8) : null;
+            int bodyLength = 2 + name.length + 2 + (unit != null ? unit.length : 0) + 1 + 4 + 8 + 8 + data.length;
+
+            ByteBuffer record = ByteBuffer.allocate(RECORD_PREFIX + bodyLength);
+            record.putInt(RECORD_MAGIC).putInt(bodyLength).putInt(0);
+            record.putShort((short) name.length).put(name);
+            record.putShort((short) (unit != null ? unit.length : -1));
+            if (unit != null) {
+                record.put(unit);
+            }
+            long min = minTimestamp(head);
+            long max = maxTimestamp(head);
+            record.put((byte) head.columns.length).putInt(head.count).putLong(min).putLong(max);
+            int dataOffset = (int) position + record.position();
+            record.put(data);
+
+            CRC32 crc = new CRC32();
+            crc.update(record.array(), RECORD_PREFIX, bodyLength);
+            record.putInt(8, (int) crc.getValue());
+
+            records.add(record.array());
+            refs.add(new ChunkRef(head.name, head.unit, head.columns.length, head.count, min, max, dataOffset));
+            position += record.capacity();
+        }
+
+        if (partition.writeChannel == null) {
+            partition.writeChannel = FileChannel.open(partition.path, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+        }
+        ByteBuffer batch = ByteBuffer.allocate((int) (position - partition.size));
+        records.forEach(batch::put);
+        batch.flip();
+        long writePosition = partition.size;
+        while (batch.hasRemaining()) {
+            writePosition += partition.writeChannel.write(batch, writePosition);
+        }
+        partition.writeChannel.force(false);
+        partition.size = position;
+        partition.chunks.addAll(refs);
+    }
+
+    /**
+     * Anexa al WAL un registro con los puntos de un lote y lo sincroniza
+     * @throws IOException Si no se pudo escribir; el lote no queda registrado
+     */
+    private void logWal(byte[] points, int count) throws IOException {
+        if (wal == null) {
+            // Un checkpoint fallido dejó el registro cerrado: se sigue anexando al anterior
+            wal = FileChannel.open(root.resolve(WAL_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            walSize = wal.size();
+        }
+        ByteBuffer record = walRecord(points, count);
+        long position = walSize;
+        while (record.hasRemaining()) {
+            position += wal.write(record, position);
+        }
+        wal.force(false);
+        walSize = position;
+        if (walSize > WAL_CHECKPOINT_BYTES) {
+            try {
+                checkpointWal();
+            } catch (IOException e) {
+                logger.warn("No se pudo compactar el WAL de series: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reescribe el WAL de forma atómica solo con los puntos que aún no están en los
+     * archivos: los de los bloques pendientes de escribir y los de los bloques abiertos
+     */
+    private void checkpointWal() throws IOException {
+        closeWal();
+        Path path = root.resolve(WAL_FILE);
+        Path temp = root.resolve(WAL_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            // Los pendientes primero: son anteriores al bloque abierto de su serie
+            for (Head head : Stream.concat(unwritten.stream(), heads.values().stream()).toList()) {
+                if (head.count == 0) {
+                    continue;
+                }
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                double[] values = new double[head.columns.length];
+                for (int i = 0; i < head.count; i++) {
+                    for (int c = 0; c < values.length; c++) {
+                        values[c] = head.columns[c][i];
+                    }
+                    writeWalPoint(out, head.name, head.unit, head.timestamps[i], values);
+                }
+                ByteBuffer record = walRecord(bytes.toByteArray(), head.count);
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        wal = FileChannel.open(path, StandardOpenOption.WRITE);
+        walSize = wal.size();
+    }
+
+    /**
+     * Vuelve a aplicar los puntos del WAL posteriores a lo ya sellado y lo compacta.
+     * Un registro incompleto al final (caída durante la escritura) se descarta.
+     * @return Número de puntos recuperados
+     */
+    private int replayWal() throws IOException {
+        Path path = root.resolve(WAL_FILE);
+        int recovered = 0;
+        if (Files.exists(path)) {
+            List<Head> sealed = new ArrayList<>();
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long fileSize = channel.size();
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+                int position = 0;
+                CRC32 crc = new CRC32();
+                while (position + RECORD_PREFIX <= fileSize) {
+                    int bodyLength = buffer.getInt(position + 4);
+                    if (buffer.getInt(position) != WAL_MAGIC || bodyLength < 4
+                            || position + RECORD_PREFIX + bodyLength > fileSize) {
+                        break;
+                    }
+                    crc.reset();
+                    crc.update(buffer.slice(position + RECORD_PREFIX, bodyLength));
+                    if ((int) crc.getValue() != buffer.getInt(position + 8)) {
+                        break;
+                    }
+                    ByteBuffer body = buffer.slice(position + RECORD_PREFIX, bodyLength);
+                    int count = body.getInt();
+                    for (int i = 0; i < count; i++) {
+                        String name = readWalString(body);
+                        String unit = readWalString(body);
+                        double[] values = new double[body.get()];
+                        long timestamp = body.getLong();
+                        for (int c = 0; c < values.length; c++) {
+                            values[c] = body.getDouble();
+                        }
+                        Long last = lastTimestamps.get(name);
+                        if (last == null || timestamp > last) {
+                            lastTimestamps.put(name, timestamp);
+                            addPoint(name, unit, timestamp, values, sealed);
+                            recovered++;
+                        }
+                    }
+                    position += RECORD_PREFIX + bodyLength;
+                }
+                if (position < fileSize) {
+                    logger.warn("Registro incompleto al final del WAL, se descartan {} bytes", fileSize - position);
+                }
+            }
+            writeChunks(sealed);
+        }
+        checkpointWal();
+        return recovered;
+    }
+
+    private static ByteBuffer walRecord(byte[] points, int count) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_PREFIX + 4 + points.length);
+        record.putInt(WAL_MAGIC).putInt(4 + points.length).putInt(0);
+        record.putInt(count).put(points);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), RECORD_PREFIX, 4 + points.length);
+        record.putInt(8, (int) crc.getValue());
+        return record.flip();
+    }
+
+    private void closeWal() {
+        if (wal != null) {
+            try {
+                wal.close();
+            } catch (IOException e) {
+                logger.debug("Error al cerrar el WAL: {}", e.getMessage());
+            }
+            wal = null;
+        }
+    }
+
+    private static void writeWalPoint(DataOutputStream out, String name, String unit, long timestamp,
+            double[] values) throws IOException {
+        writeWalString(out, name);
+        writeWalString(out, unit);
+        out.writeByte(values.length);
+        out.writeLong(timestamp);
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static void writeWalString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readWalString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Carga el índice de un archivo recorriendo sus registros y recorta un final incompleto
+     */
+    private Partition loadPartition(Path file) throws IOException {
+        Partition partition = new Partition(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long fileSize = channel.size();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            int position = 0;
+            CRC32 crc = new CRC32();
+            while (position + RECORD_PREFIX <= fileSize) {
+                int bodyLength = buffer.getInt(position + 4);
+                if (buffer.getInt(position) != RECORD_MAGIC || bodyLength <= 0
+                        || position + RECORD_PREFIX + bodyLength > fileSize) {
+                    break;
+                }
+                crc.reset();
+                crc.update(buffer.slice(position + RECORD_PREFIX, bodyLength));
+                if ((int) crc.getValue() != buffer.getInt(position + 8)) {
+                    break;
+                }
+                int cursor = position + RECORD_PREFIX;
+                int nameLength = buffer.getShort(cursor);
+                String name = readString(buffer, cursor + 2, nameLength);
+                cursor += 2 + nameLength;
+                int unitLength = buffer.getShort(cursor);
+                String unit = unitLength >= 0 ? readString(buffer, cursor + 2, unitLength) : null;
+                cursor += 2 + Math.max(0, unitLength);
+                int columns = buffer.get(cursor);
+                int count = buffer.getInt(cursor + 1);
+                long min = buffer.getLong(cursor + 5);
+                long max = buffer.getLong(cursor + 13);
+                partition.chunks.add(new ChunkRef(name, unit, columns, count, min, max, cursor + 21));
+                position += RECORD_PREFIX + bodyLength;
+            }
+            if (position < fileSize) {
+                logger.warn("Registro incompleto al final de {}, se recorta de {} a {} bytes", file.getFileName(),
+                        fileSize, position);
+                channel.truncate(position);
+            }
+            partition.size = position;
+        }
+        return partition;
+    }
+
+    /**
+     * Mapea el archivo (o lo vuelve a mapear si creció) para leer los bloques
+     */
+    private ByteBuffer map(Partition partition) {
+        if (partition.mapped == null || partition.mapped.capacity() < partition.size) {
+            try (FileChannel channel = FileChannel.open(partition.path, StandardOpenOption.READ)) {
+                partition.mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, partition.size);
+            } catch (IOException e) {
+                logger.error("No se pudo mapear {}: {}", partition.path, e.getMessage());
+                return null;
+            }
+        }
+        return partition.mapped;
+    }
+
+    private void closeChannel(Partition partition) {
+        if (partition.writeChannel != null) {
+            try {
+                partition.writeChannel.close();
+            } catch (IOException e) {
+                logger.debug("Error al cerrar {}: {}", partition.path, e.getMessage());
+            }
+            partition.writeChannel = null;
+        }
+    }
+
+    private static String readString(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long minTimestamp(Head head) {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < head.count; i++) {
+            min = Math.min(min, head.timestamps[i]);
+        }
+        return min;
+    }
+
+    private static long maxTimestamp(Head head) {
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < head.count; i++) {
+            max = Math.max(max, head.timestamps[i]);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,311 @@
+package com.monitoring.server.data.window;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.monitoring.server.data.checkpoint.WarmState;
+import com.monitoring.server.data.entity.SystemMetric;
+import com.monitoring.server.util.EpochMillis;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Ventana en memoria con las últimas horas de cada serie ({@code system.metric.hot-window}).
+ * La alimentan los recolectores al encolar sus muestras, antes de la escritura en la
+ * base de datos, y sirve las consultas de rangos recientes sin acceder al almacén.
+ *
+ * Cada serie tiene un {@link SampleRing} de capacidad fija: ventana / intervalo de
+ * recolección + 1 puntos. La serie resumen guarda cuatro columnas (CPU, memoria,
+ * disco y alertas) y las genéricas una. Con 6 h a 10 s son 2.161 puntos: unos 86 KB
+ * para la serie resumen y 35 KB por serie genérica; {@code system.metric.hot-window.max-series}
+ * acota el total. Las series más lentas que el intervalo de recolección cubren más tiempo
+ * con la misma memoria.
+ * Su contenido se guarda en el punto de control y se restaura al arrancar.
+ */
+@Component
+public class HotWindow implements WarmState {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotWindow.class);
+
+    // Columnas de la serie resumen: cpu, memoria, disco y alertas (bits)
+    private static final int SYSTEM_COLUMNS = 4;
+
+    @Value("${system.metric.hot-window:6h}")
+    private Duration window;
+
+    @Value("${system.metric.hot-window.max-series:512}")
+    private int maxSeries;
+
+    @Value("${system.metric.collection.interval:10000}")
+    private long collectionIntervalMs;
+
+    private final Map<String, SampleRing> rings = new ConcurrentHashMap<>();
+    private volatile SampleRing systemRing;
+    private int capacity;
+    // Antes de este instante la ventana no tiene datos de ninguna serie
+    private volatile long startedAt;
+    private volatile boolean full;
+
+    @PostConstruct
+    public void init() {
+        capacity = (int) Math.max(16, window.toMillis() / Math.max(collectionIntervalMs, 1) + 1);
+        startedAt = EpochMillis.toMillis(LocalDateTime.now());
+        systemRing = new SampleRing("%", capacity, SYSTEM_COLUMNS, startedAt);
+        logger.info("Ventana en memoria de {}: {} puntos por serie, {} KB la serie resumen y {} KB por serie "
+                + "genérica, máximo {} series", window, capacity,
+                SampleRing.estimateBytes(capacity, SYSTEM_COLUMNS) / 1024,
+                SampleRing.estimateBytes(capacity, 1) / 1024, maxSeries);
+    }
+
+    /**
+     * Incorpora las muestras de un lote
+     * @param metrics Muestras de los recolectores
+     */
+    public void record(List<SystemMetric> metrics) {
+        for (SystemMetric metric : metrics) {
+            record(metric);
+        }
+    }
+
+    /**
+     * Incorpora una muestra: las filas resumen a la serie resumen y las genéricas a la suya
+     * @param metric Muestra de un recolector
+     */
+    public void record(SystemMetric metric) {
+        if (metric.getTimestamp() == null) {
+            return;
+        }
+        long timestamp = EpochMillis.toMillis(metric.getTimestamp());
+        if (metric.getMetricName() == null) {
+            SampleRing ring = systemRing;
+            synchronized (ring) {
+                int slot = ring.append(timestamp);
+                if (slot >= 0) {
+                    ring.set(0, slot, metric.getCpuUsage());
+                    ring.set(1, slot, metric.getMemoryUsage());
+                    ring.set(2, slot, metric.getDiskUsage());
+                    ring.set(3, slot, (metric.isCpuAlert() ? 1 : 0) | (metric.isMemoryAlert() ? 2 : 0)
+                            | (metric.isDiskAlert() ? 4 : 0));
+                }
+            }
+            return;
+        }
+        SampleRing ring = rings.get(metric.getMetricName());
+        if (ring == null) {
+            ring = createRing(metric);
+            if (ring == null) {
+                return;
+            }
+        }
+        synchronized (ring) {
+            int slot = ring.append(timestamp);
+            if (slot >= 0) {
+                ring.set(0, slot, metric.getValue() != null ? metric.getValue() : Double.NaN);
+            }
+        }
+    }
+
+    /**
+     * Filas resumen de un rango, si la ventana lo cubre entero
+     * @param start Fecha de inicio
+     * @param end Fecha de fin
+     * @return Filas ordenadas por timestamp, o vacío si hay que consultar el almacén
+     */
+    public Optional<List<SystemMetric>> findSystemMetrics(LocalDateTime start, LocalDateTime end) {
+        long from = EpochMillis.toMillis(start);
+        SampleRing ring = systemRing;
+        synchronized (ring) {
+            if (from < ring.coveredFrom()) {
+                return Optional.empty();
+            }
+            List<SystemMetric> result = new ArrayList<>();
+            ring.forEach(from, EpochMillis.toMillis(end), (timestamp, columns, index) ->
+                    result.add(toSystemMetric(timestamp, columns, index)));
+            return Optional.of(result);
+        }
+    }
+
+    /**
+     * Una serie genérica en un rango, si la ventana lo cubre entero
+     * @param metricName Nombre de la métrica
+     * @param start Fecha de inicio
+     * @param end Fecha de fin
+     * @return Muestras ordenadas por timestamp, o vacío si hay que consultar el almacén
+     */
+    public Optional<List<SystemMetric>> findByMetricName(String metricName, LocalDateTime start,
+            LocalDateTime end) {
+        long from = EpochMillis.toMillis(start);
+        SampleRing ring = rings.get(metricName);
+        if (ring == null) {
+            // Sin muestras desde el arranque: solo se puede responder si el rango es posterior
+            return from >= startedAt && !full ? Optional.of(List.of()) : Optional.empty();
+        }
+        List<SystemMetric> result = new ArrayList<>();
+        synchronized (ring) {
+            if (from < ring.coveredFrom()) {
+                return Optional.empty();
+            }
+            ring.forEach(from, EpochMillis.toMillis(end), (timestamp, columns, index) ->
+                    result.add(new SystemMetric(metricName, columns[0][index], ring.unit(),
+                            EpochMillis.toLocalDateTime(timestamp))));
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * Todas las series de un rango, si la ventana lo cubre entero para cada una
+     * @param start Fecha de inicio
+     * @param end Fecha de fin
+     * @return Muestras ordenadas por timestamp, o vacío si hay que consultar el almacén
+     */
+    public Optional<List<SystemMetric>> findByTimestampBetween(LocalDateTime start, LocalDateTime end) {
+        if (full) {
+            return Optional.empty();
+        }
+        Optional<List<SystemMetric>> summary = findSystemMetrics(start, end);
+        if (summary.isEmpty()) {
+            return Optional.empty();
+        }
+        List<SystemMetric> result = new ArrayList<>(summary.get());
+        for (String metricName : rings.keySet()) {
+            Optional<List<SystemMetric>> series = findByMetricName(metricName, start, end);
+            if (series.isEmpty()) {
+                return Optional.empty();
+            }
+            result.addAll(series.get());
+        }
+        result.sort(Comparator.comparing(SystemMetric::getTimestamp));
+        return Optional.of(result);
+    }
+
+    /**
+     * Número de series genéricas en la ventana
+     */
+    public int getSeriesCount() {
+        return rings.size();
+    }
+
+    /**
+     * Memoria ocupada por los búferes de todas las series
+     */
+    public long getMemoryBytes() {
+        long bytes = systemRing.memoryBytes();
+        for (SampleRing ring : rings.values()) {
+            bytes += ring.memoryBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Vacía la ventana; a partir de ahora solo cubre lo posterior a este instante
+     */
+    public synchronized void clear() {
+        startedAt = EpochMillis.toMillis(LocalDateTime.now());
+        systemRing = new SampleRing("%", capacity, SYSTEM_COLUMNS, startedAt);
+        rings.clear();
+        full = false;
+    }
+
+    @Override
+    public String getStateName() {
+        return "hot-window";
+    }
+
+    /**
+     * Serie resumen, número de series y, por cada una, nombre, unidad y contenido
+     */
+    @Override
+    public ByteBuffer saveState() {
+        List<ByteBuffer> parts = new ArrayList<>();
+        parts.add(save(null, systemRing));
+        int count = 0;
+        for (Map.Entry<String, SampleRing> entry : rings.entrySet()) {
+            parts.add(save(entry.getKey(), entry.getValue()));
+            count++;
+        }
+        int size = 4;
+        for (ByteBuffer part : parts) {
+            size += part.remaining();
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.put(parts.get(0)).putInt(count);
+        for (int i = 1; i < parts.size(); i++) {
+            out.put(parts.get(i));
+        }
+        return out.flip();
+    }
+
+    /**
+     * Las series que ya recibieron muestras desde el arranque conservan las suyas
+     */
+    @Override
+    public synchronized void restoreState(ByteBuffer state) {
+        SampleRing summary = SampleRing.read(state, "%", capacity, SYSTEM_COLUMNS);
+        if (summary != null && systemRing.size() == 0) {
+            systemRing = summary;
+        }
+        int count = state.getInt();
+        for (int i = 0; i < count; i++) {
+            String name = WarmState.getString(state);
+            String unit = WarmState.getString(state);
+            SampleRing ring = SampleRing.read(state, unit, capacity, 1);
+            if (ring != null && rings.size() < maxSeries) {
+                rings.putIfAbsent(name, ring);
+            }
+        }
+    }
+
+    private static ByteBuffer save(String name, SampleRing ring) {
+        synchronized (ring) {
+            int nameSize = name != null ? WarmState.stringSize(name) + WarmState.stringSize(ring.unit()) : 0;
+            ByteBuffer out = ByteBuffer.allocate(nameSize + ring.stateSize());
+            if (name != null) {
+                WarmState.putString(out, name);
+                WarmState.putString(out, ring.unit());
+            }
+            ring.write(out);
+            return out.flip();
+        }
+    }
+
+    private synchronized SampleRing createRing(SystemMetric metric) {
+        SampleRing ring = rings.get(metric.getMetricName());
+        if (ring != null) {
+            return ring;
+        }
+        if (rings.size() >= maxSeries) {
+            if (!full) {
+                logger.warn("Ventana en memoria llena ({} series); las series nuevas se consultarán en el almacén",
+                        maxSeries);
+                full = true;
+            }
+            return null;
+        }
+        // La serie no tuvo muestras antes de esta: desde el arranque está completa
+        ring = new SampleRing(metric.getUnit(), capacity, 1, startedAt);
+        rings.put(metric.getMetricName(), ring);
+        return ring;
+    }
+
+    private static SystemMetric toSystemMetric(long timestamp, double[][] columns, int index) {
+        SystemMetric metric = new SystemMetric(columns[0][index], columns[1][index], columns[2][index]);
+        metric.setTimestamp(EpochMillis.toLocalDateTime(timestamp));
+        int alerts = (int) columns[3][index];
+        metric.setCpuAlert((alerts & 1) != 0);
+        metric.setMemoryAlert((alerts & 2) != 0);
+        metric.setDiskAlert((alerts & 4) != 0);
+        return metric;
+    }
+}
@@ -0,0 +1,167 @@
+package com.monitoring.server.data.window;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Búfer circular de capacidad fija con las muestras recientes de una serie:
+ * un {@code long[]} de timestamps (epoch en ms) y un {@code double[]} por columna.
+ * Ocupa siempre {@code capacidad * 8 * (1 + columnas)} bytes más las cabeceras de
+ * los arrays, independientemente de cuántas muestras contenga.
+ * Solo admite muestras en orden de tiempo; una muestra que no es posterior a la
+ * última se ignora (ya está en el almacén o es un duplicado).
+ */
+final class SampleRing {
+
+    /**
+     * Recibe las muestras de un rango en orden de tiempo
+     */
+    @FunctionalInterface
+    interface SampleVisitor {
+        void visit(long timestamp, double[][] columns, int index);
+    }
+
+    private final String unit;
+    private final long[] timestamps;
+    private final double[][] columns;
+    // Siguiente posición de escritura y número de muestras válidas
+    private int head;
+    private int size;
+    // Toda muestra con timestamp >= coveredFrom está en el búfer
+    private long coveredFrom;
+
+    SampleRing(String unit, int capacity, int columnCount, long coveredFrom) {
+        this.unit = unit;
+        this.timestamps = new long[capacity];
+        this.columns = new double[columnCount][capacity];
+        this.coveredFrom = coveredFrom;
+    }
+
+    String unit() {
+        return unit;
+    }
+
+    /**
+     * Reserva la posición de una muestra nueva, sobrescribiendo la más antigua si está lleno
+     * @return Posición donde escribir las columnas, o -1 si la muestra llega fuera de orden
+     */
+    int append(long timestamp) {
+        int capacity = timestamps.length;
+        if (size > 0 && timestamp <= timestamps[(head - 1 + capacity) % capacity]) {
+            return -1;
+        }
+        if (size == capacity) {
+            // Se pierde la más antigua: a partir de ahora solo se cubre lo posterior
+            coveredFrom = Math.max(coveredFrom, timestamps[head] + 1);
+        } else {
+            size++;
+        }
+        int slot = head;
+        timestamps[slot] = timestamp;
+        head = (head + 1) % capacity;
+        return slot;
+    }
+
+    void set(int column, int slot, double value) {
+        columns[column][slot] = value;
+    }
+
+    long coveredFrom() {
+        return coveredFrom;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Recorre las muestras con timestamp dentro de [from, to]
+     */
+    void forEach(long from, long to, SampleVisitor visitor) {
+        int capacity = timestamps.length;
+        int oldest = (head - size + capacity) % capacity;
+        // Búsqueda binaria de la primera muestra >= from sobre el orden lógico
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[(oldest + mid) % capacity] < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < size; i++) {
+            int slot = (oldest + i) % capacity;
+            if (timestamps[slot] > to) {
+                break;
+            }
+            visitor.visit(timestamps[slot], columns, slot);
+        }
+    }
+
+    /**
+     * Bytes que ocupa el búfer escrito con {@link #write}
+     */
+    int stateSize() {
+        return 4 + 8 + 4 + 8 * size * (1 + columns.length);
+    }
+
+    /**
+     * Escribe el contenido de la más antigua a la más reciente: columnas, cobertura,
+     * número de muestras, timestamps y cada columna como bloques contiguos
+     */
+    void write(ByteBuffer out) {
+        out.putInt(columns.length).putLong(coveredFrom).putInt(size);
+        int capacity = timestamps.length;
+        int oldest = (head - size + capacity) % capacity;
+        int first = Math.min(size, capacity - oldest);
+        out.asLongBuffer().put(timestamps, oldest, first).put(timestamps, 0, size - first);
+        out.position(out.position() + 8 * size);
+        for (double[] column : columns) {
+            out.asDoubleBuffer().put(column, oldest, first).put(column, 0, size - first);
+            out.position(out.position() + 8 * size);
+        }
+    }
+
+    /**
+     * Lee un búfer escrito con {@link #write}; si la capacidad actual es menor,
+     * conserva las muestras más recientes y ajusta la cobertura
+     * @return El búfer, o null si el número de columnas no coincide
+     */
+    static SampleRing read(ByteBuffer in, String unit, int capacity, int expectedColumns) {
+        int columnCount = in.getInt();
+        long coveredFrom = in.getLong();
+        int count = in.getInt();
+        if (columnCount != expectedColumns || count < 0) {
+            in.position(in.position() + 8 * Math.max(count, 0) * (1 + columnCount));
+            return null;
+        }
+        int skip = Math.max(0, count - capacity);
+        int kept = count - skip;
+        SampleRing ring = new SampleRing(unit, capacity, columnCount, coveredFrom);
+        in.asLongBuffer().position(skip).get(ring.timestamps, 0, kept);
+        in.position(in.position() + 8 * count);
+        for (double[] column : ring.columns) {
+            in.asDoubleBuffer().position(skip).get(column, 0, kept);
+            in.position(in.position() + 8 * count);
+        }
+        if (skip > 0) {
+            ring.coveredFrom = Math.max(coveredFrom, ring.timestamps[0]);
+        }
+        ring.size = kept;
+        ring.head = kept % capacity;
+        return ring;
+    }
+
+    /**
+     * Bytes ocupados por los arrays del búfer
+     */
+    long memoryBytes() {
+        return estimateBytes(timestamps.length, columns.length);
+    }
+
+    static long estimateBytes(int capacity, int columnCount) {
+        // 16 bytes de cabecera por array, más el array de columnas
+        return (16 + 8L * capacity) * (1 + columnCount) + 16 + 4L * columnCount;
+    }
+}
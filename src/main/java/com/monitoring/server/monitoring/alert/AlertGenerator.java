@@ -12,6 +12,7 @@ import org.springframework.stereotype.Component;
 
 import com.monitoring.server.data.entity.AlertConfiguration;
 import com.monitoring.server.data.entity.SystemMetric;
+import com.monitoring.server.monitoring.collector.NetworkCollector;
 import com.monitoring.server.service.interfaces.AlertConfigService;
 import com.monitoring.server.service.interfaces.MetricService;
 
@@ -25,13 +26,16 @@ public class AlertGenerator {
     
     private final AlertConfigService alertConfigService;
     private final MetricService metricService;
+    private final NetworkCollector networkCollector;
     
     private boolean isGenerating = false;
     
     @Autowired
-    public AlertGenerator(AlertConfigService alertConfigService, MetricService metricService) {
+    public AlertGenerator(AlertConfigService alertConfigService, MetricService metricService,
+            NetworkCollector networkCollector) {
         this.alertConfigService = alertConfigService;
         this.metricService = metricService;
+        this.networkCollector = networkCollector;
     }
     
     /**
@@ -77,6 +81,8 @@ public class AlertGenerator {
             metricsMap.put("CPU", latestMetric.getCpuUsage());
             metricsMap.put("Memory", latestMetric.getMemoryUsage());
             metricsMap.put("Disk", latestMetric.getDiskUsage());
+            // Mayor utilización de enlace entre las interfaces con velocidad conocida
+            metricsMap.put("Network", networkCollector.getMaxUtilization());
             
             // Obtenemos configuraciones de alertas habilitadas
             List<AlertConfiguration> alertConfigs = alertConfigService.findByEnabled(true);
@@ -98,6 +104,8 @@ public class AlertGenerator {
                     thresholdValue = config.getMemoryThreshold();
                 } else if ("Disk".equals(componentName)) {
                     thresholdValue = config.getDiskThreshold();
+                } else if ("Network".equals(componentName) && config.getThresholdValue() != null) {
+                    thresholdValue = config.getThresholdValue();
                 }
                 
                 // Si no tenemos datos para este componente, continuar
@@ -0,0 +1,133 @@
+package com.monitoring.server.monitoring.collector;
+
+import oshi.hardware.CentralProcessor;
+import oshi.hardware.CentralProcessor.TickType;
+
+/**
+ * Muestreador de CPU basado en diferencias de ticks.
+ * Conserva los ticks de la muestra anterior y calcula la utilización a partir
+ * del delta, de modo que ninguna llamada bloquea el hilo (a diferencia de
+ * {@code getProcessorCpuLoad(1000)}, que duerme un segundo por muestra).
+ */
+public class CpuTickSampler {
+
+    private static final int IDLE = TickType.IDLE.getIndex();
+    private static final int IOWAIT = TickType.IOWAIT.getIndex();
+
+    private final CentralProcessor processor;
+
+    // Intervalo mínimo entre muestras para que el delta sea significativo
+    private final long minIntervalNanos;
+
+    private long[] previousTicks;
+    private long[][] previousProcessorTicks;
+    private long lastSampleNanos;
+
+    private double systemLoad;
+    private double[] processorLoads;
+
+    // Porcentaje del tiempo por categoría de tick, indexado por TickType.getIndex()
+    private final double[] tickBreakdown = new double[TickType.values().length];
+
+    public CpuTickSampler(CentralProcessor processor, long minIntervalMillis) {
+        this.processor = processor;
+        this.minIntervalNanos = minIntervalMillis * 1_000_000L;
+        this.previousTicks = processor.getSystemCpuLoadTicks();
+        this.previousProcessorTicks = processor.getProcessorCpuLoadTicks();
+        this.processorLoads = new double[previousProcessorTicks.length];
+        this.lastSampleNanos = System.nanoTime();
+    }
+
+    /**
+     * Obtiene el uso de CPU del sistema (0-100) desde la muestra anterior.
+     * Si la última muestra es demasiado reciente se devuelve el valor ya calculado.
+     * @return Porcentaje de uso de CPU
+     */
+    public synchronized double sample() {
+        long now = System.nanoTime();
+        if (now - lastSampleNanos < minIntervalNanos) {
+            return systemLoad;
+        }
+
+        long[] ticks = processor.getSystemCpuLoadTicks();
+        long[][] processorTicks = processor.getProcessorCpuLoadTicks();
+
+        // Si no avanzaron los ticks conservamos la base anterior y el último valor
+        if (sum(ticks) - sum(previousTicks) <= 0) {
+            return systemLoad;
+        }
+
+        systemLoad = load(previousTicks, ticks);
+        breakdown(previousTicks, ticks, tickBreakdown);
+        if (processorTicks.length != processorLoads.length) {
+            // Cambió el número de CPUs lógicas (hotplug): reiniciamos la base por núcleo
+            processorLoads = new double[processorTicks.length];
+        } else {
+            for (int i = 0; i < processorTicks.length; i++) {
+                processorLoads[i] = load(previousProcessorTicks[i], processorTicks[i]);
+            }
+        }
+
+        previousTicks = ticks;
+        previousProcessorTicks = processorTicks;
+        lastSampleNanos = now;
+        return systemLoad;
+    }
+
+    /**
+     * Obtiene el uso por núcleo calculado en la última muestra
+     * @return Copia del arreglo de porcentajes por CPU lógica
+     */
+    public synchronized double[] getProcessorLoads() {
+        return processorLoads.clone();
+    }
+
+    /**
+     * Obtiene el reparto del tiempo de CPU por categoría (user, system, iowait, steal...)
+     * calculado en la última muestra
+     * @return Copia del arreglo de porcentajes indexado por {@link TickType#getIndex()}
+     */
+    public synchronized double[] getTickBreakdown() {
+        return tickBreakdown.clone();
+    }
+
+    /**
+     * Calcula el porcentaje de cada categoría de tick entre dos lecturas
+     */
+    private static void breakdown(long[] before, long[] after, double[] target) {
+        long total = 0;
+        for (int i = 0; i < after.length; i++) {
+            total += Math.max(0, after[i] - before[i]);
+        }
+        for (int i = 0; i < target.length && i < after.length; i++) {
+            target[i] = total > 0 ? 100.0 * Math.max(0, after[i] - before[i]) / total : 0;
+        }
+    }
+
+    /**
+     * Calcula el porcentaje de uso entre dos lecturas de ticks
+     */
+    private static double load(long[] before, long[] after) {
+        long total = 0;
+        long idle = 0;
+        for (int i = 0; i < after.length; i++) {
+            long delta = Math.max(0, after[i] - before[i]);
+            total += delta;
+            if (i == IDLE || i == IOWAIT) {
+                idle += delta;
+            }
+        }
+        if (total <= 0) {
+            return 0;
+        }
+        return Math.max(0, Math.min(100, 100.0 * (total - idle) / total));
+    }
+
+    private static long sum(long[] ticks) {
+        long total = 0;
+        for (long tick : ticks) {
+            total += tick;
+        }
+        return total;
+    }
+}
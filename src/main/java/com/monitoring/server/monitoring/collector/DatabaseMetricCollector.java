@@ -1,29 +1,38 @@
 package com.monitoring.server.monitoring.collector;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import com.monitoring.server.data.entity.Database;
 import com.monitoring.server.data.entity.SystemMetric;
+import com.monitoring.server.monitoring.ingest.MetricIngestPipeline;
 import com.monitoring.server.service.interfaces.DatabaseService;
-import com.monitoring.server.service.interfaces.MetricService;
+import com.monitoring.server.util.DatabaseConnectionPools;
+
+import jakarta.annotation.PreDestroy;
 
 /**
  * Recolector de métricas de bases de datos monitoreadas.
  * Obtienemos métricas como tiempo de respuesta, número de conexiones, etc.
+ * Cada base de datos se recolecta en su propio hilo virtual con un tiempo límite,
+ * de modo que una base de datos lenta o caída no retrasa a las demás.
  */
 @Component
 public class DatabaseMetricCollector {
@@ -31,13 +40,35 @@ public class DatabaseMetricCollector {
     private static final Logger log = LoggerFactory.getLogger(DatabaseMetricCollector.class);
 
     private final DatabaseService databaseService;
-    private final MetricService metricService;
+    private final MetricIngestPipeline ingestPipeline;
+    private final DatabaseConnectionPools connectionPools;
     private boolean isCollecting = false;
 
+    // Tiempo máximo para recolectar una base de datos (conexión + consultas)
+    @Value("${system.database.target.timeout:20000}")
+    private long targetTimeoutMillis;
+
+    // Tiempo máximo por consulta
+    @Value("${system.database.query.timeout:5}")
+    private int queryTimeoutSeconds;
+
+    // Un hilo virtual por base de datos en cada ciclo
+    private final ExecutorService targetExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("db-collector-", 0).factory());
+
+    /**
+     * Resultado de la recolección de una base de datos
+     */
+    private record TargetResult(boolean reachable, List<SystemMetric> metrics) {
+        static final TargetResult UNREACHABLE = new TargetResult(false, List.of());
+    }
+
     @Autowired
-    public DatabaseMetricCollector(DatabaseService databaseService, MetricService metricService) {
+    public DatabaseMetricCollector(DatabaseService databaseService, MetricIngestPipeline ingestPipeline,
+                                   DatabaseConnectionPools connectionPools) {
         this.databaseService = databaseService;
-        this.metricService = metricService;
+        this.ingestPipeline = ingestPipeline;
+        this.connectionPools = connectionPools;
     }
 
     /**
@@ -56,6 +87,11 @@ public class DatabaseMetricCollector {
         isCollecting = false;
     }
 
+    @PreDestroy
+    public void shutdown() {
+        targetExecutor.shutdownNow();
+    }
+
     /**
      * Verifica si la recolección está activa.
      * @return true si la recolección está activa, false de lo contrario
@@ -78,57 +114,96 @@ public class DatabaseMetricCollector {
         
         // Obtener solo las bases de datos habilitadas para monitoreo
         List<Database> databases = databaseService.findByMonitorEnabled(true);
-        Map<Long, List<SystemMetric>> allMetrics = new HashMap<>();
         
+        // Lanzar todas las recolecciones a la vez, cada una en su hilo virtual
+        List<Future<TargetResult>> futures = new ArrayList<>(databases.size());
         for (Database db : databases) {
-            List<SystemMetric> metrics = new ArrayList<>();
-            LocalDateTime timestamp = LocalDateTime.now();
+            futures.add(targetExecutor.submit(() -> collectTarget(db)));
+        }
+        
+        // Todas arrancan juntas, así que comparten el mismo plazo límite
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(targetTimeoutMillis);
+        int collected = 0;
+        List<SystemMetric> collectedMetrics = new ArrayList<>();
+        
+        for (int i = 0; i < databases.size(); i++) {
+            Database db = databases.get(i);
+            Future<TargetResult> future = futures.get(i);
+            TargetResult result;
+            
+            try {
+                result = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                log.warn("Tiempo límite excedido al recolectar métricas para la base de datos {} ({} ms)",
+                        db.getName(), targetTimeoutMillis);
+                result = TargetResult.UNREACHABLE;
+            } catch (ExecutionException e) {
+                log.error("Error al recolectar métricas para la base de datos {}: {}", db.getName(),
+                        e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                result = TargetResult.UNREACHABLE;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                return;
+            }
             
             try {
-                // Verificar conexión y actualizar estado
-                boolean connectionSuccessful = databaseService.testConnection(db);
-                String status = connectionSuccessful ? "Activa" : "Inactiva";
-                databaseService.updateStatus(db.getId(), status);
-                
-                if (connectionSuccessful) {
-                    // Recolectamos métricas específicas según el tipo de base de datos
-                    switch (db.getType().toLowerCase()) {
-                        case "mysql":
-                            metrics.addAll(collectMySQLMetrics(db, timestamp));
-                            break;
-                        case "postgresql":
-                            metrics.addAll(collectPostgreSQLMetrics(db, timestamp));
-                            break;
-                        case "sql server":
-                        case "sqlserver":
-                            metrics.addAll(collectSQLServerMetrics(db, timestamp));
-                            break;
-                        default:
-                            log.warn("Tipo de base de datos no soportado para métricas detalladas: {}", db.getType());
-                            // Añadir al menos una métrica de tiempo de respuesta
-                            metrics.add(new SystemMetric(
-                                    "DB_" + db.getId() + "_ResponseTime",
-                                    10.0, // Valor de ejemplo
-                                    "ms",
-                                    timestamp
-                            ));
-                    }
-                    
-                    // Guardar métricas en la base de datos
-                    for (SystemMetric metric : metrics) {
-                        metricService.save(metric);
-                    }
-                    
-                    allMetrics.put(db.getId(), metrics);
-                }
+                // Actualizar estado desde el hilo del ciclo
+                databaseService.updateStatus(db.getId(), result.reachable() ? "Activa" : "Inactiva");
             } catch (Exception e) {
-                log.error("Error al recolectar métricas para la base de datos {}: {}", db.getName(), e.getMessage());
-                // Actualizar estado a "Inactiva" en caso de error
-                databaseService.updateStatus(db.getId(), "Inactiva");
+                log.error("Error al actualizar el estado de la base de datos {}: {}", db.getName(), e.getMessage());
+            }
+            collectedMetrics.addAll(result.metrics());
+            if (result.reachable()) {
+                collected++;
             }
         }
         
-        log.info("Métricas de bases de datos recolectadas para {} bases de datos", allMetrics.size());
+        // Encolar las métricas de todas las bases de datos para su escritura en lote
+        ingestPipeline.submitAll(collectedMetrics);
+        
+        log.info("Métricas de bases de datos recolectadas para {} bases de datos", collected);
+    }
+
+    /**
+     * Recolecta una base de datos: prueba de conexión y métricas según su tipo.
+     * Se ejecuta en un hilo virtual propio.
+     * @param db objeto Database con la información de conexión
+     * @return resultado de la recolección
+     */
+    private TargetResult collectTarget(Database db) {
+        LocalDateTime timestamp = LocalDateTime.now();
+        
+        // Verificar conexión
+        if (!databaseService.testConnection(db)) {
+            return TargetResult.UNREACHABLE;
+        }
+        
+        List<SystemMetric> metrics = new ArrayList<>();
+        // Recolectamos métricas específicas según el tipo de base de datos
+        switch (db.getType().toLowerCase()) {
+            case "mysql":
+                metrics.addAll(collectMySQLMetrics(db, timestamp));
+                break;
+            case "postgresql":
+                metrics.addAll(collectPostgreSQLMetrics(db, timestamp));
+                break;
+            case "sql server":
+            case "sqlserver":
+                metrics.addAll(collectSQLServerMetrics(db, timestamp));
+                break;
+            default:
+                log.warn("Tipo de base de datos no soportado para métricas detalladas: {}", db.getType());
+                // Añadir al menos una métrica de tiempo de respuesta
+                metrics.add(new SystemMetric(
+                        "DB_" + db.getId() + "_ResponseTime",
+                        10.0, // Valor de ejemplo
+                        "ms",
+                        timestamp
+                ));
+        }
+        return new TargetResult(true, metrics);
     }
 
     /**
@@ -144,13 +219,13 @@ public class DatabaseMetricCollector {
         ResultSet rs = null;
         
         try {
-            // Establecer conexión
-            String url = "jdbc:mysql://" + db.getHost() + ":" + db.getPort() + "?useSSL=false&serverTimezone=UTC";
-            conn = DriverManager.getConnection(url, db.getUsername(), db.getPassword());
+            // Obtener conexión del pool de la base de datos
+            conn = connectionPools.getConnection(db);
             
             // Medir tiempo de respuesta
             long startTime = System.currentTimeMillis();
             stmt = conn.createStatement();
+            stmt.setQueryTimeout(queryTimeoutSeconds);
             rs = stmt.executeQuery("SELECT 1");
             long endTime = System.currentTimeMillis();
             double responseTime = endTime - startTime;
@@ -193,7 +268,7 @@ public class DatabaseMetricCollector {
             try {
                 if (rs != null) rs.close();
                 if (stmt != null) stmt.close();
-                if (conn != null) conn.close();
+                if (conn != null) conn.close(); // devuelve la conexión al pool
             } catch (Exception e) {
                 log.error("Error al cerrar recursos de conexión", e);
             }
@@ -215,13 +290,13 @@ public class DatabaseMetricCollector {
         ResultSet rs = null;
         
         try {
-            // Establecer conexión
-            String url = "jdbc:postgresql://" + db.getHost() + ":" + db.getPort() + "/postgres";
-            conn = DriverManager.getConnection(url, db.getUsername(), db.getPassword());
+            // Obtener conexión del pool de la base de datos
+            conn = connectionPools.getConnection(db);
             
             // Medir tiempo de respuesta
             long startTime = System.currentTimeMillis();
             stmt = conn.createStatement();
+            stmt.setQueryTimeout(queryTimeoutSeconds);
             rs = stmt.executeQuery("SELECT 1");
             long endTime = System.currentTimeMillis();
             double responseTime = endTime - startTime;
@@ -264,7 +339,7 @@ public class DatabaseMetricCollector {
             try {
                 if (rs != null) rs.close();
                 if (stmt != null) stmt.close();
-                if (conn != null) conn.close();
+                if (conn != null) conn.close(); // devuelve la conexión al pool
             } catch (Exception e) {
                 log.error("Error al cerrar recursos de conexión", e);
             }
@@ -286,13 +361,13 @@ public class DatabaseMetricCollector {
         ResultSet rs = null;
         
         try {
-            // Establecer conexión
-            String url = "jdbc:sqlserver://" + db.getHost() + ":" + db.getPort();
-            conn = DriverManager.getConnection(url, db.getUsername(), db.getPassword());
+            // Obtener conexión del pool de la base de datos
+            conn = connectionPools.getConnection(db);
             
             // Medir tiempo de respuesta
             long startTime = System.currentTimeMillis();
             stmt = conn.createStatement();
+            stmt.setQueryTimeout(queryTimeoutSeconds);
             rs = stmt.executeQuery("SELECT 1");
             long endTime = System.currentTimeMillis();
             double responseTime = endTime - startTime;
@@ -335,7 +410,7 @@ public class DatabaseMetricCollector {
             try {
                 if (rs != null) rs.close();
                 if (stmt != null) stmt.close();
-                if (conn != null) conn.close();
+                if (conn != null) conn.close(); // devuelve la conexión al pool
             } catch (Exception e) {
                 log.error("Error al cerrar recursos de conexión", e);
             }
@@ -0,0 +1,216 @@
+package com.monitoring.server.monitoring.collector;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.monitoring.server.data.entity.SystemMetric;
+
+import oshi.SystemInfo;
+import oshi.hardware.HWDiskStore;
+
+/**
+ * Recolector de rendimiento de E/S por dispositivo de bloque.
+ * En Linux lee /proc/diskstats sobre un buffer reutilizable; en otros sistemas usa
+ * los HWDiskStore de OSHI. Las tasas se calculan como diferencia entre ciclos y se
+ * publican como métricas genéricas "DISK_[dispositivo]_[métrica]".
+ */
+@Component
+public class DiskIoCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskIoCollector.class);
+
+    private static final String DISKSTATS = "/proc/diskstats";
+    private static final int SECTOR_SIZE = 512;
+
+    // Posiciones de los contadores acumulados por dispositivo
+    private static final int READS = 0;
+    private static final int READ_BYTES = 1;
+    private static final int READ_MS = 2;
+    private static final int WRITES = 3;
+    private static final int WRITE_BYTES = 4;
+    private static final int WRITE_MS = 5;
+    private static final int IO_MS = 6;
+    private static final int COUNTERS = 7;
+
+    private final boolean procAvailable = new File(DISKSTATS).canRead();
+    private final byte[] buffer = new byte[64 * 1024];
+
+    private final Map<String, long[]> previousCounters = new HashMap<>();
+    private final Map<String, Boolean> wholeDevices = new HashMap<>();
+    private long previousNanos;
+
+    // Posición actual del parseo dentro del buffer
+    private int cursor;
+
+    private List<HWDiskStore> diskStores;
+
+    /**
+     * Recolecta las métricas de E/S de cada dispositivo desde el ciclo anterior.
+     * El primer ciclo solo establece la referencia y no produce métricas.
+     * @param timestamp Momento de la muestra
+     * @return Lista de métricas de E/S por dispositivo
+     */
+    public synchronized List<SystemMetric> collect(LocalDateTime timestamp) {
+        Map<String, long[]> current;
+        try {
+            current = procAvailable ? readDiskStats() : readDiskStores();
+        } catch (Exception e) {
+            logger.error("Error al leer estadísticas de disco", e);
+            return new ArrayList<>();
+        }
+
+        long now = System.nanoTime();
+        double intervalSeconds = previousNanos > 0 ? (now - previousNanos) / 1e9 : 0;
+        previousNanos = now;
+
+        List<SystemMetric> metrics = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : current.entrySet()) {
+            String device = entry.getKey();
+            long[] counters = entry.getValue();
+            long[] previous = previousCounters.put(device, counters);
+            if (previous == null || intervalSeconds <= 0) {
+                continue;
+            }
+
+            long reads = delta(counters, previous, READS);
+            long writes = delta(counters, previous, WRITES);
+            long waitMs = delta(counters, previous, READ_MS) + delta(counters, previous, WRITE_MS);
+            if (waitMs == 0 && !procAvailable) {
+                // OSHI solo expone el tiempo total de transferencia
+                waitMs = delta(counters, previous, IO_MS);
+            }
+            double readKbps = delta(counters, previous, READ_BYTES) / 1024.0 / intervalSeconds;
+            double writeKbps = delta(counters, previous, WRITE_BYTES) / 1024.0 / intervalSeconds;
+            double awaitMs = reads + writes > 0 ? (double) waitMs / (reads + writes) : 0;
+            double utilization = Math.min(100, delta(counters, previous, IO_MS) / (intervalSeconds * 10.0));
+
+            String prefix = "DISK_" + device + "_";
+            metrics.add(new SystemMetric(prefix + "ReadKBps", readKbps, "KB/s", timestamp));
+            metrics.add(new SystemMetric(prefix + "WriteKBps", writeKbps, "KB/s", timestamp));
+            metrics.add(new SystemMetric(prefix + "AwaitMs", awaitMs, "ms", timestamp));
+            metrics.add(new SystemMetric(prefix + "Utilization", utilization, "%", timestamp));
+        }
+
+        // Olvidar dispositivos que ya no existen
+        previousCounters.keySet().retainAll(current.keySet());
+        return metrics;
+    }
+
+    /**
+     * Lee /proc/diskstats y devuelve los contadores de los discos completos
+     * (sin particiones ni dispositivos loop/ram)
+     */
+    private Map<String, long[]> readDiskStats() throws IOException {
+        int length = 0;
+        try (FileInputStream in = new FileInputStream(DISKSTATS)) {
+            int n;
+            while (length < buffer.length && (n = in.read(buffer, length, buffer.length - length)) > 0) {
+                length += n;
+            }
+        }
+
+        Map<String, long[]> result = new HashMap<>();
+        int pos = 0;
+        while (pos < length) {
+            int lineEnd = pos;
+            while (lineEnd < length && buffer[lineEnd] != '\n') {
+                lineEnd++;
+            }
+
+            // major minor nombre reads merged sectores ms writes merged sectores ms en_curso ms_io ...
+            cursor = pos;
+            skipNumber(lineEnd);
+            skipNumber(lineEnd);
+            skipSpaces(lineEnd);
+            int nameStart = cursor;
+            while (cursor < lineEnd && buffer[cursor] != ' ') {
+                cursor++;
+            }
+            String device = new String(buffer, nameStart, cursor - nameStart);
+
+            if (isWholeDevice(device)) {
+                long[] counters = new long[COUNTERS];
+                counters[READS] = nextNumber(lineEnd);
+                nextNumber(lineEnd);
+                counters[READ_BYTES] = nextNumber(lineEnd) * SECTOR_SIZE;
+                counters[READ_MS] = nextNumber(lineEnd);
+                counters[WRITES] = nextNumber(lineEnd);
+                nextNumber(lineEnd);
+                counters[WRITE_BYTES] = nextNumber(lineEnd) * SECTOR_SIZE;
+                counters[WRITE_MS] = nextNumber(lineEnd);
+                nextNumber(lineEnd);
+                counters[IO_MS] = nextNumber(lineEnd);
+                result.put(device, counters);
+            }
+            pos = lineEnd + 1;
+        }
+        return result;
+    }
+
+    /**
+     * Obtiene los contadores de disco mediante OSHI en sistemas sin /proc
+     */
+    private Map<String, long[]> readDiskStores() {
+        if (diskStores == null) {
+            diskStores = new SystemInfo().getHardware().getDiskStores();
+        }
+        Map<String, long[]> result = new HashMap<>();
+        for (HWDiskStore store : diskStores) {
+            store.updateAttributes();
+            long[] counters = new long[COUNTERS];
+            counters[READS] = store.getReads();
+            counters[READ_BYTES] = store.getReadBytes();
+            counters[WRITES] = store.getWrites();
+            counters[WRITE_BYTES] = store.getWriteBytes();
+            counters[IO_MS] = store.getTransferTime();
+            result.put(store.getName(), counters);
+        }
+        return result;
+    }
+
+    /**
+     * Determina si el dispositivo es un disco completo (aparece en /sys/block)
+     */
+    private boolean isWholeDevice(String device) {
+        return wholeDevices.computeIfAbsent(device,
+                name -> !name.startsWith("loop") && !name.startsWith("ram") && new File("/sys/block/" + name).exists());
+    }
+
+    private static long delta(long[] current, long[] previous, int index) {
+        return Math.max(0, current[index] - previous[index]);
+    }
+
+    private void skipSpaces(int end) {
+        while (cursor < end && buffer[cursor] == ' ') {
+            cursor++;
+        }
+    }
+
+    private void skipNumber(int end) {
+        nextNumber(end);
+    }
+
+    private long nextNumber(int end) {
+        skipSpaces(end);
+        long value = 0;
+        while (cursor < end) {
+            byte b = buffer[cursor];
+            if (b < '0' || b > '9') {
+                break;
+            }
+            value = value * 10 + (b - '0');
+            cursor++;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,295 @@
+package com.monitoring.server.monitoring.collector;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.monitoring.server.data.entity.SystemMetric;
+import com.sun.jna.platform.linux.LibC;
+
+import oshi.SystemInfo;
+import oshi.software.os.OSFileStore;
+
+/**
+ * Recolector de uso de espacio e inodos de todos los puntos de montaje.
+ * El inventario de sistemas de archivos se mantiene en caché: en Linux solo se
+ * vuelve a construir cuando cambia /proc/self/mountinfo, que se lee como mucho una
+ * vez por segundo (getRootUsage y collect se llaman en el mismo ciclo), y en cada
+ * ciclo se hace una única llamada statvfs por punto de montaje.
+ */
+@Component
+public class FileSystemCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileSystemCollector.class);
+
+    private static final String MOUNTINFO = "/proc/self/mountinfo";
+
+    // Intervalo de refresco del inventario en sistemas sin /proc
+    private static final long INVENTORY_REFRESH_NANOS = 10 * 60 * 1_000_000_000L;
+
+    // Intervalo mínimo entre lecturas de mountinfo
+    private static final long MOUNTINFO_CHECK_NANOS = 1_000_000_000L;
+
+    // Sistemas de archivos virtuales o de memoria que no interesan para el uso de disco
+    private static final Set<String> PSEUDO_FILESYSTEMS = Set.of(
+            "proc", "sysfs", "devtmpfs", "devpts", "tmpfs", "ramfs", "cgroup", "cgroup2", "pstore", "bpf",
+            "securityfs", "debugfs", "tracefs", "configfs", "fusectl", "mqueue", "hugetlbfs", "autofs",
+            "binfmt_misc", "rpc_pipefs", "nsfs", "efivarfs", "selinuxfs", "squashfs", "fuse.gvfsd-fuse",
+            "fuse.portal");
+
+    /**
+     * Punto de montaje del inventario
+     */
+    private static final class Mount {
+        final String path;
+        final FileStore fileStore;
+        final long totalInodes;
+        final long freeInodes;
+
+        Mount(String path, FileStore fileStore, long totalInodes, long freeInodes) {
+            this.path = path;
+            this.fileStore = fileStore;
+            this.totalInodes = totalInodes;
+            this.freeInodes = freeInodes;
+        }
+    }
+
+    private final boolean linux = new File(MOUNTINFO).canRead();
+    // Crece hasta que cabe la tabla de montajes completa
+    private byte[] buffer = new byte[64 * 1024];
+    private final LibC.Statvfs statvfs = linux ? new LibC.Statvfs() : null;
+
+    private List<Mount> mounts = List.of();
+    private Mount rootMount;
+    private int mountinfoHash;
+    private long inventoryNanos;
+    private long mountinfoCheckNanos;
+
+    /**
+     * Obtiene el uso del sistema de archivos raíz ("/", "C:\" o el volumen de datos en macOS)
+     * con una sola llamada statvfs
+     * @return Porcentaje de uso (0-100)
+     */
+    public synchronized double getRootUsage() {
+        refreshInventory();
+        if (rootMount == null) {
+            return 0;
+        }
+        long[] usage = usage(rootMount);
+        return usage != null ? percent(usage[0] - usage[1], usage[0]) : 0;
+    }
+
+    /**
+     * Recolecta el uso de espacio e inodos de cada punto de montaje
+     * @param timestamp Momento de la muestra
+     * @return Métricas "FS_[montaje]_Usage" y "FS_[montaje]_InodeUsage"
+     */
+    public synchronized List<SystemMetric> collect(LocalDateTime timestamp) {
+        refreshInventory();
+        List<SystemMetric> metrics = new ArrayList<>(mounts.size() * 2);
+        for (Mount mount : mounts) {
+            long[] usage = usage(mount);
+            if (usage == null || usage[0] <= 0) {
+                continue;
+            }
+            String prefix = "FS_" + mount.path + "_";
+            metrics.add(new SystemMetric(prefix + "Usage", percent(usage[0] - usage[1], usage[0]), "%", timestamp));
+            if (usage[2] > 0) {
+                metrics.add(new SystemMetric(prefix + "InodeUsage", percent(usage[2] - usage[3], usage[2]), "%",
+                        timestamp));
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Lee espacio total, espacio usable, inodos totales e inodos libres de un montaje
+     * @return Arreglo {total, usable, inodos, inodos libres} o null si no se pudo leer
+     */
+    private long[] usage(Mount mount) {
+        try {
+            if (linux) {
+                if (LibC.INSTANCE.statvfs(mount.path, statvfs) != 0) {
+                    return null;
+                }
+                long blockSize = statvfs.f_frsize.longValue();
+                return new long[] {
+                    statvfs.f_blocks.longValue() * blockSize,
+                    statvfs.f_bavail.longValue() * blockSize,
+                    statvfs.f_files.longValue(),
+                    statvfs.f_ffree.longValue()
+                };
+            }
+            return new long[] {
+                mount.fileStore.getTotalSpace(),
+                mount.fileStore.getUsableSpace(),
+                mount.totalInodes,
+                mount.freeInodes
+            };
+        } catch (Exception e) {
+            logger.debug("No se pudo leer el uso de {}: {}", mount.path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reconstruye el inventario si cambió la tabla de montajes
+     */
+    private void refreshInventory() {
+        try {
+            if (linux) {
+                long now = System.nanoTime();
+                if (!mounts.isEmpty() && now - mountinfoCheckNanos < MOUNTINFO_CHECK_NANOS) {
+                    return;
+                }
+                mountinfoCheckNanos = now;
+                int length = readMountinfo();
+                int hash = hash(length);
+                if (hash != mountinfoHash || mounts.isEmpty()) {
+                    mountinfoHash = hash;
+                    parseMountinfo(length);
+                }
+            } else if (mounts.isEmpty() || System.nanoTime() - inventoryNanos > INVENTORY_REFRESH_NANOS) {
+                loadFileStores();
+                inventoryNanos = System.nanoTime();
+            }
+        } catch (Exception e) {
+            logger.error("Error al actualizar el inventario de sistemas de archivos", e);
+        }
+    }
+
+    /**
+     * Lee mountinfo completo, ampliando el buffer si no cabe (miles de montajes en
+     * hosts de contenedores)
+     */
+    private int readMountinfo() throws IOException {
+        int length = 0;
+        try (FileInputStream in = new FileInputStream(MOUNTINFO)) {
+            int n;
+            while ((n = in.read(buffer, length, buffer.length - length)) > 0) {
+                length += n;
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+            }
+        }
+        return length;
+    }
+
+    private int hash(int length) {
+        int hash = length;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+        return hash;
+    }
+
+    /**
+     * Construye el inventario desde /proc/self/mountinfo:
+     * "id padre mayor:menor raíz montaje opciones [opcionales] - tipo origen superopciones"
+     */
+    private void parseMountinfo(int length) {
+        List<Mount> parsed = new ArrayList<>();
+        Set<String> devices = new HashSet<>();
+        Mount root = null;
+
+        String text = new String(buffer, 0, length, StandardCharsets.UTF_8);
+        for (String line : text.split("\n")) {
+            String[] fields = line.split(" ");
+            int separator = indexOf(fields, "-");
+            if (fields.length < 7 || separator < 6 || separator + 1 >= fields.length) {
+                continue;
+            }
+            String fsType = fields[separator + 1];
+            if (PSEUDO_FILESYSTEMS.contains(fsType)) {
+                continue;
+            }
+            Mount mount = new Mount(unescape(fields[4]), null, 0, 0);
+            boolean isRoot = "/".equals(mount.path);
+            // Los bind mounts comparten dispositivo: se conserva el primer montaje (y siempre la raíz)
+            if (!devices.add(fields[2]) && !isRoot) {
+                continue;
+            }
+            parsed.add(mount);
+            if (isRoot) {
+                root = mount;
+            }
+        }
+
+        mounts = List.copyOf(parsed);
+        rootMount = root;
+        logger.info("Inventario de sistemas de archivos actualizado: {} puntos de montaje", mounts.size());
+    }
+
+    /**
+     * Construye el inventario con OSHI en sistemas sin /proc
+     */
+    private void loadFileStores() {
+        List<Mount> loaded = new ArrayList<>();
+        Mount root = null;
+        for (OSFileStore store : new SystemInfo().getOperatingSystem().getFileSystem().getFileStores(true)) {
+            try {
+                FileStore fileStore = Files.getFileStore(Path.of(store.getMount()));
+                Mount mount = new Mount(store.getMount(), fileStore, store.getTotalInodes(), store.getFreeInodes());
+                loaded.add(mount);
+                // Verifica el punto de montaje raíz o de sistema para diferentes SO
+                if (store.getMount().equals("/") ||  // Linux
+                    store.getMount().equals("C:\\") || // Windows
+                    store.getMount().startsWith("/System/Volumes/Data")) { // macOS
+                    root = mount;
+                }
+            } catch (Exception e) {
+                logger.debug("Punto de montaje no accesible {}: {}", store.getMount(), e.getMessage());
+            }
+        }
+        mounts = List.copyOf(loaded);
+        rootMount = root;
+    }
+
+    private static int indexOf(String[] fields, String value) {
+        for (int i = 0; i < fields.length; i++) {
+            if (value.equals(fields[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decodifica los escapes octales de mountinfo (por ejemplo "\040" para espacios)
+     */
+    private static String unescape(String path) {
+        if (path.indexOf('\\') < 0) {
+            return path;
+        }
+        StringBuilder result = new StringBuilder(path.length());
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '\\' && i + 3 < path.length()) {
+                result.append((char) Integer.parseInt(path.substring(i + 1, i + 4), 8));
+                i += 3;
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    private static double percent(long used, long total) {
+        return total > 0 ? Math.max(0, Math.min(100, used * 100.0 / total)) : 0;
+    }
+}
@@ -0,0 +1,441 @@
+package com.monitoring.server.monitoring.collector;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.monitoring.server.data.entity.SystemMetric;
+
+import oshi.SystemInfo;
+import oshi.hardware.NetworkIF;
+
+/**
+ * Recolector de red: rendimiento por interfaz y estado de las conexiones TCP.
+ * En Linux lee /proc/net/dev, /proc/net/snmp y /proc/net/tcp[6] sobre un buffer
+ * de bytes reutilizable (sin Strings por línea); en otros sistemas usa los
+ * NetworkIF de OSHI. Las tasas se calculan como diferencia entre ciclos y se
+ * publican como métricas genéricas "NET_[interfaz]_[métrica]" y "TCP_[métrica]".
+ */
+@Component
+public class NetworkCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(NetworkCollector.class);
+
+    private static final String NET_DEV = "/proc/net/dev";
+    private static final String NET_SNMP = "/proc/net/snmp";
+    private static final String[] NET_TCP = { "/proc/net/tcp", "/proc/net/tcp6" };
+
+    // Posiciones de los contadores acumulados por interfaz
+    private static final int RX_BYTES = 0;
+    private static final int RX_PACKETS = 1;
+    private static final int RX_ERRORS = 2;
+    private static final int RX_DROPS = 3;
+    private static final int TX_BYTES = 4;
+    private static final int TX_PACKETS = 5;
+    private static final int TX_ERRORS = 6;
+    private static final int TX_DROPS = 7;
+    private static final int COUNTERS = 8;
+
+    // Estados TCP de include/net/tcp_states.h (índice = código hexadecimal de /proc/net/tcp)
+    private static final String[] TCP_STATES = {
+        null, "Established", "SynSent", "SynRecv", "FinWait1", "FinWait2", "TimeWait",
+        "Close", "CloseWait", "LastAck", "Listen", "Closing"
+    };
+
+    private static final byte[] TCP_KEY = "Tcp:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] OUT_SEGS_KEY = "OutSegs".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RETRANS_SEGS_KEY = "RetransSegs".getBytes(StandardCharsets.US_ASCII);
+
+    private final boolean procAvailable = new File(NET_DEV).canRead();
+    private final byte[] buffer = new byte[64 * 1024];
+
+    private final Map<String, long[]> previousCounters = new HashMap<>();
+    private final Map<String, Long> linkSpeeds = new HashMap<>();
+    private long previousNanos;
+    private long previousOutSegs = -1;
+    private long previousRetransSegs = -1;
+
+    // Mayor utilización de enlace (%) de la última muestra, usada por las alertas de red
+    private volatile double maxUtilization;
+
+    // Posición actual del parseo dentro del buffer
+    private int cursor;
+
+    private List<NetworkIF> networkIFs;
+
+    /**
+     * Recolecta las métricas de red desde el ciclo anterior.
+     * El primer ciclo solo establece la referencia para las tasas.
+     * @param timestamp Momento de la muestra
+     * @return Lista de métricas de red
+     */
+    public synchronized List<SystemMetric> collect(LocalDateTime timestamp) {
+        List<SystemMetric> metrics = new ArrayList<>();
+        long now = System.nanoTime();
+        double intervalSeconds = previousNanos > 0 ? (now - previousNanos) / 1e9 : 0;
+        previousNanos = now;
+
+        try {
+            collectInterfaces(procAvailable ? readNetDev() : readNetworkIFs(), intervalSeconds, timestamp, metrics);
+            if (procAvailable) {
+                collectTcpStates(timestamp, metrics);
+                collectRetransmits(intervalSeconds, timestamp, metrics);
+            }
+        } catch (Exception e) {
+            logger.error("Error al leer estadísticas de red", e);
+        }
+        return metrics;
+    }
+
+    /**
+     * Obtiene la mayor utilización de enlace de la última muestra
+     * @return Porcentaje de utilización (0-100); 0 si ninguna interfaz informa su velocidad
+     */
+    public double getMaxUtilization() {
+        return maxUtilization;
+    }
+
+    private void collectInterfaces(Map<String, long[]> current, double intervalSeconds, LocalDateTime timestamp,
+            List<SystemMetric> metrics) {
+        double highestUtilization = 0;
+        for (Map.Entry<String, long[]> entry : current.entrySet()) {
+            String name = entry.getKey();
+            long[] counters = entry.getValue();
+            long[] previous = previousCounters.put(name, counters);
+            if (previous == null || intervalSeconds <= 0) {
+                continue;
+            }
+
+            double rxBytesPerSecond = delta(counters, previous, RX_BYTES) / intervalSeconds;
+            double txBytesPerSecond = delta(counters, previous, TX_BYTES) / intervalSeconds;
+
+            String prefix = "NET_" + name + "_";
+            metrics.add(new SystemMetric(prefix + "RxKBps", rxBytesPerSecond / 1024.0, "KB/s", timestamp));
+            metrics.add(new SystemMetric(prefix + "TxKBps", txBytesPerSecond / 1024.0, "KB/s", timestamp));
+            metrics.add(new SystemMetric(prefix + "RxPackets", delta(counters, previous, RX_PACKETS) / intervalSeconds,
+                    "pkt/s", timestamp));
+            metrics.add(new SystemMetric(prefix + "TxPackets", delta(counters, previous, TX_PACKETS) / intervalSeconds,
+                    "pkt/s", timestamp));
+            metrics.add(new SystemMetric(prefix + "RxErrors", (double) delta(counters, previous, RX_ERRORS), "count",
+                    timestamp));
+            metrics.add(new SystemMetric(prefix + "TxErrors", (double) delta(counters, previous, TX_ERRORS), "count",
+                    timestamp));
+            metrics.add(new SystemMetric(prefix + "RxDrops", (double) delta(counters, previous, RX_DROPS), "count",
+                    timestamp));
+            metrics.add(new SystemMetric(prefix + "TxDrops", (double) delta(counters, previous, TX_DROPS), "count",
+                    timestamp));
+
+            long speedBitsPerSecond = linkSpeed(name);
+            if (speedBitsPerSecond > 0) {
+                double utilization = Math.min(100,
+                        100.0 * Math.max(rxBytesPerSecond, txBytesPerSecond) * 8 / speedBitsPerSecond);
+                metrics.add(new SystemMetric(prefix + "Utilization", utilization, "%", timestamp));
+                highestUtilization = Math.max(highestUtilization, utilization);
+            }
+        }
+        previousCounters.keySet().retainAll(current.keySet());
+        maxUtilization = highestUtilization;
+    }
+
+    /**
+     * Lee /proc/net/dev y devuelve los contadores por interfaz (sin loopback)
+     */
+    private Map<String, long[]> readNetDev() throws IOException {
+        int length = readFile(NET_DEV);
+        Map<String, long[]> result = new HashMap<>();
+        int pos = 0;
+        while (pos < length) {
+            int lineEnd = lineEnd(pos, length);
+            // "  eth0: rx_bytes rx_packets errs drop fifo frame compressed multicast tx_bytes tx_packets errs drop ..."
+            int colon = indexOf((byte) ':', pos, lineEnd);
+            if (colon > 0) {
+                cursor = pos;
+                skipSpaces(colon);
+                String name = new String(buffer, cursor, colon - cursor, StandardCharsets.US_ASCII);
+                if (!"lo".equals(name)) {
+                    cursor = colon + 1;
+                    long[] counters = new long[COUNTERS];
+                    counters[RX_BYTES] = nextNumber(lineEnd);
+                    counters[RX_PACKETS] = nextNumber(lineEnd);
+                    counters[RX_ERRORS] = nextNumber(lineEnd);
+                    counters[RX_DROPS] = nextNumber(lineEnd);
+                    for (int i = 0; i < 4; i++) {
+                        nextNumber(lineEnd); // fifo frame compressed multicast
+                    }
+                    counters[TX_BYTES] = nextNumber(lineEnd);
+                    counters[TX_PACKETS] = nextNumber(lineEnd);
+                    counters[TX_ERRORS] = nextNumber(lineEnd);
+                    counters[TX_DROPS] = nextNumber(lineEnd);
+                    result.put(name, counters);
+                }
+            }
+            pos = lineEnd + 1;
+        }
+        return result;
+    }
+
+    /**
+     * Obtiene los contadores por interfaz mediante OSHI en sistemas sin /proc
+     */
+    private Map<String, long[]> readNetworkIFs() {
+        if (networkIFs == null) {
+            networkIFs = new SystemInfo().getHardware().getNetworkIFs();
+        }
+        Map<String, long[]> result = new HashMap<>();
+        for (NetworkIF net : networkIFs) {
+            net.updateAttributes();
+            long[] counters = new long[COUNTERS];
+            counters[RX_BYTES] = net.getBytesRecv();
+            counters[RX_PACKETS] = net.getPacketsRecv();
+            counters[RX_ERRORS] = net.getInErrors();
+            counters[RX_DROPS] = net.getInDrops();
+            counters[TX_BYTES] = net.getBytesSent();
+            counters[TX_PACKETS] = net.getPacketsSent();
+            counters[TX_ERRORS] = net.getOutErrors();
+            result.put(net.getName(), counters);
+            linkSpeeds.putIfAbsent(net.getName(), net.getSpeed());
+        }
+        return result;
+    }
+
+    /**
+     * Cuenta las conexiones TCP (IPv4 e IPv6) por estado.
+     * Los ficheros pueden ser grandes, así que se procesan por bloques sobre el mismo buffer.
+     */
+    private void collectTcpStates(LocalDateTime timestamp, List<SystemMetric> metrics) throws IOException {
+        long[] counts = new long[TCP_STATES.length];
+        for (String file : NET_TCP) {
+            if (!new File(file).canRead()) {
+                continue;
+            }
+            try (FileInputStream in = new FileInputStream(file)) {
+                int length = 0;
+                boolean header = true;
+                int n;
+                while ((n = in.read(buffer, length, buffer.length - length)) > 0) {
+                    length += n;
+                    int pos = 0;
+                    int lineEnd;
+                    while ((lineEnd = indexOf((byte) '\n', pos, length)) >= 0) {
+                        if (header) {
+                            header = false;
+                        } else {
+                            countState(pos, lineEnd, counts);
+                        }
+                        pos = lineEnd + 1;
+                    }
+                    // Mover la línea incompleta al inicio del buffer
+                    System.arraycopy(buffer, pos, buffer, 0, length - pos);
+                    length -= pos;
+                }
+            }
+        }
+        for (int state = 1; state < TCP_STATES.length; state++) {
+            metrics.add(new SystemMetric("TCP_" + TCP_STATES[state], (double) counts[state], "count", timestamp));
+        }
+    }
+
+    /**
+     * Suma el estado de una línea "sl local_address rem_address st ..." de /proc/net/tcp
+     */
+    private void countState(int pos, int lineEnd, long[] counts) {
+        cursor = pos;
+        for (int field = 0; field < 3; field++) {
+            skipSpaces(lineEnd);
+            while (cursor < lineEnd && buffer[cursor] != ' ') {
+                cursor++;
+            }
+        }
+        skipSpaces(lineEnd);
+        if (cursor + 1 < lineEnd) {
+            int state = hexDigit(buffer[cursor]) * 16 + hexDigit(buffer[cursor + 1]);
+            if (state > 0 && state < counts.length) {
+                counts[state]++;
+            }
+        }
+    }
+
+    /**
+     * Calcula las retransmisiones TCP a partir de /proc/net/snmp
+     */
+    private void collectRetransmits(double intervalSeconds, LocalDateTime timestamp, List<SystemMetric> metrics)
+            throws IOException {
+        int length = readFile(NET_SNMP);
+
+        // La primera línea "Tcp:" trae los nombres de columna y la segunda los valores
+        int headerStart = findLine(TCP_KEY, 0, length);
+        if (headerStart < 0) {
+            return;
+        }
+        int headerEnd = lineEnd(headerStart, length);
+        int valuesStart = findLine(TCP_KEY, headerEnd + 1, length);
+        if (valuesStart < 0) {
+            return;
+        }
+        int valuesEnd = lineEnd(valuesStart, length);
+
+        long outSegs = columnValue(OUT_SEGS_KEY, headerStart, headerEnd, valuesStart, valuesEnd);
+        long retransSegs = columnValue(RETRANS_SEGS_KEY, headerStart, headerEnd, valuesStart, valuesEnd);
+
+        if (previousOutSegs >= 0 && intervalSeconds > 0) {
+            long sent = Math.max(0, outSegs - previousOutSegs);
+            long retransmitted = Math.max(0, retransSegs - previousRetransSegs);
+            metrics.add(new SystemMetric("TCP_Retransmits", retransmitted / intervalSeconds, "seg/s", timestamp));
+            metrics.add(new SystemMetric("TCP_RetransmitRate", sent > 0 ? 100.0 * retransmitted / sent : 0, "%",
+                    timestamp));
+        }
+        previousOutSegs = outSegs;
+        previousRetransSegs = retransSegs;
+    }
+
+    /**
+     * Busca una columna por nombre en la línea de cabecera y devuelve su valor
+     */
+    private long columnValue(byte[] key, int headerStart, int headerEnd, int valuesStart, int valuesEnd) {
+        // Contar columnas hasta la clave
+        cursor = headerStart;
+        int column = 0;
+        boolean found = false;
+        while (cursor < headerEnd) {
+            skipSpaces(headerEnd);
+            if (startsWith(key, cursor, headerEnd)
+                    && (cursor + key.length == headerEnd || buffer[cursor + key.length] == ' ')) {
+                found = true;
+                break;
+            }
+            while (cursor < headerEnd && buffer[cursor] != ' ') {
+                cursor++;
+            }
+            column++;
+        }
+        if (!found) {
+            return 0;
+        }
+
+        // Avanzar el mismo número de columnas en la línea de valores
+        cursor = valuesStart;
+        for (int i = 0; i < column; i++) {
+            skipSpaces(valuesEnd);
+            while (cursor < valuesEnd && buffer[cursor] != ' ') {
+                cursor++;
+            }
+        }
+        return nextNumber(valuesEnd);
+    }
+
+    /**
+     * Obtiene la velocidad del enlace en bits/s desde /sys/class/net (0 si no se conoce)
+     */
+    private long linkSpeed(String name) {
+        return linkSpeeds.computeIfAbsent(name, iface -> {
+            try {
+                long mbps = Long.parseLong(Files.readString(Path.of("/sys/class/net", iface, "speed")).trim());
+                return mbps > 0 ? mbps * 1_000_000L : 0L;
+            } catch (Exception e) {
+                // Interfaces virtuales no informan velocidad
+                return 0L;
+            }
+        });
+    }
+
+    private int readFile(String path) throws IOException {
+        int length = 0;
+        try (FileInputStream in = new FileInputStream(path)) {
+            int n;
+            while (length < buffer.length && (n = in.read(buffer, length, buffer.length - length)) > 0) {
+                length += n;
+            }
+        }
+        return length;
+    }
+
+    private int findLine(byte[] key, int from, int length) {
+        int pos = from;
+        while (pos < length) {
+            if (startsWith(key, pos, length)) {
+                return pos;
+            }
+            pos = lineEnd(pos, length) + 1;
+        }
+        return -1;
+    }
+
+    private int lineEnd(int from, int length) {
+        int end = indexOf((byte) '\n', from, length);
+        return end < 0 ? length : end;
+    }
+
+    private int indexOf(byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean startsWith(byte[] key, int offset, int end) {
+        if (offset + key.length > end) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer[offset + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void skipSpaces(int end) {
+        while (cursor < end && buffer[cursor] == ' ') {
+            cursor++;
+        }
+    }
+
+    private long nextNumber(int end) {
+        skipSpaces(end);
+        boolean negative = cursor < end && buffer[cursor] == '-';
+        if (negative) {
+            cursor++;
+        }
+        long value = 0;
+        while (cursor < end) {
+            byte b = buffer[cursor];
+            if (b < '0' || b > '9') {
+                break;
+            }
+            value = value * 10 + (b - '0');
+            cursor++;
+        }
+        return negative ? -value : value;
+    }
+
+    private static int hexDigit(byte b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        }
+        if (b >= 'A' && b <= 'F') {
+            return b - 'A' + 10;
+        }
+        if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
+        }
+        return 0;
+    }
+
+    private static long delta(long[] current, long[] previous, int index) {
+        return Math.max(0, current[index] - previous[index]);
+    }
+}
@@ -0,0 +1,136 @@
+package com.monitoring.server.monitoring.collector;
+
+import java.util.Arrays;
+
+/**
+ * Tabla primitiva pid -> (utime+stime, bytes de E/S, starttime) con direccionamiento abierto.
+ * Se usa en pares: la tabla del ciclo anterior se consulta y la del ciclo actual
+ * se llena; al terminar se intercambian y se vacía la vieja. Así los procesos que
+ * ya no existen desaparecen sin crear un objeto por proceso en cada ciclo.
+ * Un proceso cuyo /proc/[pid]/io no se pudo leer se registra con {@link #NO_IO}
+ * para no volver a intentarlo en cada ciclo mientras siga vivo.
+ */
+class PidTickTable {
+
+    // Bytes de E/S de un proceso sin /proc/[pid]/io legible
+    static final long NO_IO = -1;
+
+    private static final int EMPTY = -1;
+
+    private int[] pids;
+    private long[] ticks;
+    private long[] ioBytes;
+    private long[] startTimes;
+    private int size;
+
+    PidTickTable(int expectedProcesses) {
+        allocate(capacityFor(expectedProcesses));
+    }
+
+    /**
+     * Registra los contadores acumulados de un proceso en este ciclo
+     * @param ioByteCount Bytes de E/S acumulados, o {@link #NO_IO} si no se pudieron leer
+     */
+    void put(int pid, long cpuTicks, long ioByteCount, long startTime) {
+        if ((size + 1) * 2 > pids.length) {
+            grow();
+        }
+        int slot = slot(pid);
+        if (pids[slot] == EMPTY) {
+            pids[slot] = pid;
+            size++;
+        }
+        ticks[slot] = cpuTicks;
+        ioBytes[slot] = ioByteCount;
+        startTimes[slot] = startTime;
+    }
+
+    /**
+     * Obtiene los ticks anteriores de un proceso si sigue siendo el mismo proceso
+     * @param pid Identificador del proceso
+     * @param startTime Momento de inicio actual; si difiere, el pid fue reutilizado
+     * @return Ticks del ciclo anterior o -1 si no hay lectura válida
+     */
+    long previousTicks(int pid, long startTime) {
+        int slot = slot(pid);
+        if (pids[slot] == EMPTY || startTimes[slot] != startTime) {
+            return -1;
+        }
+        return ticks[slot];
+    }
+
+    /**
+     * Obtiene los bytes de E/S (lectura + escritura) anteriores de un proceso
+     * @param pid Identificador del proceso
+     * @param startTime Momento de inicio actual; si difiere, el pid fue reutilizado
+     * @return Bytes del ciclo anterior o -1 si no hay lectura válida
+     */
+    long previousIoBytes(int pid, long startTime) {
+        int slot = slot(pid);
+        if (pids[slot] == EMPTY || startTimes[slot] != startTime) {
+            return -1;
+        }
+        return ioBytes[slot];
+    }
+
+    /**
+     * Indica si el /proc/[pid]/io de un proceso no se pudo leer en este ciclo
+     * @param pid Identificador del proceso
+     * @param startTime Momento de inicio actual; si difiere, el pid fue reutilizado
+     */
+    boolean isIoUnreadable(int pid, long startTime) {
+        int slot = slot(pid);
+        return pids[slot] != EMPTY && startTimes[slot] == startTime && ioBytes[slot] == NO_IO;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Vacía la tabla conservando la capacidad reservada
+     */
+    void clear() {
+        Arrays.fill(pids, EMPTY);
+        size = 0;
+    }
+
+    private int slot(int pid) {
+        int mask = pids.length - 1;
+        int slot = (pid * 0x9E3779B9) >>> 1 & mask;
+        while (pids[slot] != EMPTY && pids[slot] != pid) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldPids = pids;
+        long[] oldTicks = ticks;
+        long[] oldIoBytes = ioBytes;
+        long[] oldStartTimes = startTimes;
+        allocate(oldPids.length * 2);
+        for (int i = 0; i < oldPids.length; i++) {
+            if (oldPids[i] != EMPTY) {
+                put(oldPids[i], oldTicks[i], oldIoBytes[i], oldStartTimes[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        pids = new int[capacity];
+        ticks = new long[capacity];
+        ioBytes = new long[capacity];
+        startTimes = new long[capacity];
+        Arrays.fill(pids, EMPTY);
+        size = 0;
+    }
+
+    private static int capacityFor(int expected) {
+        int capacity = 16;
+        while (capacity < expected * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
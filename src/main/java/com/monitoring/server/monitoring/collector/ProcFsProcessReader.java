@@ -0,0 +1,369 @@
+package com.monitoring.server.monitoring.collector;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.monitoring.server.data.entity.ProcessInfo;
+
+/**
+ * Lector nativo de procesos para Linux basado en /proc.
+ * Lee /proc/[pid]/stat, /proc/[pid]/status y /proc/[pid]/io sobre un buffer de bytes reutilizable
+ * y parsea los campos a mano: sin fork de "ps", sin expresiones regulares y sin
+ * crear un String por línea.
+ * El %CPU se calcula sobre el intervalo entre ciclos (delta de jiffies), no como
+ * promedio de toda la vida del proceso como hace "ps"; el uso de disco (KB/s) se
+ * calcula igual a partir de read_bytes + write_bytes.
+ * No es seguro para uso concurrente; el llamador debe sincronizar.
+ */
+public class ProcFsProcessReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcFsProcessReader.class);
+
+    private static final String PROC = "/proc";
+
+    // USER_HZ del kernel, 100 en todas las arquitecturas habituales
+    private static final double CLOCK_TICKS_PER_SECOND = 100.0;
+
+    // Campos de /proc/[pid]/stat (numerados desde 1, ver proc(5))
+    private static final int STAT_FIELD_STATE = 3;
+    private static final int STAT_FIELD_UTIME = 14;
+    private static final int STAT_FIELD_STARTTIME = 22;
+
+    private static final byte[] UID_KEY = "Uid:".getBytes();
+    private static final byte[] VMRSS_KEY = "VmRSS:".getBytes();
+    private static final byte[] MEMTOTAL_KEY = "MemTotal:".getBytes();
+    private static final byte[] READ_BYTES_KEY = "read_bytes:".getBytes();
+    private static final byte[] WRITE_BYTES_KEY = "write_bytes:".getBytes();
+
+    // Estados del proceso como constantes para no crear Strings por proceso
+    private static final String[] STATES = new String[128];
+    static {
+        for (char c : "RSDZTtWXxKPI".toCharArray()) {
+            STATES[c] = String.valueOf(c);
+        }
+    }
+
+    private final byte[] buffer = new byte[4096];
+    private final StringBuilder path = new StringBuilder(32);
+    private final Map<Integer, String> usernames = new HashMap<>();
+    private boolean passwdLoaded = false;
+
+    // Ticks por pid del ciclo anterior y del ciclo en curso (se intercambian)
+    private PidTickTable previousTicks = new PidTickTable(1024);
+    private PidTickTable currentTicks = new PidTickTable(1024);
+    private double previousUptimeSeconds;
+
+    // Posición de fin del último campo parseado dentro del buffer
+    private int cursor;
+
+    /**
+     * Verifica si /proc está disponible en este sistema
+     */
+    public static boolean isAvailable() {
+        return new File(PROC + "/self/stat").canRead();
+    }
+
+    /**
+     * Lee todos los procesos visibles en /proc
+     * @return Lista de procesos con su información
+     */
+    public List<ProcessInfo> readProcesses() {
+        String[] entries = new File(PROC).list();
+        if (entries == null) {
+            return new ArrayList<>();
+        }
+
+        long memTotalKb = readMemTotalKb();
+        double uptimeSeconds = readUptimeSeconds();
+        double intervalSeconds = previousTicks.isEmpty() ? 0 : uptimeSeconds - previousUptimeSeconds;
+        boolean passwdReloaded = false;
+
+        List<ProcessInfo> processes = new ArrayList<>(entries.length);
+        for (String entry : entries) {
+            int pid = parsePid(entry);
+            if (pid < 0) {
+                continue;
+            }
+
+            // /proc/[pid]/stat
+            int length = read(entry, "/stat");
+            if (length <= 0) {
+                continue; // El proceso terminó mientras lo leíamos
+            }
+            int nameStart = indexOf((byte) '(', 0, length) + 1;
+            int nameEnd = lastIndexOf((byte) ')', length);
+            if (nameStart <= 0 || nameEnd < nameStart) {
+                continue;
+            }
+            String processName = new String(buffer, nameStart, nameEnd - nameStart);
+
+            // Tras ") " viene el campo 3 (estado)
+            cursor = nameEnd + 2;
+            byte stateChar = cursor < length ? buffer[cursor] : (byte) '?';
+            skipFields(STAT_FIELD_STATE, STAT_FIELD_UTIME, length);
+            long utime = parseLong(length);
+            long stime = parseLong(length);
+            skipFields(STAT_FIELD_UTIME + 2, STAT_FIELD_STARTTIME, length);
+            long startTime = parseLong(length);
+
+            // /proc/[pid]/status: propietario y memoria residente
+            length = read(entry, "/status");
+            if (length <= 0) {
+                continue;
+            }
+            int uid = (int) valueAfter(UID_KEY, length, -1);
+            long rssKb = valueAfter(VMRSS_KEY, length, 0);
+
+            String username = usernames.get(uid);
+            if (username == null && !passwdReloaded) {
+                // Usuario nuevo desde la última lectura de /etc/passwd
+                loadPasswd();
+                passwdReloaded = true;
+                username = usernames.get(uid);
+            }
+            if (username == null) {
+                username = uid >= 0 ? Integer.toString(uid) : "N/A";
+                usernames.put(uid, username);
+            }
+
+            // /proc/[pid]/io: solo legible para procesos propios o con privilegios. Si no se
+            // pudo leer, no se vuelve a intentar (ni a lanzar la excepción) mientras viva el proceso
+            long ioBytes = PidTickTable.NO_IO;
+            if (!previousTicks.isIoUnreadable(pid, startTime)) {
+                length = read(entry, "/io");
+                if (length > 0) {
+                    ioBytes = valueAfter(READ_BYTES_KEY, length, 0) + valueAfter(WRITE_BYTES_KEY, length, 0);
+                }
+            }
+
+            long cpuTicks = utime + stime;
+            currentTicks.put(pid, cpuTicks, ioBytes, startTime);
+            double cpuTicksPerSecond = perSecond(previousTicks.previousTicks(pid, startTime), cpuTicks, startTime,
+                    uptimeSeconds, intervalSeconds);
+            double cpuUsage = 100.0 * cpuTicksPerSecond / CLOCK_TICKS_PER_SECOND;
+            double diskKbPerSecond = ioBytes == PidTickTable.NO_IO ? 0 : perSecond(
+                    previousTicks.previousIoBytes(pid, startTime), ioBytes, startTime, uptimeSeconds,
+                    intervalSeconds) / 1024.0;
+            double memoryUsage = memTotalKb > 0 ? 100.0 * rssKb / memTotalKb : 0;
+
+            ProcessInfo process = new ProcessInfo(entry, processName, cpuUsage, memoryUsage);
+            process.setUsername(username);
+            String status = stateChar >= 0 ? STATES[stateChar] : null;
+            process.setStatus(status != null ? status : "?");
+            process.setDiskUsage(diskKbPerSecond);
+            processes.add(process);
+        }
+
+        // El ciclo actual pasa a ser la referencia; los pids que no aparecieron se descartan
+        PidTickTable swap = previousTicks;
+        previousTicks = currentTicks;
+        currentTicks = swap;
+        currentTicks.clear();
+        previousUptimeSeconds = uptimeSeconds;
+
+        return processes;
+    }
+
+    /**
+     * Calcula la tasa por segundo de un contador acumulado durante el último intervalo.
+     * Si el proceso no estaba en el ciclo anterior (nuevo, pid reutilizado o primer
+     * ciclo) se usa el promedio desde su inicio, que para un proceso nacido dentro
+     * del intervalo coincide con el uso real del intervalo.
+     * @param previous Valor del ciclo anterior o -1 si no hay lectura válida
+     */
+    private static double perSecond(long previous, long current, long startTime, double uptimeSeconds,
+            double intervalSeconds) {
+        if (previous >= 0 && intervalSeconds > 0) {
+            return Math.max(0, current - previous) / intervalSeconds;
+        }
+        double elapsedSeconds = uptimeSeconds - startTime / CLOCK_TICKS_PER_SECOND;
+        if (elapsedSeconds <= 0) {
+            return 0;
+        }
+        return current / elapsedSeconds;
+    }
+
+    /**
+     * Lee /proc/[pid]/[file] en el buffer reutilizable
+     * @return Bytes leídos o -1 si no se pudo leer
+     */
+    private int read(String pid, String file) {
+        path.setLength(0);
+        path.append(PROC).append('/').append(pid).append(file);
+        return readFile(path.toString());
+    }
+
+    private int readFile(String filePath) {
+        try (FileInputStream in = new FileInputStream(filePath)) {
+            int total = 0;
+            int n;
+            while (total < buffer.length && (n = in.read(buffer, total, buffer.length - total)) > 0) {
+                total += n;
+            }
+            return total;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private long readMemTotalKb() {
+        int length = readFile(PROC + "/meminfo");
+        return length > 0 ? valueAfter(MEMTOTAL_KEY, length, 0) : 0;
+    }
+
+    private double readUptimeSeconds() {
+        int length = readFile(PROC + "/uptime");
+        if (length <= 0) {
+            return 0;
+        }
+        cursor = 0;
+        long seconds = parseLong(length);
+        long hundredths = 0;
+        if (cursor < length && buffer[cursor] == '.') {
+            cursor++;
+            hundredths = parseLong(length);
+        }
+        return seconds + hundredths / 100.0;
+    }
+
+    /**
+     * Avanza el cursor desde el campo actual hasta el inicio del campo destino
+     */
+    private void skipFields(int current, int target, int length) {
+        while (current < target && cursor < length) {
+            while (cursor < length && buffer[cursor] != ' ') {
+                cursor++;
+            }
+            cursor++;
+            current++;
+        }
+    }
+
+    /**
+     * Parsea un entero desde el cursor y lo deja tras el separador
+     */
+    private long parseLong(int length) {
+        while (cursor < length && (buffer[cursor] == ' ' || buffer[cursor] == '\t')) {
+            cursor++;
+        }
+        boolean negative = cursor < length && buffer[cursor] == '-';
+        if (negative) {
+            cursor++;
+        }
+        long value = 0;
+        while (cursor < length) {
+            byte b = buffer[cursor];
+            if (b < '0' || b > '9') {
+                break;
+            }
+            value = value * 10 + (b - '0');
+            cursor++;
+        }
+        if (cursor < length && buffer[cursor] == ' ') {
+            cursor++;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Busca una línea "clave: valor" y devuelve el primer número tras la clave
+     */
+    private long valueAfter(byte[] key, int length, long defaultValue) {
+        int lineStart = 0;
+        while (lineStart < length) {
+            if (startsWith(key, lineStart, length)) {
+                cursor = lineStart + key.length;
+                return parseLong(length);
+            }
+            int newline = indexOf((byte) '\n', lineStart, length);
+            if (newline < 0) {
+                break;
+            }
+            lineStart = newline + 1;
+        }
+        return defaultValue;
+    }
+
+    private boolean startsWith(byte[] key, int offset, int length) {
+        if (offset + key.length > length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer[offset + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indexOf(byte b, int from, int length) {
+        for (int i = from; i < length; i++) {
+            if (buffer[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int lastIndexOf(byte b, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Convierte el nombre de una entrada de /proc en pid
+     * @return El pid o -1 si la entrada no es un proceso
+     */
+    private static int parsePid(String name) {
+        if (name.isEmpty() || name.length() > 9) {
+            return -1;
+        }
+        int pid = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            pid = pid * 10 + (c - '0');
+        }
+        return pid;
+    }
+
+    /**
+     * Carga la tabla uid -> nombre de usuario desde /etc/passwd
+     */
+    private void loadPasswd() {
+        try (BufferedReader reader = new BufferedReader(new FileReader("/etc/passwd"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(":");
+                if (parts.length > 2) {
+                    try {
+                        usernames.put(Integer.parseInt(parts[2]), parts[0]);
+                    } catch (NumberFormatException e) {
+                        // Ignorar líneas con formato incorrecto
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (!passwdLoaded) {
+                logger.debug("No se pudo leer /etc/passwd: {}", e.getMessage());
+            }
+        }
+        passwdLoaded = true;
+    }
+}
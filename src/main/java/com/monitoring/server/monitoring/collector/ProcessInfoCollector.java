@@ -1,7 +1,9 @@
 package com.monitoring.server.monitoring.collector;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -27,6 +29,10 @@ public class ProcessInfoCollector {
     
     private String osName = System.getProperty("os.name").toLowerCase();
     
+    // Lector directo de /proc; null si el sistema no expone procfs (Windows, macOS)
+    private final ProcFsProcessReader procFsReader = ProcFsProcessReader.isAvailable()
+            ? new ProcFsProcessReader() : null;
+    
     /**
      * Recolecta información de procesos del sistema
      * @return Lista de procesos con su información
@@ -35,6 +41,8 @@ public class ProcessInfoCollector {
         try {
             if (isWindows()) {
                 return collectWindowsProcesses();
+            } else if (procFsReader != null) {
+                return collectProcFsProcesses();
             } else {
                 return collectLinuxProcesses();
             }
@@ -88,7 +96,17 @@ public class ProcessInfoCollector {
     }
     
     /**
-     * Recolecta información de procesos en Linux
+     * Recolecta información de procesos en Linux leyendo /proc directamente
+     */
+    private List<ProcessInfo> collectProcFsProcesses() {
+        // El lector reutiliza sus buffers, así que serializamos las lecturas
+        synchronized (procFsReader) {
+            return procFsReader.readProcesses();
+        }
+    }
+    
+    /**
+     * Recolecta información de procesos en sistemas tipo Unix sin /proc mediante "ps"
      */
     private List<ProcessInfo> collectLinuxProcesses() throws Exception {
         List<ProcessInfo> processes = new ArrayList<>();
@@ -153,13 +171,39 @@ public class ProcessInfoCollector {
      * @return Lista de procesos ordenados por uso de CPU
      */
     public List<ProcessInfo> getHeavyProcesses(int limit) {
-        List<ProcessInfo> allProcesses = collectProcesses();
+        return topProcesses(collectProcesses(), Comparator.comparingDouble(ProcessInfo::getCpuUsage), limit);
+    }
+    
+    /**
+     * Selecciona los K procesos con mayor valor según un criterio usando un heap acotado,
+     * sin ordenar la lista completa (O(n log K))
+     * @param processes Procesos de entrada
+     * @param comparator Criterio en orden ascendente
+     * @param limit Número máximo de procesos a obtener (K)
+     * @return Lista inmodificable ordenada de mayor a menor
+     */
+    public static List<ProcessInfo> topProcesses(List<ProcessInfo> processes, Comparator<ProcessInfo> comparator,
+            int limit) {
+        if (limit <= 0 || processes.isEmpty()) {
+            return List.of();
+        }
         
-        // Ordenar por uso de CPU (descendente) y limitar resultado
-        return allProcesses.stream()
-                .sorted((p1, p2) -> Double.compare(p2.getCpuUsage(), p1.getCpuUsage()))
-                .limit(limit)
-                .toList();
+        // Heap de mínimos: la cabeza es el menor de los K mejores vistos hasta ahora
+        PriorityQueue<ProcessInfo> heap = new PriorityQueue<>(limit + 1, comparator);
+        for (ProcessInfo process : processes) {
+            if (heap.size() < limit) {
+                heap.add(process);
+            } else if (comparator.compare(process, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(process);
+            }
+        }
+        
+        ProcessInfo[] top = new ProcessInfo[heap.size()];
+        for (int i = top.length - 1; i >= 0; i--) {
+            top[i] = heap.poll();
+        }
+        return List.of(top);
     }
     
     // Utilidades
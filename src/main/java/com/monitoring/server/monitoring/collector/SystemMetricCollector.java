@@ -1,21 +1,20 @@
 package com.monitoring.server.monitoring.collector;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.monitoring.server.data.entity.CpuDetailMetric;
 import com.monitoring.server.data.entity.SystemMetric;
 
 import oshi.SystemInfo;
 import oshi.hardware.CentralProcessor;
+import oshi.hardware.CentralProcessor.TickType;
 import oshi.hardware.GlobalMemory;
 import oshi.hardware.HardwareAbstractionLayer;
-import oshi.software.os.FileSystem;
-import oshi.software.os.OSFileStore;
-import oshi.software.os.OperatingSystem;
 
 @Component
 public class SystemMetricCollector {
@@ -24,14 +23,20 @@ public class SystemMetricCollector {
     
     private final SystemInfo systemInfo;
     private final HardwareAbstractionLayer hardware;
-    private final OperatingSystem os;
     private final CentralProcessor processor;
+    private final CpuTickSampler cpuSampler;
+    private final FileSystemCollector fileSystemCollector;
 
-    public SystemMetricCollector() {
+    // Intervalo mínimo entre muestras de CPU; llamadas más frecuentes reutilizan el último valor
+    private static final long CPU_SAMPLE_MIN_INTERVAL_MS = 500;
+
+    @Autowired
+    public SystemMetricCollector(FileSystemCollector fileSystemCollector) {
         systemInfo = new SystemInfo();
         hardware = systemInfo.getHardware();
-        os = systemInfo.getOperatingSystem();
         processor = hardware.getProcessor();
+        cpuSampler = new CpuTickSampler(processor, CPU_SAMPLE_MIN_INTERVAL_MS);
+        this.fileSystemCollector = fileSystemCollector;
     }
 
     public SystemMetric collectMetrics() {
@@ -49,10 +54,39 @@ public class SystemMetricCollector {
         return metric;
     }
 
+    /**
+     * Obtiene el detalle de CPU (uso por núcleo y reparto por categoría de tick)
+     * de la última muestra tomada por {@link #collectMetrics()}
+     * @param timestamp Momento de la muestra, normalmente el de la métrica principal
+     * @return Detalle de CPU listo para guardar
+     */
+    public CpuDetailMetric collectCpuDetail(LocalDateTime timestamp) {
+        double[] ticks = cpuSampler.getTickBreakdown();
+        double[] cores = cpuSampler.getProcessorLoads();
+        
+        CpuDetailMetric detail = new CpuDetailMetric();
+        detail.setTimestamp(timestamp);
+        detail.setUser((float) ticks[TickType.USER.getIndex()]);
+        detail.setNice((float) ticks[TickType.NICE.getIndex()]);
+        detail.setSystem((float) ticks[TickType.SYSTEM.getIndex()]);
+        detail.setIdle((float) ticks[TickType.IDLE.getIndex()]);
+        detail.setIowait((float) ticks[TickType.IOWAIT.getIndex()]);
+        detail.setIrq((float) ticks[TickType.IRQ.getIndex()]);
+        detail.setSoftirq((float) ticks[TickType.SOFTIRQ.getIndex()]);
+        detail.setSteal((float) ticks[TickType.STEAL.getIndex()]);
+        
+        float[] coreLoads = new float[cores.length];
+        for (int i = 0; i < cores.length; i++) {
+            coreLoads[i] = (float) cores[i];
+        }
+        detail.setCoreLoads(coreLoads);
+        return detail;
+    }
+
     private void collectCpuMetrics(SystemMetric metric) {
         try {
-            // Usar la API de sistema operativo de OSHI
-            double cpuLoad = processor.getProcessorCpuLoad(1000)[0] * 100.0;
+            // Uso calculado con el delta de ticks desde la muestra anterior (sin bloquear)
+            double cpuLoad = cpuSampler.sample();
             
             metric.setCpuUsage(Math.max(0, Math.min(100, cpuLoad)));
             metric.setCpuAlert(metric.getCpuUsage() > 80); // Umbral por defecto
@@ -83,25 +117,9 @@ public class SystemMetricCollector {
 
     private void collectDiskMetrics(SystemMetric metric) {
         try {
-            FileSystem fileSystem = os.getFileSystem();
-            List<OSFileStore> fileStores = fileSystem.getFileStores();
-            
-            // Calcular uso total de disco
-            long totalSpace = 0;
-            long usedSpace = 0;
-            
-            for (OSFileStore store : fileStores) {
-                // Verifica el punto de montaje raíz o de sistema para diferentes SO
-                if (store.getMount().equals("/") ||  // Linux
-                    store.getMount().equals("C:\\") || // Windows
-                    store.getMount().startsWith("/System/Volumes/Data")) { // macOS
-                    
-                    totalSpace += store.getTotalSpace();
-                    usedSpace += store.getTotalSpace() - store.getUsableSpace();
-                }
-            }
-            
-            double diskUsage = totalSpace > 0 ? (usedSpace * 100.0 / totalSpace) : 0;
+            // Uso del sistema de archivos raíz desde el inventario en caché (una llamada statvfs);
+            // el resto de montajes se recolecta en FileSystemCollector.collect
+            double diskUsage = fileSystemCollector.getRootUsage();
             
             metric.setDiskUsage(Math.max(0, Math.min(100, diskUsage)));
             metric.setDiskAlert(metric.getDiskUsage() > 80); // Umbral por defecto
@@ -0,0 +1,461 @@
+package com.monitoring.server.monitoring.ingest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.monitoring.server.data.entity.CpuDetailMetric;
+import com.monitoring.server.data.entity.ProcessInfo;
+import com.monitoring.server.data.entity.SystemMetric;
+import com.monitoring.server.data.process.ProcessSnapshotStore;
+import com.monitoring.server.data.repository.CpuDetailMetricRepository;
+import com.monitoring.server.data.window.HotWindow;
+import com.monitoring.server.service.interfaces.MetricService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Etapa de escritura diferida entre los recolectores y la base de datos.
+ * Los recolectores encolan sus muestras en colas circulares acotadas y vuelven
+ * de inmediato; un hilo dedicado las vacía en lotes cuando se alcanza el tamaño
+ * de lote o el intervalo máximo de espera. Si la base de datos está caída, los
+ * lotes se anexan a un spool local en disco ({@link MetricSpool}) y se reenvían
+ * en lotes grandes cuando vuelve a estar disponible, también tras un reinicio.
+ * Métricas, detalle de CPU y procesos se escriben y confirman por separado, y solo
+ * va al spool el tipo que falló.
+ * Si la escritura en sí se atasca, la cola absorbe las muestras nuevas hasta
+ * llenarse, momento en que se aplica la política de desborde.
+ * Las métricas encoladas también se anotan en la {@link HotWindow}, de modo que los
+ * rangos recientes se pueden consultar aunque el lote aún no se haya escrito.
+ */
+@Component
+public class MetricIngestPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricIngestPipeline.class);
+
+    // Intervalo mínimo entre filas de autodiagnóstico del pipeline
+    private static final long SELF_METRIC_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long MAX_RETRY_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    // Tiempo máximo de reenvío del spool por ciclo, para no retrasar las muestras nuevas
+    private static final long REPLAY_BUDGET_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    /**
+     * Qué hacer con una muestra nueva cuando la cola está llena
+     */
+    public enum OverflowPolicy {
+        /** Descarta la muestra nueva */
+        DROP_NEWEST,
+        /** Descarta la muestra más antigua de la cola para hacer sitio */
+        DROP_OLDEST,
+        /** Espera hasta el tiempo límite a que se libere espacio; si no, descarta la nueva */
+        BLOCK
+    }
+
+    private final MetricService metricService;
+    private final CpuDetailMetricRepository cpuDetailRepository;
+    private final ProcessSnapshotStore processSnapshotStore;
+    private final HotWindow hotWindow;
+
+    @Value("${system.ingest.buffer.capacity:8192}")
+    private int bufferCapacity;
+
+    @Value("${system.ingest.batch.size:500}")
+    private int batchSize;
+
+    @Value("${system.ingest.flush.interval:1000}")
+    private long flushIntervalMillis;
+
+    @Value("${system.ingest.overflow.policy:DROP_OLDEST}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${system.ingest.block.timeout:200}")
+    private long blockTimeoutMillis;
+
+    @Value("${system.ingest.spool.dir:./data/spool}")
+    private String spoolDirectory;
+
+    @Value("${system.ingest.spool.segment.size:16777216}")
+    private int spoolSegmentSize;
+
+    @Value("${system.ingest.spool.max.segments:64}")
+    private int spoolMaxSegments;
+
+    @Value("${system.ingest.spool.replay.batch.size:5000}")
+    private int replayBatchSize;
+
+    private RingBuffer<SystemMetric> metricBuffer;
+    private RingBuffer<CpuDetailMetric> cpuDetailBuffer;
+    private RingBuffer<ProcessInfo> processBuffer;
+    private MetricSpool spool;
+
+    private Thread flusher;
+    private volatile boolean running;
+
+    private final AtomicLong droppedCount = new AtomicLong();
+    private volatile double lastFlushLatencyMs;
+    private volatile long lastFlushRows;
+
+    // Estado del hilo de escritura (solo lo usa el propio hilo)
+    private final List<SystemMetric> pendingMetrics = new ArrayList<>();
+    private final List<CpuDetailMetric> pendingCpuDetails = new ArrayList<>();
+    private final List<ProcessInfo> pendingProcesses = new ArrayList<>();
+    private int consecutiveFailures;
+    private long nextReplayNanos;
+    private long lastSelfMetricNanos;
+    private long droppedAtLastReport;
+
+    public MetricIngestPipeline(MetricService metricService, CpuDetailMetricRepository cpuDetailRepository,
+                                ProcessSnapshotStore processSnapshotStore, HotWindow hotWindow) {
+        this.metricService = metricService;
+        this.cpuDetailRepository = cpuDetailRepository;
+        this.processSnapshotStore = processSnapshotStore;
+        this.hotWindow = hotWindow;
+    }
+
+    @PostConstruct
+    public void start() {
+        metricBuffer = new RingBuffer<>(bufferCapacity);
+        cpuDetailBuffer = new RingBuffer<>(Math.max(64, bufferCapacity / 16));
+        processBuffer = new RingBuffer<>(Math.max(256, bufferCapacity / 4));
+        try {
+            spool = new MetricSpool(Path.of(spoolDirectory), spoolSegmentSize, spoolMaxSegments);
+        } catch (IOException e) {
+            logger.error("No se pudo abrir el spool de métricas en {}; sin él se pierden las muestras "
+                    + "mientras la base de datos no esté disponible", spoolDirectory, e);
+        }
+        running = true;
+        flusher = Thread.ofPlatform().name("metric-ingest-flusher").daemon(true).start(this::runFlusher);
+        logger.info("Pipeline de ingesta iniciado: capacidad={}, lote={}, intervalo={} ms, desborde={}",
+                metricBuffer.capacity(), batchSize, flushIntervalMillis, overflowPolicy);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            // El hilo vacía lo que quede antes de terminar
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            logger.warn("El pipeline de ingesta no terminó de vaciarse; quedan {} muestras", getQueueDepth());
+        }
+    }
+
+    /**
+     * Encola una muestra para su escritura diferida
+     * @param metric Métrica a guardar
+     */
+    public void submit(SystemMetric metric) {
+        hotWindow.record(metric);
+        enqueue(metricBuffer, metric);
+    }
+
+    /**
+     * Encola varias muestras para su escritura diferida
+     * @param metrics Métricas a guardar
+     */
+    public void submitAll(List<SystemMetric> metrics) {
+        hotWindow.record(metrics);
+        for (SystemMetric metric : metrics) {
+            enqueue(metricBuffer, metric);
+        }
+    }
+
+    /**
+     * Encola el detalle de CPU de una muestra para su escritura diferida
+     * @param cpuDetail Detalle de CPU a guardar
+     */
+    public void submit(CpuDetailMetric cpuDetail) {
+        enqueue(cpuDetailBuffer, cpuDetail);
+    }
+
+    /**
+     * Encola los procesos de una recolección para su escritura diferida
+     * @param processes Procesos a guardar
+     */
+    public void submitProcesses(List<ProcessInfo> processes) {
+        for (ProcessInfo process : processes) {
+            enqueue(processBuffer, process);
+        }
+    }
+
+    /**
+     * @return Número de muestras en cola pendientes de escribir
+     */
+    public int getQueueDepth() {
+        return metricBuffer.size() + cpuDetailBuffer.size() + processBuffer.size();
+    }
+
+    /**
+     * @return Duración de la última escritura en lote (ms)
+     */
+    public double getLastFlushLatencyMs() {
+        return lastFlushLatencyMs;
+    }
+
+    /**
+     * @return Filas escritas en la última escritura en lote
+     */
+    public long getLastFlushRows() {
+        return lastFlushRows;
+    }
+
+    /**
+     * @return Total de muestras descartadas por desborde desde el arranque
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private <T> void enqueue(RingBuffer<T> buffer, T item) {
+        if (!buffer.offer(item)) {
+            handleOverflow(buffer, item);
+        }
+        if (buffer.size() >= batchSize) {
+            // Lote completo: despertar al hilo de escritura sin esperar al intervalo
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    private <T> void handleOverflow(RingBuffer<T> buffer, T item) {
+        switch (overflowPolicy) {
+            case DROP_NEWEST:
+                droppedCount.incrementAndGet();
+                break;
+            case DROP_OLDEST:
+                // Otro productor puede ocupar el hueco; se reintenta hasta lograrlo
+                while (!buffer.offer(item)) {
+                    if (buffer.poll() != null) {
+                        droppedCount.incrementAndGet();
+                    }
+                }
+                break;
+            case BLOCK:
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+                LockSupport.unpark(flusher);
+                while (!buffer.offer(item)) {
+                    if (System.nanoTime() >= deadline) {
+                        droppedCount.incrementAndGet();
+                        return;
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+                break;
+        }
+        long dropped = droppedCount.get();
+        if (dropped > 0 && (dropped & (dropped - 1)) == 0) {
+            // Se registra en potencias de dos para no inundar el log
+            logger.warn("Cola de ingesta llena: {} muestras descartadas (política {})", dropped, overflowPolicy);
+        }
+    }
+
+    /**
+     * Bucle del hilo de escritura: vacía las colas por tamaño de lote o por tiempo
+     */
+    private void runFlusher() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        long lastFlushNanos = System.nanoTime();
+        lastSelfMetricNanos = lastFlushNanos;
+
+        while (running || getQueueDepth() > 0) {
+            long elapsed = System.nanoTime() - lastFlushNanos;
+            boolean batchReady = metricBuffer.size() >= batchSize;
+            if (running && !batchReady && elapsed < intervalNanos) {
+                LockSupport.parkNanos(this, intervalNanos - elapsed);
+                continue;
+            }
+            flush();
+            lastFlushNanos = System.nanoTime();
+        }
+        if (spool != null) {
+            spool.close();
+        }
+    }
+
+    /**
+     * Escribe un lote. Mientras el spool tenga datos pendientes, los lotes nuevos se
+     * anexan a él para conservar el orden, y se intenta reenviarlo cuando toca.
+     */
+    private void flush() {
+        metricBuffer.drainTo(pendingMetrics, batchSize);
+        addSelfMetrics();
+        cpuDetailBuffer.drainTo(pendingCpuDetails, batchSize);
+        processBuffer.drainTo(pendingProcesses, batchSize);
+
+        boolean hasPending = !pendingMetrics.isEmpty() || !pendingCpuDetails.isEmpty() || !pendingProcesses.isEmpty();
+        try {
+            if (hasPending && spool != null && !spool.isEmpty()) {
+                spoolPending();
+            } else if (hasPending) {
+                long start = System.nanoTime();
+                int rows = pendingMetrics.size() + pendingCpuDetails.size() + pendingProcesses.size();
+                Exception failure = writePending(pendingMetrics, metricService::saveAll);
+                failure = chain(failure, writePending(pendingCpuDetails, cpuDetailRepository::saveAll));
+                failure = chain(failure, writePending(pendingProcesses, processSnapshotStore::append));
+                if (failure == null) {
+                    lastFlushLatencyMs = (System.nanoTime() - start) / 1_000_000.0;
+                    lastFlushRows = rows;
+                } else {
+                    // Solo quedan pendientes los tipos cuya escritura falló
+                    onWriteFailure(failure);
+                    spoolPending();
+                }
+            }
+        } finally {
+            pendingMetrics.clear();
+            pendingCpuDetails.clear();
+            pendingProcesses.clear();
+        }
+
+        if (running && spool != null && !spool.isEmpty() && System.nanoTime() >= nextReplayNanos) {
+            replaySpool();
+        }
+    }
+
+    /**
+     * Escribe los elementos pendientes de un tipo y, si lo logra, vacía la lista
+     * @return La excepción si la escritura falló, o null
+     */
+    private static <T> Exception writePending(List<T> pending, Consumer<List<T>> writer) {
+        if (pending.isEmpty()) {
+            return null;
+        }
+        try {
+            writer.accept(pending);
+            pending.clear();
+            return null;
+        } catch (Exception e) {
+            return e;
+        }
+    }
+
+    private static Exception chain(Exception first, Exception next) {
+        if (first == null) {
+            return next;
+        }
+        if (next != null) {
+            first.addSuppressed(next);
+        }
+        return first;
+    }
+
+    /**
+     * Escribe un lote del spool; cada lote trae registros de un solo tipo
+     */
+    private void write(List<SystemMetric> metrics, List<CpuDetailMetric> cpuDetails, List<ProcessInfo> processes) {
+        if (!metrics.isEmpty()) {
+            metricService.saveAll(metrics);
+        }
+        if (!cpuDetails.isEmpty()) {
+            cpuDetailRepository.saveAll(cpuDetails);
+        }
+        if (!processes.isEmpty()) {
+            processSnapshotStore.append(processes);
+        }
+    }
+
+    /**
+     * Anexa el lote pendiente al spool; sin spool, el lote se descarta
+     */
+    private void spoolPending() {
+        int rows = pendingMetrics.size() + pendingCpuDetails.size() + pendingProcesses.size();
+        if (spool == null) {
+            droppedCount.addAndGet(rows);
+            return;
+        }
+        try {
+            int rejected = spool.append(pendingMetrics, pendingCpuDetails, pendingProcesses);
+            droppedCount.addAndGet(rejected);
+        } catch (IOException e) {
+            droppedCount.addAndGet(rows);
+            logger.error("Error al escribir en el spool de métricas, se descartan {} muestras: {}", rows,
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Reenvía el spool a la base de datos en lotes grandes, dentro de un tiempo máximo por ciclo
+     */
+    private void replaySpool() {
+        long deadline = System.nanoTime() + REPLAY_BUDGET_NANOS;
+        int replayed = 0;
+        try {
+            while (System.nanoTime() < deadline) {
+                MetricSpool.Batch batch = spool.read(replayBatchSize);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                long start = System.nanoTime();
+                write(batch.metrics, batch.cpuDetails, batch.processes);
+                spool.commit(batch);
+                lastFlushLatencyMs = (System.nanoTime() - start) / 1_000_000.0;
+                lastFlushRows = batch.size();
+                replayed += batch.size();
+            }
+            if (consecutiveFailures > 0) {
+                logger.info("Escritura de métricas restablecida tras {} intentos fallidos", consecutiveFailures);
+                consecutiveFailures = 0;
+            }
+            if (spool.isEmpty()) {
+                logger.info("Spool de métricas reenviado por completo ({} muestras en el último ciclo)", replayed);
+            }
+        } catch (Exception e) {
+            onWriteFailure(e);
+        }
+    }
+
+    private void onWriteFailure(Exception e) {
+        consecutiveFailures++;
+        nextReplayNanos = System.nanoTime() + retryBackoffNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis));
+        if (consecutiveFailures == 1) {
+            logger.error("Error al escribir lote de métricas, se guardan en el spool local: {}", e.getMessage());
+        } else {
+            logger.debug("Reintento {} de escritura fallido: {}", consecutiveFailures, e.getMessage());
+        }
+    }
+
+    /**
+     * Añade al lote las métricas del propio pipeline (profundidad de cola,
+     * latencia de escritura, descartes y tamaño del spool) como filas genéricas "INGEST_*"
+     */
+    private void addSelfMetrics() {
+        long now = System.nanoTime();
+        if (now - lastSelfMetricNanos < SELF_METRIC_INTERVAL_NANOS) {
+            return;
+        }
+        lastSelfMetricNanos = now;
+        long dropped = droppedCount.get();
+        LocalDateTime timestamp = LocalDateTime.now();
+        int selfMetricsFrom = pendingMetrics.size();
+        pendingMetrics.add(new SystemMetric("INGEST_QueueDepth", (double) getQueueDepth(), "count", timestamp));
+        pendingMetrics.add(new SystemMetric("INGEST_FlushLatencyMs", lastFlushLatencyMs, "ms", timestamp));
+        pendingMetrics.add(new SystemMetric("INGEST_Dropped", (double) (dropped - droppedAtLastReport), "count",
+                timestamp));
+        if (spool != null) {
+            pendingMetrics.add(new SystemMetric("INGEST_SpoolKB", spool.pendingBytes() / 1024.0, "KB", timestamp));
+        }
+        hotWindow.record(pendingMetrics.subList(selfMetricsFrom, pendingMetrics.size()));
+        droppedAtLastReport = dropped;
+    }
+
+    private long retryBackoffNanos(long intervalNanos) {
+        int exponent = Math.min(consecutiveFailures - 1, 10);
+        return Math.min(intervalNanos << exponent, MAX_RETRY_BACKOFF_NANOS);
+    }
+}
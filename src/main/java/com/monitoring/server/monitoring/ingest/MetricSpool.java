@@ -0,0 +1,491 @@
+package com.monitoring.server.monitoring.ingest;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.monitoring.server.data.entity.CpuDetailMetric;
+import com.monitoring.server.data.entity.ProcessInfo;
+import com.monitoring.server.data.entity.SystemMetric;
+
+/**
+ * Spool local de solo anexado para las muestras que no se pudieron escribir en
+ * la base de datos. Se compone de segmentos de tamaño fijo mapeados en memoria;
+ * solo el segmento de escritura y el de lectura están mapeados a la vez, y el
+ * número de segmentos en disco está acotado (al superarlo se descarta el más
+ * antiguo). Cada segmento guarda en su cabecera hasta dónde se ha reenviado,
+ * de modo que tras un reinicio se continúa sin duplicar lo ya escrito.
+ *
+ * Formato del segmento: cabecera {magic, versión, offset de lectura, reservado}
+ * seguida de registros {longitud, tipo, datos}. La longitud se escribe al final,
+ * así que un registro a medias (longitud 0) marca el fin del segmento.
+ * Cada lote leído contiene registros de un solo tipo, para que cada tipo se escriba
+ * y se confirme por separado: si falla uno, no se repiten los ya escritos.
+ *
+ * No es seguro para hilos: lo usa únicamente el hilo de escritura del pipeline.
+ */
+class MetricSpool {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricSpool.class);
+
+    private static final int MAGIC = 0x4D53504C; // "MSPL"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int READ_OFFSET_POSITION = 8;
+    private static final int RECORD_HEADER_SIZE = 5;
+
+    private static final byte TYPE_METRIC = 1;
+    private static final byte TYPE_CPU_DETAIL = 2;
+    private static final byte TYPE_PROCESS = 3;
+
+    /**
+     * Segmento del spool en disco
+     */
+    private static final class Segment {
+        final Path path;
+        MappedByteBuffer buffer;
+        int writeOffset;
+        int readOffset;
+
+        Segment(Path path) {
+            this.path = path;
+        }
+
+        boolean isConsumed() {
+            return readOffset >= writeOffset;
+        }
+    }
+
+    /**
+     * Registros leídos del spool pendientes de confirmar
+     */
+    static final class Batch {
+        final List<SystemMetric> metrics = new ArrayList<>();
+        final List<CpuDetailMetric> cpuDetails = new ArrayList<>();
+        final List<ProcessInfo> processes = new ArrayList<>();
+        private Segment segment;
+        private int endOffset;
+
+        boolean isEmpty() {
+            return metrics.isEmpty() && cpuDetails.isEmpty() && processes.isEmpty();
+        }
+
+        int size() {
+            return metrics.size() + cpuDetails.size() + processes.size();
+        }
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+
+    // Segmentos en orden de antigüedad
+    private final Deque<Segment> segments = new ArrayDeque<>();
+
+    // Segmento de escritura; los recuperados de una ejecución anterior solo se leen
+    private Segment writer;
+    private long nextSequence;
+
+    // Buffer de serialización reutilizable
+    private final ByteBuffer scratch;
+
+    MetricSpool(Path directory, int segmentSize, int maxSegments) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = Math.max(2, maxSegments);
+        this.scratch = ByteBuffer.allocate(Math.min(segmentSize - HEADER_SIZE, 1024 * 1024));
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /**
+     * @return true si no hay registros pendientes de reenviar
+     */
+    boolean isEmpty() {
+        for (Segment segment : segments) {
+            if (!segment.isConsumed()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Bytes pendientes de reenviar
+     */
+    long pendingBytes() {
+        long pending = 0;
+        for (Segment segment : segments) {
+            pending += Math.max(0, segment.writeOffset - segment.readOffset);
+        }
+        return pending;
+    }
+
+    /**
+     * Anexa muestras al spool y fuerza su escritura a disco
+     * @return número de registros que no cupieron en un registro (demasiado grandes)
+     */
+    int append(List<SystemMetric> metrics, List<CpuDetailMetric> cpuDetails, List<ProcessInfo> processes)
+            throws IOException {
+        int rejected = 0;
+        for (SystemMetric metric : metrics) {
+            rejected += appendRecord(TYPE_METRIC, metric);
+        }
+        for (CpuDetailMetric cpuDetail : cpuDetails) {
+            rejected += appendRecord(TYPE_CPU_DETAIL, cpuDetail);
+        }
+        for (ProcessInfo process : processes) {
+            rejected += appendRecord(TYPE_PROCESS, process);
+        }
+        if (writer != null) {
+            writer.buffer.force();
+        }
+        return rejected;
+    }
+
+    /**
+     * Lee hasta {@code maxRecords} registros consecutivos del mismo tipo del segmento más
+     * antiguo con datos pendientes. Los registros no se consideran reenviados hasta llamar
+     * a {@link #commit(Batch)}.
+     */
+    Batch read(int maxRecords) throws IOException {
+        Batch batch = new Batch();
+        Segment segment = oldestPending();
+        if (segment == null) {
+            return batch;
+        }
+        map(segment);
+        ByteBuffer view = segment.buffer.duplicate();
+        int offset = segment.readOffset;
+        byte batchType = view.get(offset + 4);
+        while (offset < segment.writeOffset && batch.size() < maxRecords) {
+            int length = view.getInt(offset);
+            byte type = view.get(offset + 4);
+            if (type != batchType) {
+                break;
+            }
+            view.limit(offset + RECORD_HEADER_SIZE + length).position(offset + RECORD_HEADER_SIZE);
+            decode(type, view, batch);
+            view.limit(view.capacity());
+            offset += RECORD_HEADER_SIZE + length;
+        }
+        batch.segment = segment;
+        batch.endOffset = offset;
+        return batch;
+    }
+
+    /**
+     * Confirma que un lote leído ya se escribió en la base de datos.
+     * Los segmentos consumidos por completo se eliminan.
+     */
+    void commit(Batch batch) throws IOException {
+        Segment segment = batch.segment;
+        if (segment == null) {
+            return;
+        }
+        segment.readOffset = batch.endOffset;
+        segment.buffer.putInt(READ_OFFSET_POSITION, segment.readOffset);
+        segment.buffer.force();
+        if (segment.isConsumed() && segment != writer) {
+            segments.remove(segment);
+            delete(segment);
+        }
+    }
+
+    /**
+     * Fuerza a disco el segmento de escritura
+     */
+    void close() {
+        if (writer != null) {
+            writer.buffer.force();
+        }
+    }
+
+    private int appendRecord(byte type, Object entity) throws IOException {
+        scratch.clear();
+        try {
+            encode(type, entity, scratch);
+        } catch (BufferOverflowException e) {
+            return 1;
+        }
+        scratch.flip();
+        int length = scratch.remaining();
+
+        if (writer == null || writer.writeOffset + RECORD_HEADER_SIZE + length > segmentSize) {
+            writer = rollSegment();
+        }
+        MappedByteBuffer buffer = writer.buffer;
+        int offset = writer.writeOffset;
+        buffer.put(offset + 4, type);
+        buffer.put(offset + RECORD_HEADER_SIZE, scratch, 0, length);
+        // La longitud se publica al final: un registro sin longitud se ignora al recuperar
+        buffer.putInt(offset, length);
+        writer.writeOffset = offset + RECORD_HEADER_SIZE + length;
+        return 0;
+    }
+
+    /**
+     * Abre un segmento de escritura nuevo, descartando el más antiguo si se alcanza el límite
+     */
+    private Segment rollSegment() throws IOException {
+        Segment previous = writer;
+        if (previous != null) {
+            previous.buffer.force();
+            if (previous.isConsumed()) {
+                segments.remove(previous);
+                delete(previous);
+            } else if (previous != oldestPending()) {
+                // Solo se mantiene mapeado el segmento que se está leyendo
+                previous.buffer = null;
+            }
+        }
+        while (segments.size() >= maxSegments) {
+            Segment oldest = segments.removeFirst();
+            logger.warn("Spool de métricas lleno: se descarta el segmento {} con {} bytes sin reenviar",
+                    oldest.path.getFileName(), oldest.writeOffset - oldest.readOffset);
+            delete(oldest);
+        }
+
+        Segment segment = new Segment(directory.resolve(String.format("spool-%016d.seg", nextSequence)));
+        nextSequence++;
+        try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        segment.buffer.putInt(0, MAGIC);
+        segment.buffer.putInt(4, VERSION);
+        segment.buffer.putInt(READ_OFFSET_POSITION, HEADER_SIZE);
+        segment.readOffset = HEADER_SIZE;
+        segment.writeOffset = HEADER_SIZE;
+        segments.addLast(segment);
+        writer = segment;
+        return segment;
+    }
+
+    /**
+     * Recupera los segmentos de una ejecución anterior. Se localiza el final de cada
+     * uno recorriendo sus registros hasta encontrar una longitud 0.
+     */
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(path -> path.getFileName().toString().matches("spool-\\d{16}\\.seg"))
+                    .sorted()
+                    .toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long sequence = Long.parseLong(name.substring(6, 22));
+            nextSequence = Math.max(nextSequence, sequence + 1);
+
+            Segment segment = new Segment(file);
+            map(segment);
+            MappedByteBuffer buffer = segment.buffer;
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                logger.warn("Segmento de spool no válido, se descarta: {}", name);
+                segment.buffer = null;
+                Files.deleteIfExists(file);
+                continue;
+            }
+            int offset = HEADER_SIZE;
+            while (offset + RECORD_HEADER_SIZE <= buffer.capacity()) {
+                int length = buffer.getInt(offset);
+                if (length <= 0 || offset + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+                    break;
+                }
+                offset += RECORD_HEADER_SIZE + length;
+            }
+            segment.writeOffset = offset;
+            segment.readOffset = Math.min(Math.max(HEADER_SIZE, buffer.getInt(READ_OFFSET_POSITION)), offset);
+            segment.buffer = null;
+            if (segment.isConsumed()) {
+                Files.deleteIfExists(file);
+            } else {
+                segments.addLast(segment);
+            }
+        }
+        if (!segments.isEmpty()) {
+            logger.info("Spool de métricas recuperado: {} segmentos, {} bytes pendientes de reenviar",
+                    segments.size(), pendingBytes());
+        }
+    }
+
+    private Segment oldestPending() {
+        for (Segment segment : segments) {
+            if (!segment.isConsumed()) {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    private void map(Segment segment) throws IOException {
+        if (segment.buffer != null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+    }
+
+    private void delete(Segment segment) {
+        segment.buffer = null;
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            logger.warn("No se pudo eliminar el segmento de spool {}: {}", segment.path, e.getMessage());
+        }
+    }
+
+    private static void encode(byte type, Object entity, ByteBuffer out) {
+        switch (type) {
+            case TYPE_METRIC: {
+                SystemMetric metric = (SystemMetric) entity;
+                putTimestamp(out, metric.getTimestamp());
+                putString(out, metric.getMetricName());
+                out.put((byte) (metric.getValue() != null ? 1 : 0));
+                out.putDouble(metric.getValue() != null ? metric.getValue() : 0);
+                putString(out, metric.getUnit());
+                out.putDouble(metric.getCpuUsage());
+                out.putDouble(metric.getMemoryUsage());
+                out.putDouble(metric.getDiskUsage());
+                out.put((byte) ((metric.isCpuAlert() ? 1 : 0) | (metric.isMemoryAlert() ? 2 : 0)
+                        | (metric.isDiskAlert() ? 4 : 0)));
+                break;
+            }
+            case TYPE_CPU_DETAIL: {
+                CpuDetailMetric detail = (CpuDetailMetric) entity;
+                putTimestamp(out, detail.getTimestamp());
+                out.putFloat(detail.getUser());
+                out.putFloat(detail.getNice());
+                out.putFloat(detail.getSystem());
+                out.putFloat(detail.getIdle());
+                out.putFloat(detail.getIowait());
+                out.putFloat(detail.getIrq());
+                out.putFloat(detail.getSoftirq());
+                out.putFloat(detail.getSteal());
+                float[] cores = detail.getCoreLoads() != null ? detail.getCoreLoads() : new float[0];
+                out.putInt(cores.length);
+                for (float core : cores) {
+                    out.putFloat(core);
+                }
+                break;
+            }
+            default: {
+                ProcessInfo process = (ProcessInfo) entity;
+                putTimestamp(out, process.getTimestamp());
+                putString(out, process.getProcessId());
+                putString(out, process.getProcessName());
+                putString(out, process.getUsername());
+                putString(out, process.getStatus());
+                out.putDouble(process.getCpuUsage());
+                out.putDouble(process.getMemoryUsage());
+                out.putDouble(process.getDiskUsage());
+            }
+        }
+    }
+
+    private static void decode(byte type, ByteBuffer in, Batch batch) {
+        switch (type) {
+            case TYPE_METRIC: {
+                SystemMetric metric = new SystemMetric();
+                metric.setTimestamp(getTimestamp(in));
+                metric.setMetricName(getString(in));
+                boolean hasValue = in.get() != 0;
+                double value = in.getDouble();
+                metric.setValue(hasValue ? value : null);
+                metric.setUnit(getString(in));
+                metric.setCpuUsage(in.getDouble());
+                metric.setMemoryUsage(in.getDouble());
+                metric.setDiskUsage(in.getDouble());
+                byte alerts = in.get();
+                metric.setCpuAlert((alerts & 1) != 0);
+                metric.setMemoryAlert((alerts & 2) != 0);
+                metric.setDiskAlert((alerts & 4) != 0);
+                batch.metrics.add(metric);
+                break;
+            }
+            case TYPE_CPU_DETAIL: {
+                CpuDetailMetric detail = new CpuDetailMetric();
+                detail.setTimestamp(getTimestamp(in));
+                detail.setUser(in.getFloat());
+                detail.setNice(in.getFloat());
+                detail.setSystem(in.getFloat());
+                detail.setIdle(in.getFloat());
+                detail.setIowait(in.getFloat());
+                detail.setIrq(in.getFloat());
+                detail.setSoftirq(in.getFloat());
+                detail.setSteal(in.getFloat());
+                float[] cores = new float[in.getInt()];
+                for (int i = 0; i < cores.length; i++) {
+                    cores[i] = in.getFloat();
+                }
+                detail.setCoreLoads(cores);
+                batch.cpuDetails.add(detail);
+                break;
+            }
+            case TYPE_PROCESS: {
+                ProcessInfo process = new ProcessInfo();
+                process.setTimestamp(getTimestamp(in));
+                process.setProcessId(getString(in));
+                process.setProcessName(getString(in));
+                process.setUsername(getString(in));
+                process.setStatus(getString(in));
+                process.setCpuUsage(in.getDouble());
+                process.setMemoryUsage(in.getDouble());
+                process.setDiskUsage(in.getDouble());
+                batch.processes.add(process);
+                break;
+            }
+            default:
+                logger.warn("Tipo de registro de spool desconocido: {}", type);
+        }
+    }
+
+    private static void putTimestamp(ByteBuffer out, LocalDateTime timestamp) {
+        LocalDateTime value = timestamp != null ? timestamp : LocalDateTime.now();
+        out.putLong(value.toEpochSecond(ZoneOffset.UTC));
+        out.putInt(value.getNano());
+    }
+
+    private static LocalDateTime getTimestamp(ByteBuffer in) {
+        long seconds = in.getLong();
+        return LocalDateTime.ofEpochSecond(seconds, in.getInt(), ZoneOffset.UTC);
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
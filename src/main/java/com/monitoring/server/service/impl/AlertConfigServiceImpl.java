@@ -38,19 +38,11 @@ public class AlertConfigServiceImpl implements AlertConfigService {
     
     @Override
     public AlertConfiguration getCurrentConfig() {
-        List<AlertConfiguration> activeConfigs = alertConfigRepository.findAll().stream()
-            .filter(AlertConfiguration::isActive)
-            .collect(Collectors.toList());
-        
-        if (activeConfigs.isEmpty()) {
-            // Si no hay configuraciones activas, crear una por defecto
-            return createDefaultConfig();
-        }
-        
         // Ya no desactivamos múltiples configuraciones activas
         // Simplemente devolvemos la primera para mantener compatibilidad con el código existente
-        
-        return activeConfigs.get(0);
+        // Si no hay configuraciones activas, se crea una por defecto
+        return alertConfigRepository.findFirstByIsActiveTrueOrderByIdAsc()
+                .orElseGet(this::createDefaultConfig);
     }
     
     /**
@@ -3,6 +3,7 @@ package com.monitoring.server.service.impl;
 import com.monitoring.server.data.entity.Database;
 import com.monitoring.server.data.repository.DatabaseRepository;
 import com.monitoring.server.service.interfaces.DatabaseService;
+import com.monitoring.server.util.DatabaseConnectionPools;
 import com.monitoring.server.util.DatabaseConnectionTester;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,11 +24,14 @@ public class DatabaseServiceImpl implements DatabaseService {
     
     private final DatabaseRepository databaseRepository;
     private final DatabaseConnectionTester connectionTester;
+    private final DatabaseConnectionPools connectionPools;
     
     //@Autowired
-    public DatabaseServiceImpl(DatabaseRepository databaseRepository, DatabaseConnectionTester connectionTester) {
+    public DatabaseServiceImpl(DatabaseRepository databaseRepository, DatabaseConnectionTester connectionTester,
+                               DatabaseConnectionPools connectionPools) {
         this.databaseRepository = databaseRepository;
         this.connectionTester = connectionTester;
+        this.connectionPools = connectionPools;
     }
 
     @Override
@@ -52,6 +56,7 @@ public class DatabaseServiceImpl implements DatabaseService {
     public void deleteById(Long id) {
         log.info("Eliminando base de datos con ID: {}", id);
         databaseRepository.deleteById(id);
+        connectionPools.evict(id);
     }
 
     @Override
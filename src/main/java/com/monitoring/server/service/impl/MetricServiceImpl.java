@@ -1,18 +1,22 @@
 package com.monitoring.server.service.impl;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.monitoring.server.data.entity.SystemMetric;
-import com.monitoring.server.data.repository.MetricRepository;
+import com.monitoring.server.data.rollup.MetricRollups;
+import com.monitoring.server.data.store.Aggregation;
+import com.monitoring.server.data.store.MetricBuckets;
+import com.monitoring.server.data.store.MetricStore;
+import com.monitoring.server.data.window.HotWindow;
 import com.monitoring.server.monitoring.collector.SystemMetricCollector;
 import com.monitoring.server.service.interfaces.MetricService;
 
@@ -24,41 +28,89 @@ public class MetricServiceImpl implements MetricService {
 
     private static final Logger logger = LoggerFactory.getLogger(MetricServiceImpl.class);
     
+    // Ventana usada para las últimas métricas y las alertas recientes
+    private static final int LATEST_METRICS_LIMIT = 20;
+    private static final int ALERTS_WINDOW_HOURS = 24;
+    
+    @Autowired
+    private MetricStore metricStore;
+    
+    @Autowired
+    private MetricRollups metricRollups;
+    
     @Autowired
-    private MetricRepository metricRepository;
+    private HotWindow hotWindow;
     
     @Autowired
     private SystemMetricCollector systemMetricCollector;
     
+    // Las consultas sin rango (findAll, findByMetricName) no van más allá de la retención
+    @Value("${system.retention.metrics.days:30}")
+    private int retentionDays;
+    
     @Override
     public SystemMetric save(SystemMetric metric) {
-        return metricRepository.save(metric);
+        List<SystemMetric> batch = List.of(metric);
+        metricStore.append(batch);
+        metricRollups.record(batch);
+        return metric;
     }
     
     @Override
-    public SystemMetric findById(Long id) {
-        return metricRepository.findById(id).orElse(null);
+    public List<SystemMetric> saveAll(List<SystemMetric> metrics) {
+        if (metrics.isEmpty()) {
+            return metrics;
+        }
+        long start = System.nanoTime();
+        metricStore.append(metrics);
+        metricRollups.record(metrics);
+        if (logger.isDebugEnabled()) {
+            double elapsedMs = (System.nanoTime() - start) / 1_000_000.0;
+            logger.debug("Guardadas {} métricas en {} ms ({} filas/s)", metrics.size(),
+                    String.format("%.1f", elapsedMs), Math.round(metrics.size() / Math.max(elapsedMs, 0.001) * 1000));
+        }
+        return metrics;
     }
     
     @Override
+    @Deprecated
     public List<SystemMetric> findAll() {
-        return metricRepository.findAll();
+        LocalDateTime now = LocalDateTime.now();
+        return metricStore.findByTimestampBetween(now.minusDays(retentionDays), now);
     }
     
     @Override
+    @Deprecated
     public List<SystemMetric> findByMetricName(String metricName) {
-        return metricRepository.findByMetricName(metricName);
+        LocalDateTime now = LocalDateTime.now();
+        return findByMetricName(metricName, now.minusDays(retentionDays), now);
+    }
+    
+    @Override
+    public List<SystemMetric> findByMetricName(String metricName, LocalDateTime start, LocalDateTime end) {
+        return hotWindow.findByMetricName(metricName, start, end)
+                .orElseGet(() -> metricStore.findByMetricName(metricName, start, end));
     }
     
     @Override
     public List<SystemMetric> findByTimestampBetween(LocalDateTime start, LocalDateTime end) {
-        return metricRepository.findByTimestampBetween(start, end);
+        return metricStore.findByTimestampBetween(start, end);
+    }
+    
+    @Override
+    public List<SystemMetric> findSystemMetrics(LocalDateTime start, LocalDateTime end) {
+        return hotWindow.findSystemMetrics(start, end).orElseGet(() -> metricStore.findSystemMetrics(start, end));
+    }
+    
+    @Override
+    public MetricBuckets aggregate(String metricName, LocalDateTime start, LocalDateTime end, Duration step,
+            Aggregation aggregation) {
+        return metricStore.aggregate(metricName, start, end, step, aggregation);
     }
     
     @Override
-    @Transactional
     public int deleteOlderThan(LocalDateTime date) {
-        return metricRepository.deleteByTimestampBefore(date);
+        return metricStore.deleteOlderThan(date);
     }
     
     @Override
@@ -68,8 +120,13 @@ public class MetricServiceImpl implements MetricService {
     
     @Override
     public List<SystemMetric> getLatestMetrics() {
-        PageRequest pageRequest = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "timestamp"));
-        return metricRepository.findAll(pageRequest).getContent();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = now.minusHours(1);
+        return hotWindow.findByTimestampBetween(start, now)
+                .orElseGet(() -> metricStore.findByTimestampBetween(start, now)).stream()
+                .sorted(Comparator.comparing(SystemMetric::getTimestamp).reversed())
+                .limit(LATEST_METRICS_LIMIT)
+                .toList();
     }
     
     @Override
@@ -95,11 +152,14 @@ public class MetricServiceImpl implements MetricService {
                 break;
         }
         
-        return metricRepository.findByTimestampBetween(startTime, endTime);
+        return metricRollups.findHistory(startTime, endTime);
     }
     
     @Override
     public List<SystemMetric> getMetricsWithAlerts() {
-        return metricRepository.findByCpuAlertTrueOrMemoryAlertTrueOrDiskAlertTrue();
+        LocalDateTime now = LocalDateTime.now();
+        return metricStore.findSystemMetrics(now.minusHours(ALERTS_WINDOW_HOURS), now).stream()
+                .filter(m -> m.isCpuAlert() || m.isMemoryAlert() || m.isDiskAlert())
+                .toList();
     }
 }
\ No newline at end of file
@@ -1,27 +1,35 @@
 package com.monitoring.server.service.impl;
 
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.monitoring.server.data.checkpoint.WarmState;
 import com.monitoring.server.data.entity.ProcessInfo;
+import com.monitoring.server.data.process.ProcessSnapshotStore;
+import com.monitoring.server.data.projection.ProcessSample;
 import com.monitoring.server.data.repository.ProcessInfoRepository;
 import com.monitoring.server.monitoring.collector.ProcessInfoCollector;
+import com.monitoring.server.monitoring.ingest.MetricIngestPipeline;
 import com.monitoring.server.service.interfaces.ProcessInfoService;
+import com.monitoring.server.util.EpochMillis;
 
 /**
  * Implementación del servicio para obtener información de procesos del sistema
  */
 @Service
-public class ProcessInfoServiceImpl implements ProcessInfoService {
+public class ProcessInfoServiceImpl implements ProcessInfoService, WarmState {
 
     private static final Logger logger = LoggerFactory.getLogger(ProcessInfoServiceImpl.class);
     
@@ -31,8 +39,45 @@ public class ProcessInfoServiceImpl implements ProcessInfoService {
     @Autowired
     private ProcessInfoRepository processInfoRepository;
     
-    // Almacenamiento en memoria para acceso rápido
-    private List<ProcessInfo> latestProcessInfo = new ArrayList<>();
+    @Autowired
+    private ProcessSnapshotStore processSnapshotStore;
+    
+    @Autowired
+    private MetricIngestPipeline ingestPipeline;
+    
+    // Tamaño de los rankings precalculados en cada ciclo
+    private static final int TOP_K = 50;
+    
+    // Número de procesos más pesados que se guardan en base de datos por ciclo
+    private static final int PERSISTED_PROCESSES = 10;
+    
+    private static final Comparator<ProcessInfo> BY_CPU = Comparator.comparingDouble(ProcessInfo::getCpuUsage);
+    private static final Comparator<ProcessInfo> BY_MEMORY = Comparator.comparingDouble(ProcessInfo::getMemoryUsage);
+    private static final Comparator<ProcessInfo> BY_DISK = Comparator.comparingDouble(ProcessInfo::getDiskUsage);
+    
+    // Almacenamiento en memoria para acceso rápido; se reemplaza completo en cada ciclo
+    private volatile ProcessSnapshot latestSnapshot = ProcessSnapshot.EMPTY;
+    
+    /**
+     * Resultado inmutable de un ciclo de recolección con los rankings ya calculados,
+     * de modo que las lecturas de los dashboards no ordenan ni copian nada.
+     */
+    private static final class ProcessSnapshot {
+        
+        static final ProcessSnapshot EMPTY = new ProcessSnapshot(List.of());
+        
+        final List<ProcessInfo> processes;
+        final List<ProcessInfo> topByCpu;
+        final List<ProcessInfo> topByMemory;
+        final List<ProcessInfo> topByDisk;
+        
+        ProcessSnapshot(List<ProcessInfo> processes) {
+            this.processes = processes;
+            this.topByCpu = ProcessInfoCollector.topProcesses(processes, BY_CPU, TOP_K);
+            this.topByMemory = ProcessInfoCollector.topProcesses(processes, BY_MEMORY, TOP_K);
+            this.topByDisk = ProcessInfoCollector.topProcesses(processes, BY_DISK, TOP_K);
+        }
+    }
     
     /**
      * Tarea programada para recolectar información de procesos
@@ -42,16 +87,20 @@ public class ProcessInfoServiceImpl implements ProcessInfoService {
         try {
             List<ProcessInfo> processes = processInfoCollector.collectProcesses();
             
-            // Actualizar lista en memoria
-            this.latestProcessInfo = processes;
+            // Un único timestamp por ciclo: los procesos se guardan como una instantánea
+            LocalDateTime timestamp = LocalDateTime.now();
+            for (ProcessInfo process : processes) {
+                process.setTimestamp(timestamp);
+            }
+            
+            // Calcular los rankings una sola vez y publicarlos
+            ProcessSnapshot snapshot = new ProcessSnapshot(List.copyOf(processes));
+            this.latestSnapshot = snapshot;
             
             // Guardar en base de datos solo los más pesados para no sobrecargar
-            List<ProcessInfo> heavyProcesses = processes.stream()
-                    .sorted(Comparator.comparingDouble(ProcessInfo::getCpuUsage).reversed())
-                    .limit(10)
-                    .collect(Collectors.toList());
+            List<ProcessInfo> heavyProcesses = limit(snapshot.topByCpu, PERSISTED_PROCESSES);
             
-            processInfoRepository.saveAll(heavyProcesses);
+            ingestPipeline.submitProcesses(heavyProcesses);
             
             logger.debug("Procesos recolectados: {}", heavyProcesses.size());
         } catch (Exception e) {
@@ -62,41 +111,111 @@ public class ProcessInfoServiceImpl implements ProcessInfoService {
     @Override
     public List<ProcessInfo> getHeavyProcesses(int limit, String sortBy) {
         // Si no hay datos en memoria, intentar recolectarlos
-        if (latestProcessInfo.isEmpty()) {
+        if (latestSnapshot.processes.isEmpty()) {
             collectProcessInfo();
         }
         
-        // Ordenar según el criterio solicitado
+        ProcessSnapshot snapshot = latestSnapshot;
+        
+        // Seleccionar el ranking precalculado según el criterio solicitado
+        List<ProcessInfo> ranking;
         Comparator<ProcessInfo> comparator;
         switch (sortBy.toLowerCase()) {
             case "memoria":
-                comparator = Comparator.comparingDouble(ProcessInfo::getMemoryUsage).reversed();
+                ranking = snapshot.topByMemory;
+                comparator = BY_MEMORY;
                 break;
             case "disco":
-                comparator = Comparator.comparingDouble(ProcessInfo::getDiskUsage).reversed();
+                ranking = snapshot.topByDisk;
+                comparator = BY_DISK;
                 break;
             case "cpu":
             default:
-                comparator = Comparator.comparingDouble(ProcessInfo::getCpuUsage).reversed();
+                ranking = snapshot.topByCpu;
+                comparator = BY_CPU;
                 break;
         }
         
-        return latestProcessInfo.stream()
-                .sorted(comparator)
-                .limit(limit)
-                .collect(Collectors.toList());
+        if (limit > TOP_K) {
+            // Fuera del ranking precalculado: seleccionar sobre la lista completa
+            return ProcessInfoCollector.topProcesses(snapshot.processes, comparator, limit);
+        }
+        return limit(ranking, limit);
+    }
+    
+    private static List<ProcessInfo> limit(List<ProcessInfo> ranking, int limit) {
+        return ranking.size() <= limit ? ranking : ranking.subList(0, Math.max(0, limit));
     }
     
     @Override
+    @Transactional(readOnly = true)
     public List<ProcessInfo> getProcessHistory(LocalDateTime startTime, LocalDateTime endTime) {
-        return processInfoRepository.findByTimestampBetween(startTime, endTime);
+        // Las filas de process_info son anteriores a las instantáneas: van primero
+        List<ProcessInfo> history;
+        try (Stream<ProcessSample> samples = processInfoRepository.streamByTimestampBetween(startTime, endTime)) {
+            history = samples.map(ProcessSample::toProcessInfo).collect(Collectors.toCollection(ArrayList::new));
+        }
+        processSnapshotStore.forEach(startTime, endTime, history::add);
+        return history;
     }
     
     @Override
     public ProcessInfo getProcessDetail(String processId) {
-        return latestProcessInfo.stream()
+        return latestSnapshot.processes.stream()
                 .filter(p -> p.getProcessId().equals(processId))
                 .findFirst()
                 .orElse(null);
     }
-}
\ No newline at end of file
+    
+    @Override
+    public String getStateName() {
+        return "processes";
+    }
+    
+    /**
+     * Procesos de la última instantánea; los rankings se recalculan al restaurar
+     */
+    @Override
+    public ByteBuffer saveState() {
+        List<ProcessInfo> processes = latestSnapshot.processes;
+        int size = 4;
+        for (ProcessInfo process : processes) {
+            size += WarmState.stringSize(process.getProcessId()) + WarmState.stringSize(process.getProcessName())
+                    + WarmState.stringSize(process.getUsername()) + WarmState.stringSize(process.getStatus()) + 8 * 4;
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(processes.size());
+        for (ProcessInfo process : processes) {
+            WarmState.putString(out, process.getProcessId());
+            WarmState.putString(out, process.getProcessName());
+            WarmState.putString(out, process.getUsername());
+            WarmState.putString(out, process.getStatus());
+            out.putDouble(process.getCpuUsage());
+            out.putDouble(process.getMemoryUsage());
+            out.putDouble(process.getDiskUsage());
+            out.putLong(EpochMillis.toMillis(process.getTimestamp()));
+        }
+        return out.flip();
+    }
+    
+    @Override
+    public void restoreState(ByteBuffer state) {
+        int count = state.getInt();
+        List<ProcessInfo> processes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ProcessInfo process = new ProcessInfo();
+            process.setProcessId(WarmState.getString(state));
+            process.setProcessName(WarmState.getString(state));
+            process.setUsername(WarmState.getString(state));
+            process.setStatus(WarmState.getString(state));
+            process.setCpuUsage(state.getDouble());
+            process.setMemoryUsage(state.getDouble());
+            process.setDiskUsage(state.getDouble());
+            process.setTimestamp(EpochMillis.toLocalDateTime(state.getLong()));
+            processes.add(process);
+        }
+        if (latestSnapshot.processes.isEmpty()) {
+            latestSnapshot = new ProcessSnapshot(List.copyOf(processes));
+        }
+    }
+}
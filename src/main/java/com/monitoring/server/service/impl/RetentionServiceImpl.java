@@ -0,0 +1,264 @@
+package com.monitoring.server.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.monitoring.server.data.entity.SystemMetric;
+import com.monitoring.server.data.partition.TablePartitionManager;
+import com.monitoring.server.data.partition.TablePartitionManager.DropResult;
+import com.monitoring.server.data.process.ProcessSnapshotStore;
+import com.monitoring.server.data.repository.CpuDetailMetricRepository;
+import com.monitoring.server.data.repository.ProcessInfoRepository;
+import com.monitoring.server.data.rollup.MetricRollups;
+import com.monitoring.server.data.store.MetricStore;
+import com.monitoring.server.monitoring.ingest.MetricIngestPipeline;
+import com.monitoring.server.service.interfaces.RetentionService;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Implementación del servicio de retención. Se ejecuta fuera de horas punta
+ * ({@code system.retention.cron}) y elimina en lotes acotados, cada uno en su
+ * propia transacción y con una pausa entre lotes, para no bloquear las
+ * inserciones del pipeline ni las consultas de los dashboards. La limpieza
+ * programada corre en un hilo propio: sus pausas pueden sumar minutos y el
+ * planificador de Spring, de un solo hilo, retrasaría mientras a los recolectores.
+ */
+@Service
+public class RetentionServiceImpl implements RetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetentionServiceImpl.class);
+    
+    /**
+     * Elimina un lote de filas anteriores a una fecha
+     */
+    @FunctionalInterface
+    private interface ChunkDelete {
+        int delete(LocalDateTime cutoff, int limit);
+    }
+    
+    @Autowired
+    private MetricStore metricStore;
+    
+    @Autowired
+    private MetricRollups metricRollups;
+    
+    @Autowired
+    private CpuDetailMetricRepository cpuDetailRepository;
+    
+    @Autowired
+    private ProcessInfoRepository processInfoRepository;
+    
+    @Autowired
+    private ProcessSnapshotStore processSnapshotStore;
+    
+    @Autowired
+    private MetricIngestPipeline ingestPipeline;
+    
+    @Autowired
+    private TablePartitionManager partitionManager;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Value("${system.retention.enabled:true}")
+    private boolean enabled;
+    
+    // Días que se conservan por tabla; 0 desactiva la limpieza de esa tabla
+    @Value("${system.retention.metrics.days:30}")
+    private int metricsDays;
+    
+    @Value("${system.retention.cpu-detail.days:7}")
+    private int cpuDetailDays;
+    
+    @Value("${system.retention.processes.days:7}")
+    private int processesDays;
+    
+    @Value("${system.retention.chunk.size:5000}")
+    private int chunkSize;
+    
+    @Value("${system.retention.chunk.pause:200}")
+    private long chunkPauseMillis;
+    
+    @Value("${system.retention.max.duration:600000}")
+    private long maxDurationMillis;
+    
+    private volatile RetentionReport lastReport;
+    
+    private final ExecutorService purgeExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("retention-purge").daemon(true).factory());
+    private final AtomicBoolean purgeRunning = new AtomicBoolean();
+    
+    /**
+     * Tarea programada de limpieza, por defecto a diario a las 03:30. Solo la lanza en
+     * el hilo de limpieza y vuelve de inmediato.
+     */
+    @Scheduled(cron = "${system.retention.cron:0 30 3 * * *}")
+    public void scheduledPurge() {
+        if (!enabled) {
+            return;
+        }
+        if (!purgeRunning.compareAndSet(false, true)) {
+            logger.warn("La limpieza anterior sigue en curso; se omite esta ejecución");
+            return;
+        }
+        purgeExecutor.execute(() -> {
+            try {
+                purgeExpired();
+            } catch (Exception e) {
+                logger.error("Error en la limpieza de datos históricos: {}", e.getMessage(), e);
+            } finally {
+                purgeRunning.set(false);
+            }
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        // Interrumpe la pausa entre lotes; el lote en curso termina en su transacción
+        purgeExecutor.shutdownNow();
+    }
+    
+    @Override
+    public synchronized RetentionReport purgeExpired() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        long deadline = start + maxDurationMillis * 1_000_000L;
+        List<TableReport> tables = new ArrayList<>();
+        
+        if (metricsDays > 0) {
+            long sizeBefore = metricStore.diskUsageBytes();
+            // Con el almacén jpa las series genéricas están en series_samples
+            TableReport report = purge("system_metrics", List.of("system_metrics", "series_samples"),
+                    startedAt.minusDays(metricsDays), metricStore::deleteOlderThan, deadline);
+            if (sizeBefore >= 0) {
+                // El almacén de archivos libera días completos: se mide el tamaño real
+                report = new TableReport("metric_store", report.rowsDeleted(),
+                        sizeBefore - metricStore.diskUsageBytes(), report.complete());
+            }
+            tables.add(report);
+        }
+        if (cpuDetailDays > 0) {
+            tables.add(purge("cpu_detail_metrics", startedAt.minusDays(cpuDetailDays),
+                    cpuDetailRepository::deleteChunkBefore, deadline));
+        }
+        if (processesDays > 0) {
+            // Las instantáneas posteriores al límite se decodifican desde el fotograma clave anterior
+            LocalDateTime keyframe = processSnapshotStore.findKeyframeAtOrBefore(startedAt.minusDays(processesDays));
+            if (keyframe != null) {
+                tables.add(purge("process_snapshots", keyframe, processSnapshotStore::deleteChunkBefore, deadline));
+            }
+            // Historial anterior a las instantáneas
+            tables.add(purge("process_info", startedAt.minusDays(processesDays),
+                    processInfoRepository::deleteChunkBefore, deadline));
+        }
+        tables.add(new TableReport("rollups", metricRollups.trim(startedAt), 0, true));
+        
+        RetentionReport report = new RetentionReport(startedAt, (System.nanoTime() - start) / 1_000_000, tables);
+        lastReport = report;
+        publish(report);
+        return report;
+    }
+    
+    @Override
+    public RetentionReport getLastReport() {
+        return lastReport;
+    }
+    
+    /**
+     * Elimina las particiones completamente expiradas y después, por lotes, las filas
+     * restantes hasta que no quedan o se alcanza el tiempo máximo
+     */
+    private TableReport purge(String table, LocalDateTime cutoff, ChunkDelete delete, long deadline) {
+        return purge(table, List.of(table), cutoff, delete, deadline);
+    }
+    
+    /**
+     * Como {@link #purge(String, LocalDateTime, ChunkDelete, long)}, para un borrado que
+     * abarca varias tablas particionadas
+     */
+    private TableReport purge(String table, List<String> partitionedTables, LocalDateTime cutoff,
+            ChunkDelete delete, long deadline) {
+        DropResult dropped = null;
+        for (String partitioned : partitionedTables) {
+            DropResult result = partitionManager.dropPartitionsBefore(partitioned, cutoff);
+            if (result != null) {
+                dropped = dropped == null ? result
+                        : new DropResult(dropped.rows() + result.rows(), dropped.bytes() + result.bytes());
+            }
+        }
+        long bytesPerRow = estimateRowBytes(table);
+        long rows = 0;
+        boolean complete = false;
+        while (System.nanoTime() < deadline) {
+            int deleted = delete.delete(cutoff, chunkSize);
+            rows += deleted;
+            if (deleted < chunkSize) {
+                complete = true;
+                break;
+            }
+            try {
+                Thread.sleep(chunkPauseMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!complete) {
+            logger.warn("Limpieza de {} interrumpida por tiempo máximo; se continuará en la próxima ejecución", table);
+        }
+        if (dropped != null) {
+            return new TableReport(table, dropped.rows() + rows, dropped.bytes() + rows * bytesPerRow, complete);
+        }
+        return new TableReport(table, rows, rows * bytesPerRow, complete);
+    }
+    
+    /**
+     * Tamaño medio por fila (tabla, índices y TOAST) según las estadísticas de PostgreSQL.
+     * PostgreSQL reutiliza el espacio tras el autovacuum, así que los bytes liberados son una estimación.
+     */
+    private long estimateRowBytes(String table) {
+        try {
+            // pg_partition_tree incluye la propia tabla y, si está particionada, todas sus particiones
+            Long bytes = jdbcTemplate.queryForObject(
+                    "SELECT CAST(SUM(pg_total_relation_size(t.relid)) / GREATEST(SUM(GREATEST(c.reltuples, 0)), 1) "
+                            + "AS bigint) FROM pg_partition_tree(CAST(? AS regclass)) t "
+                            + "JOIN pg_class c ON c.oid = t.relid", Long.class, table);
+            return bytes != null ? bytes : 0;
+        } catch (Exception e) {
+            logger.debug("No se pudo estimar el tamaño por fila de {}: {}", table, e.getMessage());
+            return 0;
+        }
+    }
+    
+    private void publish(RetentionReport report) {
+        List<SystemMetric> metrics = new ArrayList<>();
+        LocalDateTime timestamp = LocalDateTime.now();
+        long totalRows = 0;
+        long totalBytes = 0;
+        for (TableReport table : report.tables()) {
+            logger.info("Retención {}: {} filas eliminadas, {} KB liberados{}", table.name(), table.rowsDeleted(),
+                    table.bytesReclaimed() / 1024, table.complete() ? "" : " (incompleto)");
+            metrics.add(new SystemMetric("RETENTION_" + table.name() + "_Rows", (double) table.rowsDeleted(),
+                    "count", timestamp));
+            totalRows += table.rowsDeleted();
+            totalBytes += table.bytesReclaimed();
+        }
+        metrics.add(new SystemMetric("RETENTION_KBReclaimed", totalBytes / 1024.0, "KB", timestamp));
+        ingestPipeline.submitAll(metrics);
+        logger.info("Limpieza completada en {} ms: {} filas, {} KB", report.durationMs(), totalRows,
+                totalBytes / 1024);
+    }
+}
@@ -1,28 +1,43 @@
 package com.monitoring.server.service.impl;
 
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.monitoring.server.data.checkpoint.WarmState;
 import com.monitoring.server.data.entity.AlertConfiguration;
+import com.monitoring.server.data.entity.CpuDetailMetric;
 import com.monitoring.server.data.entity.SystemMetric;
-import com.monitoring.server.data.repository.MetricRepository;
+import com.monitoring.server.data.projection.CpuDetailSample;
+import com.monitoring.server.data.repository.CpuDetailMetricRepository;
+import com.monitoring.server.monitoring.collector.DiskIoCollector;
+import com.monitoring.server.monitoring.collector.FileSystemCollector;
+import com.monitoring.server.monitoring.collector.NetworkCollector;
 import com.monitoring.server.monitoring.collector.SystemMetricCollector;
+import com.monitoring.server.monitoring.ingest.MetricIngestPipeline;
 import com.monitoring.server.service.interfaces.AlertConfigService;
+import com.monitoring.server.service.interfaces.MetricService;
 import com.monitoring.server.service.interfaces.SystemMonitorService;
+import com.monitoring.server.util.EpochMillis;
 
 /**
  * Implementación del servicio de monitoreo del sistema
  */
 @Service
-public class SystemMonitorServiceImpl implements SystemMonitorService {
+public class SystemMonitorServiceImpl implements SystemMonitorService, WarmState {
 
     private static final Logger logger = LoggerFactory.getLogger(SystemMonitorServiceImpl.class);
     
@@ -30,11 +45,32 @@ public class SystemMonitorServiceImpl implements SystemMonitorService {
     private SystemMetricCollector metricCollector;
     
     @Autowired
-    private MetricRepository metricRepository;
+    private DiskIoCollector diskIoCollector;
+    
+    @Autowired
+    private NetworkCollector networkCollector;
+    
+    @Autowired
+    private FileSystemCollector fileSystemCollector;
+    
+    @Autowired
+    private MetricService metricService;
+    
+    @Autowired
+    private CpuDetailMetricRepository cpuDetailRepository;
+    
+    @Autowired
+    private MetricIngestPipeline ingestPipeline;
     
     @Autowired
     private AlertConfigService alertConfigService;
     
+    @Value("${system.metric.collection.interval:10000}")
+    private long collectionIntervalMs;
+    
+    @Value("${system.metric.history.max-points:1000}")
+    private int historyMaxPoints;
+    
     // Almacenamiento en memoria para acceso rápido a los datos actuales
     private SystemMetric currentMetrics;
     
@@ -58,8 +94,24 @@ public class SystemMonitorServiceImpl implements SystemMonitorService {
             // Actualizar métricas actuales
             this.currentMetrics = metrics;
             
-            // Guardar en la base de datos
-            metricRepository.save(metrics);
+            // Detalle de CPU de la misma muestra (una fila con todos los núcleos)
+            CpuDetailMetric cpuDetail = metricCollector.collectCpuDetail(metrics.getTimestamp());
+            ingestPipeline.submit(cpuDetail);
+            
+            List<SystemMetric> samples = new ArrayList<>();
+            samples.add(metrics);
+            
+            // Rendimiento de E/S por dispositivo (lectura, escritura, espera, utilización)
+            samples.addAll(diskIoCollector.collect(metrics.getTimestamp()));
+            
+            // Rendimiento por interfaz y estado de las conexiones TCP
+            samples.addAll(networkCollector.collect(metrics.getTimestamp()));
+            
+            // Uso de espacio e inodos de cada punto de montaje
+            samples.addAll(fileSystemCollector.collect(metrics.getTimestamp()));
+            
+            // Encolar todas las filas del ciclo; el pipeline las escribe en lote
+            ingestPipeline.submitAll(samples);
             
             logger.debug("Métricas recolectadas: CPU={}%, MEM={}%, Disk={}%", 
                     metrics.getCpuUsage(), metrics.getMemoryUsage(), metrics.getDiskUsage());
@@ -142,6 +194,63 @@ public class SystemMonitorServiceImpl implements SystemMonitorService {
         logger.warn("ALERTA: Uso de disco alto: {}% (umbral: {}%)", currentValue, threshold);
     }
     
+    @Override
+    public String getStateName() {
+        return "system-monitor";
+    }
+    
+    /**
+     * Última muestra del sistema y último envío de cada alerta (-1 si no hay)
+     */
+    @Override
+    public ByteBuffer saveState() {
+        SystemMetric metrics = currentMetrics;
+        ByteBuffer out = ByteBuffer.allocate(1 + 8 * 4 + 1 + 8 * 3);
+        out.put((byte) (metrics != null ? 1 : 0));
+        if (metrics != null) {
+            out.putLong(toMillis(metrics.getTimestamp()));
+            out.putDouble(metrics.getCpuUsage());
+            out.putDouble(metrics.getMemoryUsage());
+            out.putDouble(metrics.getDiskUsage());
+            out.put((byte) ((metrics.isCpuAlert() ? 1 : 0) | (metrics.isMemoryAlert() ? 2 : 0)
+                    | (metrics.isDiskAlert() ? 4 : 0)));
+        }
+        out.putLong(toMillis(lastCpuAlertTime));
+        out.putLong(toMillis(lastMemoryAlertTime));
+        out.putLong(toMillis(lastDiskAlertTime));
+        return out.flip();
+    }
+    
+    @Override
+    public void restoreState(ByteBuffer state) {
+        if (state.get() != 0) {
+            SystemMetric metrics = new SystemMetric();
+            metrics.setTimestamp(toLocalDateTime(state.getLong()));
+            metrics.setCpuUsage(state.getDouble());
+            metrics.setMemoryUsage(state.getDouble());
+            metrics.setDiskUsage(state.getDouble());
+            byte alerts = state.get();
+            metrics.setCpuAlert((alerts & 1) != 0);
+            metrics.setMemoryAlert((alerts & 2) != 0);
+            metrics.setDiskAlert((alerts & 4) != 0);
+            if (currentMetrics == null) {
+                currentMetrics = metrics;
+            }
+        }
+        // Conservar los tiempos de espera evita repetir alertas ya enviadas antes del reinicio
+        lastCpuAlertTime = toLocalDateTime(state.getLong());
+        lastMemoryAlertTime = toLocalDateTime(state.getLong());
+        lastDiskAlertTime = toLocalDateTime(state.getLong());
+    }
+    
+    private static long toMillis(LocalDateTime time) {
+        return time != null ? EpochMillis.toMillis(time) : -1;
+    }
+    
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return millis >= 0 ? EpochMillis.toLocalDateTime(millis) : null;
+    }
+    
     @Override
     public SystemMetric getCurrentMetrics() {
         if (currentMetrics == null) {
@@ -153,9 +262,37 @@ public class SystemMonitorServiceImpl implements SystemMonitorService {
     
     @Override
     public List<SystemMetric> getMetricsHistory(String period) {
-        LocalDateTime startTime;
+        return metricService.getMetricsHistory(period);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<CpuDetailMetric> getCpuDetailHistory(String period) {
         LocalDateTime endTime = LocalDateTime.now();
-        
+        LocalDateTime startTime = periodStart(period, endTime);
+        // Se recorre el rango con un cursor y se conserva una de cada "stride" muestras
+        // (y siempre la última), para no superar el número máximo de puntos del historial
+        long expected = ChronoUnit.MILLIS.between(startTime, endTime) / Math.max(collectionIntervalMs, 1);
+        long stride = Math.max(1, (expected + historyMaxPoints - 1) / historyMaxPoints);
+        List<CpuDetailMetric> history = new ArrayList<>();
+        try (Stream<CpuDetailSample> samples = cpuDetailRepository.streamByTimestampBetween(startTime, endTime)) {
+            Iterator<CpuDetailSample> iterator = samples.iterator();
+            long index = 0;
+            while (iterator.hasNext()) {
+                CpuDetailSample sample = iterator.next();
+                if (index++ % stride == 0 || !iterator.hasNext()) {
+                    history.add(sample.toCpuDetailMetric());
+                }
+            }
+        }
+        return history;
+    }
+    
+    /**
+     * Calcula el inicio del rango para un período ("1h", "24h", "7d", "1m")
+     */
+    private LocalDateTime periodStart(String period, LocalDateTime endTime) {
+        LocalDateTime startTime;
         switch (period.toLowerCase()) {
             case "1h":
                 startTime = endTime.minusHours(1);
@@ -173,14 +310,13 @@ public class SystemMonitorServiceImpl implements SystemMonitorService {
                 startTime = endTime.minusHours(1);
                 break;
         }
-        
-        return metricRepository.findByTimestampBetween(startTime, endTime);
+        return startTime;
     }
     
     @Override
     public List<SystemMetric> getMetricsWithAlerts() {
-        LocalDateTime startTime = LocalDateTime.now().minusDays(1);
-        List<SystemMetric> recentMetrics = metricRepository.findByTimestampAfter(startTime);
+        LocalDateTime endTime = LocalDateTime.now();
+        List<SystemMetric> recentMetrics = metricService.findSystemMetrics(endTime.minusDays(1), endTime);
         
         return recentMetrics.stream()
                 .filter(m -> m.isCpuAlert() || m.isMemoryAlert() || m.isDiskAlert())
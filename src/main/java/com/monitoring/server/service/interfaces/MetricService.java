@@ -1,9 +1,12 @@
 package com.monitoring.server.service.interfaces;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import com.monitoring.server.data.entity.SystemMetric;
+import com.monitoring.server.data.store.Aggregation;
+import com.monitoring.server.data.store.MetricBuckets;
 
 /**
  * Interfaz para el servicio de gestión de métricas del sistema
@@ -18,25 +21,39 @@ public interface MetricService {
     SystemMetric save(SystemMetric metric);
     
     /**
-     * Busca una métrica por su ID
-     * @param id ID de la métrica
-     * @return Métrica encontrada o null si no existe
+     * Guarda varias métricas en una sola transacción usando inserciones en lote
+     * @param metrics Métricas a guardar
+     * @return Métricas guardadas
      */
-    SystemMetric findById(Long id);
+    List<SystemMetric> saveAll(List<SystemMetric> metrics);
     
     /**
-     * Obtiene todas las métricas almacenadas
+     * Obtiene todas las métricas conservadas ({@code system.retention.metrics.days})
      * @return Lista de métricas
+     * @deprecated Decodifica todo el periodo de retención; use {@link #findByTimestampBetween}
      */
+    @Deprecated
     List<SystemMetric> findAll();
     
     /**
-     * Busca métricas por nombre
+     * Busca métricas por nombre dentro del periodo de retención
      * @param metricName Nombre de la métrica
      * @return Lista de métricas con ese nombre
+     * @deprecated Decodifica todo el periodo de retención; use
+     *             {@link #findByMetricName(String, LocalDateTime, LocalDateTime)}
      */
+    @Deprecated
     List<SystemMetric> findByMetricName(String metricName);
     
+    /**
+     * Busca métricas por nombre en un rango de tiempo
+     * @param metricName Nombre de la métrica
+     * @param start Fecha de inicio
+     * @param end Fecha de fin
+     * @return Lista de métricas con ese nombre ordenadas por timestamp
+     */
+    List<SystemMetric> findByMetricName(String metricName, LocalDateTime start, LocalDateTime end);
+    
     /**
      * Busca métricas en un rango de tiempo
      * @param start Fecha de inicio
@@ -45,6 +62,27 @@ public interface MetricService {
      */
     List<SystemMetric> findByTimestampBetween(LocalDateTime start, LocalDateTime end);
     
+    /**
+     * Obtiene solo las filas resumen del sistema (CPU, memoria, disco y alertas) de un rango
+     * @param start Fecha de inicio
+     * @param end Fecha de fin
+     * @return Lista de métricas ordenadas por timestamp
+     */
+    List<SystemMetric> findSystemMetrics(LocalDateTime start, LocalDateTime end);
+    
+    /**
+     * Agrega una métrica en intervalos fijos sin cargar las filas individuales,
+     * por ejemplo la media de CPU cada 5 minutos o el máximo por hora de una métrica
+     * @param metricName Nombre de la métrica, o MetricStore.SYSTEM_CPU / SYSTEM_MEMORY / SYSTEM_DISK
+     * @param start Fecha de inicio
+     * @param end Fecha de fin
+     * @param step Tamaño del intervalo
+     * @param aggregation Función de agregación
+     * @return Inicio de cada intervalo (epoch en milisegundos) y su valor
+     */
+    MetricBuckets aggregate(String metricName, LocalDateTime start, LocalDateTime end, Duration step,
+            Aggregation aggregation);
+    
     /**
      * Elimina todas las métricas anteriores a una fecha
      * @param date Fecha límite
@@ -65,7 +103,8 @@ public interface MetricService {
     List<SystemMetric> getLatestMetrics();
     
     /**
-     * Obtiene el historial de métricas para un período determinado
+     * Obtiene el historial de métricas para un período determinado. Si el período
+     * supera el número máximo de puntos se devuelven agregados precalculados
      * @param period Período de tiempo ("1h", "24h", "7d", "1m")
      * @return Lista de métricas del período
      */
@@ -0,0 +1,41 @@
+package com.monitoring.server.service.interfaces;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Interfaz para el servicio de retención de datos históricos
+ */
+public interface RetentionService {
+    
+    /**
+     * Resultado de la limpieza de una tabla o almacén
+     * @param name Nombre de la tabla, almacén o nivel de agregación
+     * @param rowsDeleted Filas eliminadas
+     * @param bytesReclaimed Bytes liberados (estimados en las tablas de la base de datos)
+     * @param complete false si se agotó el tiempo máximo y quedan filas pendientes
+     */
+    record TableReport(String name, long rowsDeleted, long bytesReclaimed, boolean complete) {
+    }
+    
+    /**
+     * Resultado de una ejecución completa
+     * @param startedAt Inicio de la ejecución
+     * @param durationMs Duración en milisegundos
+     * @param tables Resultado por tabla
+     */
+    record RetentionReport(LocalDateTime startedAt, long durationMs, List<TableReport> tables) {
+    }
+    
+    /**
+     * Elimina los datos que superan la retención configurada de cada tabla
+     * @return Resultado de la ejecución
+     */
+    RetentionReport purgeExpired();
+    
+    /**
+     * Obtiene el resultado de la última ejecución
+     * @return Resultado o null si aún no se ha ejecutado
+     */
+    RetentionReport getLastReport();
+}
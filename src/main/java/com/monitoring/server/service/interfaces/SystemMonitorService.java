@@ -2,6 +2,7 @@ package com.monitoring.server.service.interfaces;
 
 import java.util.List;
 
+import com.monitoring.server.data.entity.CpuDetailMetric;
 import com.monitoring.server.data.entity.SystemMetric;
 
 /**
@@ -27,4 +28,11 @@ public interface SystemMonitorService {
      * @return Lista de métricas con alertas
      */
     List<SystemMetric> getMetricsWithAlerts();
+    
+    /**
+     * Obtiene el historial de detalle de CPU (por núcleo y por categoría de tick)
+     * @param period Período de tiempo ("1h", "24h", "7d", "1m")
+     * @return Lista de muestras del período ordenadas por tiempo
+     */
+    List<CpuDetailMetric> getCpuDetailHistory(String period);
 }
\ No newline at end of file
@@ -0,0 +1,152 @@
+package com.monitoring.server.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.monitoring.server.data.entity.Database;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Registro de pools de conexiones pequeños, uno por base de datos monitoreada.
+ * Evita abrir y cerrar una conexión nueva (con su handshake TLS y autenticación)
+ * en cada prueba o recolección. El pool se reconstruye cuando cambian el host,
+ * el puerto, el tipo o las credenciales de la base de datos, y se cierra si no
+ * se usa durante un tiempo.
+ */
+@Component
+public class DatabaseConnectionPools {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseConnectionPools.class);
+
+    // Tiempo sin uso tras el cual se cierra el pool completo de una base de datos
+    private static final long UNUSED_POOL_NANOS = TimeUnit.MINUTES.toNanos(30);
+
+    /**
+     * Pool de una base de datos junto con los datos con que se construyó
+     */
+    private static final class TargetPool {
+        final String url;
+        final String username;
+        final String password;
+        final HikariDataSource dataSource;
+        volatile long lastUsedNanos = System.nanoTime();
+
+        TargetPool(String url, String username, String password, HikariDataSource dataSource) {
+            this.url = url;
+            this.username = username;
+            this.password = password;
+            this.dataSource = dataSource;
+        }
+
+        boolean matches(String url, String username, String password) {
+            return this.url.equals(url) && Objects.equals(this.username, username)
+                    && Objects.equals(this.password, password);
+        }
+    }
+
+    private final Map<Long, TargetPool> pools = new ConcurrentHashMap<>();
+
+    @Value("${system.database.pool.size:2}")
+    private int poolSize;
+
+    // Las conexiones inactivas más tiempo que esto se cierran (mayor que el ciclo de recolección)
+    @Value("${system.database.pool.idle-timeout:600000}")
+    private long idleTimeoutMillis;
+
+    @Value("${system.database.query.timeout:5}")
+    private int connectionTimeoutSeconds;
+
+    /**
+     * Obtiene una conexión del pool de la base de datos. Debe cerrarse para devolverla al pool.
+     * @param database objeto Database con la información de conexión (debe estar guardado)
+     * @return conexión validada
+     * @throws SQLException si no se pudo obtener la conexión
+     */
+    public Connection getConnection(Database database) throws SQLException {
+        if (database.getId() == null) {
+            throw new IllegalArgumentException("La base de datos debe estar guardada para usar un pool");
+        }
+        evictUnused();
+
+        String url = DatabaseConnectionTester.buildConnectionUrl(database);
+        TargetPool pool = pools.compute(database.getId(), (id, existing) -> {
+            if (existing != null && existing.matches(url, database.getUsername(), database.getPassword())) {
+                return existing;
+            }
+            if (existing != null) {
+                log.info("Datos de conexión modificados para {}, reconstruyendo pool", database.getName());
+                existing.dataSource.close();
+            }
+            return new TargetPool(url, database.getUsername(), database.getPassword(),
+                    createDataSource(database, url));
+        });
+        pool.lastUsedNanos = System.nanoTime();
+        return pool.dataSource.getConnection();
+    }
+
+    /**
+     * Cierra y descarta el pool de una base de datos (por ejemplo, al eliminarla)
+     * @param databaseId ID de la base de datos
+     */
+    public void evict(Long databaseId) {
+        if (databaseId == null) {
+            return;
+        }
+        TargetPool pool = pools.remove(databaseId);
+        if (pool != null) {
+            pool.dataSource.close();
+        }
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        pools.values().forEach(pool -> pool.dataSource.close());
+        pools.clear();
+    }
+
+    /**
+     * Cierra los pools de bases de datos que no se usan hace tiempo
+     * (eliminadas, con monitoreo deshabilitado o probadas una sola vez)
+     */
+    private void evictUnused() {
+        long now = System.nanoTime();
+        pools.entrySet().removeIf(entry -> {
+            if (now - entry.getValue().lastUsedNanos < UNUSED_POOL_NANOS) {
+                return false;
+            }
+            entry.getValue().dataSource.close();
+            return true;
+        });
+    }
+
+    private HikariDataSource createDataSource(Database database, String url) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("monitored-db-" + database.getId());
+        config.setDriverClassName(DatabaseConnectionTester.getDriverClass(database.getType()));
+        config.setJdbcUrl(url);
+        config.setUsername(database.getUsername());
+        config.setPassword(database.getPassword());
+        config.setMaximumPoolSize(poolSize);
+        // Sin conexiones mínimas: las inactivas se cierran tras idleTimeout
+        config.setMinimumIdle(0);
+        config.setIdleTimeout(idleTimeoutMillis);
+        config.setMaxLifetime(Math.max(idleTimeoutMillis * 3, TimeUnit.MINUTES.toMillis(30)));
+        config.setConnectionTimeout(TimeUnit.SECONDS.toMillis(connectionTimeoutSeconds));
+        config.setValidationTimeout(TimeUnit.SECONDS.toMillis(Math.min(connectionTimeoutSeconds, 5)));
+        // No fallar al crear el pool si la base de datos está caída; el error llega al pedir conexión
+        config.setInitializationFailTimeout(-1);
+        return new HikariDataSource(config);
+    }
+}
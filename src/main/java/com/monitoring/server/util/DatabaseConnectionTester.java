@@ -15,6 +15,8 @@ import com.monitoring.server.data.entity.Database;
 /**
  * Utilidad para probar conexiones a bases de datos.
  * Permite verificar si una base de datos está accesible.
+ * Las bases de datos ya guardadas se prueban con una conexión de su pool
+ * ({@link DatabaseConnectionPools}); las no guardadas, con una conexión directa.
  */
 @Component
 public class DatabaseConnectionTester {
@@ -29,16 +31,27 @@ public class DatabaseConnectionTester {
         DRIVER_MAP.put("mysql", "com.mysql.cj.jdbc.Driver");
         DRIVER_MAP.put("postgresql", "org.postgresql.Driver");
         DRIVER_MAP.put("sql server", "com.microsoft.sqlserver.jdbc.SQLServerDriver");
+        DRIVER_MAP.put("sqlserver", "com.microsoft.sqlserver.jdbc.SQLServerDriver");
         DRIVER_MAP.put("oracle", "oracle.jdbc.OracleDriver");
         DRIVER_MAP.put("mongodb", "mongodb.jdbc.MongoDriver");
     }
 
+    private final DatabaseConnectionPools connectionPools;
+
+    public DatabaseConnectionTester(DatabaseConnectionPools connectionPools) {
+        this.connectionPools = connectionPools;
+    }
+
     /**
      * Prueba la conexión a una base de datos.
      * @param database objeto Database con la información de conexión
      * @return true si la conexión es exitosa, false si falla
      */
     public boolean testConnection(Database database) {
+        if (database.getId() != null) {
+            return testPooledConnection(database);
+        }
+        
         Connection connection = null;
         
         try {
@@ -76,12 +89,30 @@ public class DatabaseConnectionTester {
         }
     }
 
+    /**
+     * Prueba la conexión reutilizando el pool de la base de datos.
+     * @param database objeto Database guardado
+     * @return true si la conexión es válida, false si falla
+     */
+    private boolean testPooledConnection(Database database) {
+        try (Connection connection = connectionPools.getConnection(database)) {
+            return connection.isValid(CONNECTION_TIMEOUT);
+        } catch (SQLException e) {
+            log.error("Error al conectar a base de datos {}: {}", database.getName(), e.getMessage());
+            return false;
+        } catch (RuntimeException e) {
+            // Tipo no soportado, driver ausente (HikariConfig.setDriverClassName) o error al crear el pool
+            log.error("No se pudo crear el pool para la base de datos {}: {}", database.getName(), e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * Construye la URL de conexión según el tipo de base de datos.
      * @param database objeto Database con la información de conexión
      * @return URL de conexión JDBC
      */
-    private String buildConnectionUrl(Database database) {
+    static String buildConnectionUrl(Database database) {
         String dbType = database.getType().toLowerCase();
         String host = database.getHost();
         int port = database.getPort();
@@ -108,7 +139,7 @@ public class DatabaseConnectionTester {
      * @param dbType tipo de base de datos
      * @return nombre de la clase del driver
      */
-    private String getDriverClass(String dbType) {
+    static String getDriverClass(String dbType) {
         String driverClass = DRIVER_MAP.get(dbType.toLowerCase());
         
         if (driverClass == null) {
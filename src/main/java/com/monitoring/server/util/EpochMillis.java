@@ -0,0 +1,23 @@
+package com.monitoring.server.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Conversión entre fechas y epoch en milisegundos. Las fechas de las métricas no
+ * llevan zona y se interpretan como UTC, igual que extract(epoch) en PostgreSQL.
+ */
+public final class EpochMillis {
+
+    private EpochMillis() {
+    }
+
+    public static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000), Math.floorMod(millis, 1000) * 1_000_000,
+                ZoneOffset.UTC);
+    }
+}
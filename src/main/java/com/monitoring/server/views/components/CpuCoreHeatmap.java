@@ -0,0 +1,83 @@
+package com.monitoring.server.views.components;
+
+import java.util.List;
+
+import com.monitoring.server.data.entity.CpuDetailMetric;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.Span;
+
+/**
+ * Mapa de calor del uso por núcleo: una fila por CPU lógica y una columna por muestra.
+ * Incluye el reparto de la última muestra por categoría (user, system, iowait, steal).
+ */
+public class CpuCoreHeatmap extends Div {
+    
+    // Número máximo de columnas; si hay más muestras se toman a intervalos regulares
+    private static final int MAX_COLUMNS = 60;
+    
+    private final Div grid;
+    private final Span breakdownLabel;
+    
+    /**
+     * Constructor para crear el mapa de calor por núcleo
+     */
+    public CpuCoreHeatmap() {
+        addClassName("cpu-core-heatmap");
+        setWidthFull();
+        
+        grid = new Div();
+        grid.addClassName("cpu-core-heatmap-grid");
+        
+        breakdownLabel = new Span("Reparto de CPU: N/A");
+        breakdownLabel.addClassName("cpu-core-heatmap-breakdown");
+        
+        add(new Span("Uso por núcleo"), grid, breakdownLabel);
+    }
+    
+    /**
+     * Actualiza el mapa de calor con nuevos datos
+     * @param samples Muestras de detalle de CPU ordenadas por tiempo
+     */
+    public void updateHeatmap(List<CpuDetailMetric> samples) {
+        grid.removeAll();
+        if (samples == null || samples.isEmpty()) {
+            breakdownLabel.setText("Reparto de CPU: N/A");
+            return;
+        }
+        
+        CpuDetailMetric latest = samples.get(samples.size() - 1);
+        int cores = latest.getCoreLoads() != null ? latest.getCoreLoads().length : 0;
+        int columns = Math.min(MAX_COLUMNS, samples.size());
+        grid.getStyle().set("grid-template-columns", "repeat(" + columns + ", 1fr)");
+        
+        for (int core = 0; core < cores; core++) {
+            for (int column = 0; column < columns; column++) {
+                // Reparto uniforme de columnas sobre las muestras disponibles
+                int index = columns == 1 ? samples.size() - 1
+                        : (int) ((long) column * (samples.size() - 1) / (columns - 1));
+                float[] loads = samples.get(index).getCoreLoads();
+                grid.add(createCell(core, loads != null && core < loads.length ? loads[core] : -1));
+            }
+        }
+        
+        breakdownLabel.setText(String.format("user %.1f%% · system %.1f%% · iowait %.1f%% · irq %.1f%% · steal %.1f%%",
+                latest.getUser() + latest.getNice(), latest.getSystem(), latest.getIowait(),
+                latest.getIrq() + latest.getSoftirq(), latest.getSteal()));
+    }
+    
+    /**
+     * Crea una celda coloreada de verde (libre) a rojo (saturado)
+     */
+    private Div createCell(int core, float load) {
+        Div cell = new Div();
+        cell.addClassName("cpu-core-heatmap-cell");
+        if (load < 0) {
+            cell.getElement().setAttribute("title", "CPU " + core + ": N/A");
+            return cell;
+        }
+        int hue = (int) (120 - 1.2 * Math.max(0, Math.min(100, load)));
+        cell.getStyle().set("background-color", "hsl(" + hue + ", 70%, 45%)");
+        cell.getElement().setAttribute("title", String.format("CPU %d: %.1f%%", core, load));
+        return cell;
+    }
+}
@@ -15,6 +15,7 @@ import com.monitoring.server.service.interfaces.ProcessInfoService;
 import com.monitoring.server.service.interfaces.SystemMonitorService;
 import com.monitoring.server.views.MainLayout;
 import com.monitoring.server.views.components.AlertBanner;
+import com.monitoring.server.views.components.CpuCoreHeatmap;
 import com.monitoring.server.views.components.MetricChart;
 import com.monitoring.server.views.components.MetricProgressBar;
 import com.vaadin.flow.component.Component;
@@ -44,6 +45,7 @@ public class DashboardView extends VerticalLayout {
     private MetricProgressBar memoryProgressBar;
     private MetricProgressBar diskProgressBar;
     private MetricChart systemUsageChart;
+    private CpuCoreHeatmap cpuCoreHeatmap;
     private Grid<ProcessInfo> processGrid;
     private AlertBanner alertBanner;
     
@@ -146,13 +148,14 @@ public class DashboardView extends VerticalLayout {
         });
         
         systemUsageChart = new MetricChart();
+        cpuCoreHeatmap = new CpuCoreHeatmap();
         
         HorizontalLayout headerLayout = new HorizontalLayout(title, periodTabs);
         headerLayout.setAlignItems(FlexComponent.Alignment.BASELINE);
         headerLayout.setJustifyContentMode(FlexComponent.JustifyContentMode.BETWEEN);
         headerLayout.setWidthFull();
         
-        layout.add(headerLayout, systemUsageChart);
+        layout.add(headerLayout, systemUsageChart, cpuCoreHeatmap);
         return layout;
     }
     
@@ -216,6 +219,7 @@ public class DashboardView extends VerticalLayout {
     private void updateChart() {
         List<SystemMetric> metrics = monitorService.getMetricsHistory(selectedPeriod);
         systemUsageChart.updateChart(metrics);
+        cpuCoreHeatmap.updateHeatmap(monitorService.getCpuDetailHistory(selectedPeriod));
     }
     
     private void updateProcessList() {
@@ -0,0 +1,114 @@
+-- Esquema inicial, equivalente al que generaba Hibernate con ddl-auto=update.
+-- Usa IF NOT EXISTS para poder aplicarse sobre bases de datos ya creadas por Hibernate
+-- (spring.flyway.baseline-version=0).
+
+CREATE SEQUENCE IF NOT EXISTS system_metrics_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS process_info_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS cpu_detail_metrics_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS system_metrics (
+    id bigint NOT NULL,
+    metric_name varchar(255),
+    value float(53),
+    unit varchar(255),
+    cpu_usage float(53) NOT NULL,
+    memory_usage float(53) NOT NULL,
+    disk_usage float(53) NOT NULL,
+    cpu_alert boolean NOT NULL,
+    memory_alert boolean NOT NULL,
+    disk_alert boolean NOT NULL,
+    timestamp timestamp(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS process_info (
+    id bigint NOT NULL,
+    process_id varchar(255),
+    process_name varchar(255) NOT NULL,
+    username varchar(255),
+    status varchar(255),
+    cpu_usage float(53) NOT NULL,
+    memory_usage float(53) NOT NULL,
+    disk_usage float(53) NOT NULL,
+    timestamp timestamp(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS cpu_detail_metrics (
+    id bigint NOT NULL,
+    timestamp timestamp(6) NOT NULL,
+    user_pct real NOT NULL,
+    nice_pct real NOT NULL,
+    system_pct real NOT NULL,
+    idle_pct real NOT NULL,
+    iowait_pct real NOT NULL,
+    irq_pct real NOT NULL,
+    softirq_pct real NOT NULL,
+    steal_pct real NOT NULL,
+    core_loads real[],
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS alerts (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    component_name varchar(255) NOT NULL,
+    current_value float(53) NOT NULL,
+    threshold_value float(53) NOT NULL,
+    message varchar(255) NOT NULL,
+    timestamp timestamp(6) NOT NULL,
+    status varchar(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS alert_configurations (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    name varchar(255),
+    component_name varchar(255),
+    threshold_value float(53) NOT NULL,
+    cpu_threshold float(53) NOT NULL,
+    memory_threshold float(53) NOT NULL,
+    disk_threshold float(53) NOT NULL,
+    alert_interval integer NOT NULL,
+    is_active boolean NOT NULL,
+    is_enabled boolean DEFAULT true NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS monitored_databases (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    name varchar(255) NOT NULL,
+    type varchar(255) NOT NULL,
+    host varchar(255) NOT NULL,
+    port integer NOT NULL,
+    username varchar(255),
+    password varchar(255),
+    status varchar(255),
+    monitor_enabled boolean,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    auth0_subject varchar(255) NOT NULL UNIQUE,
+    email varchar(255) NOT NULL UNIQUE,
+    name varchar(255),
+    nickname varchar(255),
+    picture varchar(255),
+    role varchar(255) NOT NULL CHECK (role IN ('SYSADMIN', 'OPERATOR', 'VIEWER')),
+    is_active boolean NOT NULL,
+    last_login timestamp(6),
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6),
+    PRIMARY KEY (id)
+);
+
+-- Las tablas creadas con columnas IDENTITY ya tienen filas: adelantar las secuencias
+-- de asignación por bloques para que no generen IDs ya usados
+SELECT setval('system_metrics_seq', (SELECT MAX(id) FROM system_metrics))
+WHERE (SELECT MAX(id) FROM system_metrics) > (SELECT last_value FROM system_metrics_seq);
+SELECT setval('process_info_seq', (SELECT MAX(id) FROM process_info))
+WHERE (SELECT MAX(id) FROM process_info) > (SELECT last_value FROM process_info_seq);
+SELECT setval('cpu_detail_metrics_seq', (SELECT MAX(id) FROM cpu_detail_metrics))
+WHERE (SELECT MAX(id) FROM cpu_detail_metrics) > (SELECT last_value FROM cpu_detail_metrics_seq);
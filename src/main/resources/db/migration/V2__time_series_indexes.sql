@@ -0,0 +1,33 @@
+-- Índices según los patrones de acceso.
+-- BRIN sobre timestamp en las tablas de series: las filas se insertan en orden de
+-- tiempo, así que un índice de pocos KB basta para descartar bloques fuera del rango
+-- (findByTimestampBetween, borrados de retención). En las tablas particionadas se
+-- crea en cada partición.
+
+CREATE INDEX IF NOT EXISTS idx_system_metrics_timestamp_brin
+    ON system_metrics USING brin (timestamp);
+-- Series genéricas: findByMetricNameAndTimestampBetween y agregaciones por nombre
+CREATE INDEX IF NOT EXISTS idx_system_metrics_name_timestamp
+    ON system_metrics (metric_name, timestamp);
+-- Filas resumen (metric_name nulo): historial y alertas
+CREATE INDEX IF NOT EXISTS idx_system_metrics_summary_timestamp
+    ON system_metrics (timestamp) WHERE metric_name IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_process_info_timestamp_brin
+    ON process_info USING brin (timestamp);
+CREATE INDEX IF NOT EXISTS idx_process_info_process_id
+    ON process_info (process_id, timestamp);
+
+CREATE INDEX IF NOT EXISTS idx_cpu_detail_metrics_timestamp_brin
+    ON cpu_detail_metrics USING brin (timestamp);
+
+-- Alertas: listados por componente o estado ordenados por fecha
+CREATE INDEX IF NOT EXISTS idx_alerts_component_timestamp
+    ON alerts (component_name, timestamp);
+CREATE INDEX IF NOT EXISTS idx_alerts_status_timestamp
+    ON alerts (status, timestamp);
+
+CREATE INDEX IF NOT EXISTS idx_alert_configurations_component
+    ON alert_configurations (component_name);
+CREATE INDEX IF NOT EXISTS idx_alert_configurations_active
+    ON alert_configurations (id) WHERE is_active;
@@ -0,0 +1,32 @@
+-- Configuraciones de alertas por defecto. Antes se insertaban desde data.sql en cada
+-- arranque; se eliminan las copias idénticas que quedaron y se siembran solo si faltan.
+
+DELETE FROM alert_configurations dup
+USING alert_configurations original
+WHERE dup.name = original.name
+  AND dup.component_name = original.component_name
+  AND dup.id > original.id
+  AND dup.name IN ('Umbral de CPU', 'Umbral de RAM', 'Umbral de Disco')
+  AND dup.threshold_value = original.threshold_value
+  AND dup.cpu_threshold = original.cpu_threshold
+  AND dup.memory_threshold = original.memory_threshold
+  AND dup.disk_threshold = original.disk_threshold
+  AND dup.alert_interval = original.alert_interval
+  AND dup.is_active = original.is_active
+  AND dup.is_enabled = original.is_enabled
+  AND dup.updated_at IS NULL;
+
+INSERT INTO alert_configurations (
+  component_name, threshold_value, alert_interval, cpu_threshold,
+  memory_threshold, disk_threshold, created_at, is_active, is_enabled, name
+)
+SELECT seed.component_name, seed.threshold_value, 30, seed.cpu_threshold,
+       seed.memory_threshold, seed.disk_threshold, NOW(), true, true, seed.name
+FROM (VALUES
+    ('CPU', 80.0, 80.0, 0.0, 0.0, 'Umbral de CPU'),
+    ('RAM', 80.0, 0.0, 80.0, 0.0, 'Umbral de RAM'),
+    ('DISK', 80.0, 0.0, 0.0, 80.0, 'Umbral de Disco')
+) AS seed (component_name, threshold_value, cpu_threshold, memory_threshold, disk_threshold, name)
+WHERE NOT EXISTS (
+    SELECT 1 FROM alert_configurations existing WHERE existing.name = seed.name
+);
@@ -0,0 +1,66 @@
+-- Modelo normalizado de series.
+-- Las métricas genéricas ("DB_5_ResponseTime", "NET_eth0_RxKBps"...) pasan de
+-- system_metrics, donde cada fila arrastraba también las columnas del resumen, a
+-- series_samples: (serie, epoch en ms, valor), 20 bytes de datos por muestra.
+-- metric_series registra cada (métrica, etiquetas) con un entero; el nombre se
+-- guarda una vez por serie en lugar de una vez por muestra.
+
+CREATE SEQUENCE IF NOT EXISTS metric_series_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS metric_series (
+    id integer NOT NULL,
+    metric varchar(128) NOT NULL,
+    tags varchar(255) NOT NULL DEFAULT '',
+    unit varchar(32),
+    PRIMARY KEY (id),
+    UNIQUE (metric, tags)
+);
+
+-- La clave primaria (series_id, ts) sirve a las lecturas por serie y rango;
+-- el BRIN sobre ts, a las lecturas por rango y a la retención
+CREATE TABLE IF NOT EXISTS series_samples (
+    series_id integer NOT NULL,
+    ts bigint NOT NULL,
+    value double precision NOT NULL,
+    PRIMARY KEY (series_id, ts)
+);
+
+CREATE INDEX IF NOT EXISTS idx_series_samples_ts_brin
+    ON series_samples USING brin (ts);
+
+-- Misma regla que SeriesKey.parse: PREFIJO_etiqueta_Métrica -> (PREFIJO_Métrica, clave=etiqueta)
+CREATE TEMPORARY TABLE legacy_series ON COMMIT DROP AS
+SELECT DISTINCT ON (m.metric_name)
+       m.metric_name AS name,
+       CASE WHEN p.parts IS NULL THEN m.metric_name ELSE p.parts[1] || '_' || p.parts[3] END AS metric,
+       CASE WHEN p.parts IS NULL THEN ''
+            ELSE CASE p.parts[1] WHEN 'DB' THEN 'database' WHEN 'NET' THEN 'interface'
+                                 WHEN 'DISK' THEN 'device' WHEN 'FS' THEN 'mount' ELSE 'table' END
+                 || '=' || p.parts[2] END AS tags,
+       m.unit
+FROM system_metrics m
+CROSS JOIN LATERAL (SELECT regexp_match(m.metric_name, '^(DB|NET|DISK|FS|RETENTION)_(.+)_([^_]+)$') AS parts) p
+WHERE m.metric_name IS NOT NULL
+ORDER BY m.metric_name, m.timestamp DESC;
+
+INSERT INTO metric_series (id, metric, tags, unit)
+SELECT nextval('metric_series_seq'), s.metric, s.tags, max(s.unit)
+FROM legacy_series s
+GROUP BY s.metric, s.tags
+ON CONFLICT (metric, tags) DO NOTHING;
+
+INSERT INTO series_samples (series_id, ts, value)
+SELECT ms.id, CAST(extract(epoch FROM m.timestamp) * 1000 AS bigint), COALESCE(m.value, 'NaN')
+FROM system_metrics m
+JOIN legacy_series s ON s.name = m.metric_name
+JOIN metric_series ms ON ms.metric = s.metric AND ms.tags = s.tags
+ON CONFLICT (series_id, ts) DO NOTHING;
+
+DELETE FROM system_metrics WHERE metric_name IS NOT NULL;
+
+-- system_metrics queda solo con las filas resumen
+DROP INDEX IF EXISTS idx_system_metrics_name_timestamp;
+DROP INDEX IF EXISTS idx_system_metrics_summary_timestamp;
+ALTER TABLE system_metrics DROP COLUMN IF EXISTS metric_name;
+ALTER TABLE system_metrics DROP COLUMN IF EXISTS value;
+ALTER TABLE system_metrics DROP COLUMN IF EXISTS unit;
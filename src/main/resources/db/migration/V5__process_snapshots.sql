@@ -0,0 +1,29 @@
+-- Historial de procesos compacto.
+-- En lugar de una fila de process_info por proceso y ciclo, que repetía nombre,
+-- usuario y estado cada 30 s, cada ciclo es una fila de process_snapshots con
+-- los procesos codificados respecto a la instantánea anterior (base_timestamp;
+-- NULL en los fotogramas clave). Las cadenas se guardan una sola vez en
+-- process_strings. process_info deja de recibir filas; lo que ya contiene se
+-- sigue leyendo hasta que la retención lo elimina.
+
+CREATE SEQUENCE IF NOT EXISTS process_strings_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS process_strings (
+    id integer NOT NULL,
+    text varchar(512) NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE (text)
+);
+
+-- Una fila por ciclo (~2.900 al día): la clave primaria sirve a las lecturas por rango
+CREATE TABLE IF NOT EXISTS process_snapshots (
+    timestamp timestamp(6) NOT NULL,
+    base_timestamp timestamp(6),
+    process_count smallint NOT NULL,
+    data bytea NOT NULL,
+    PRIMARY KEY (timestamp)
+);
+
+-- Búsqueda del último fotograma clave anterior a un rango
+CREATE INDEX IF NOT EXISTS idx_process_snapshots_keyframes
+    ON process_snapshots (timestamp) WHERE base_timestamp IS NULL;
@@ -0,0 +1,240 @@
+package com.monitoring.server.data.partition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.monitoring.server.data.partition.TablePartitionManager.DropResult;
+import com.monitoring.server.data.partition.TablePartitionManager.Partition;
+
+/**
+ * Conversión a tablas particionadas sobre un PostgreSQL real con el esquema de las
+ * migraciones. Se omite si no hay Docker disponible.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class TablePartitionManagerTest {
+
+    private static final int DAYS_AHEAD = 3;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private JdbcTemplate jdbcTemplate;
+    private TablePartitionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(),
+                postgres.getUsername(), postgres.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP SCHEMA public CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA public");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        manager = new TablePartitionManager(jdbcTemplate, dataSource, new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(manager, "enabled", true);
+        ReflectionTestUtils.setField(manager, "daysAhead", DAYS_AHEAD);
+    }
+
+    @Test
+    void convertsPopulatedTableKeepingRowsInLegacyPartition() {
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        insertCpuDetails(today.minusDays(3), today.minusDays(2), today.minusDays(1).plusHours(12));
+
+        manager.initialize();
+
+        assertEquals("p", relationKind("cpu_detail_metrics"));
+        assertEquals(3, count("cpu_detail_metrics"));
+        Partition legacy = partition("cpu_detail_metrics", "cpu_detail_metrics_legacy");
+        assertNull(legacy.from());
+        assertEquals(today, legacy.to());
+        assertEquals("r", relationKind("cpu_detail_metrics_default"));
+        assertEquals(List.of("id", "timestamp"), primaryKey("cpu_detail_metrics"));
+
+        // Las filas nuevas van a la partición de su día
+        insertCpuDetails(today.plusHours(1));
+        assertEquals(1, count("cpu_detail_metrics_p" + suffix(LocalDate.now())));
+    }
+
+    @Test
+    void convertsEpochMillisTableWithNumericBounds() {
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        insertSamples(today.minusDays(2), today.minusDays(1));
+
+        manager.initialize();
+
+        assertEquals("p", relationKind("series_samples"));
+        assertEquals(List.of("series_id", "ts"), primaryKey("series_samples"));
+        assertEquals(today, partition("series_samples", "series_samples_legacy").to());
+        insertSamples(today.plusHours(1));
+        assertEquals(1, count("series_samples_p" + suffix(LocalDate.now())));
+    }
+
+    @Test
+    void keepsPrimaryKeyThatAlreadyIncludesPartitionColumn() {
+        insertSnapshots(LocalDateTime.now().minusDays(1));
+
+        manager.initialize();
+
+        assertEquals("p", relationKind("process_snapshots"));
+        assertEquals(List.of("timestamp"), primaryKey("process_snapshots"));
+    }
+
+    @Test
+    void leavesTablesWithoutWritesUnpartitioned() {
+        manager.initialize();
+
+        assertEquals("r", relationKind("process_info"));
+        assertNull(manager.dropPartitionsBefore("process_info", LocalDateTime.now()));
+    }
+
+    @Test
+    void convertsEmptyTableWithoutLegacyPartition() {
+        manager.initialize();
+
+        assertEquals("p", relationKind("cpu_detail_metrics"));
+        assertNull(relationKind("cpu_detail_metrics_legacy"));
+    }
+
+    @Test
+    void copiesNonUniqueIndexesToPartitionedTable() {
+        insertCpuDetails(LocalDateTime.now().minusDays(1));
+        insertSnapshots(LocalDateTime.now().minusDays(1));
+        List<String> cpuIndexes = indexes("cpu_detail_metrics");
+        List<String> snapshotIndexes = indexes("process_snapshots");
+        assertFalse(cpuIndexes.isEmpty());
+        assertFalse(snapshotIndexes.isEmpty());
+
+        manager.initialize();
+
+        assertEquals(cpuIndexes, indexes("cpu_detail_metrics"));
+        assertEquals(snapshotIndexes, indexes("process_snapshots"));
+        for (String index : snapshotIndexes) {
+            // El índice de la tabla original queda como partición del índice nuevo
+            assertEquals(index, parentIndex(index + "_legacy"));
+        }
+    }
+
+    @Test
+    void createsUpcomingPartitionsOnce() {
+        manager.initialize();
+        int created = manager.listPartitions("system_metrics").size();
+
+        manager.createUpcomingPartitions();
+
+        for (String table : TablePartitionManager.PARTITIONED_TABLES) {
+            List<Partition> partitions = manager.listPartitions(table);
+            assertEquals(created, partitions.size(), table);
+            for (int day = 0; day <= DAYS_AHEAD; day++) {
+                LocalDateTime start = LocalDate.now().plusDays(day).atStartOfDay();
+                assertTrue(partitions.stream()
+                        .anyMatch(p -> start.equals(p.from()) && start.plusDays(1).equals(p.to())),
+                        "Falta la partición de " + table + " del " + start.toLocalDate());
+            }
+        }
+    }
+
+    @Test
+    void dropsOnlyPartitionsEndingBeforeCutoff() {
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        insertCpuDetails(today.minusDays(2), today.minusDays(1));
+        manager.initialize();
+        insertCpuDetails(today.plusHours(1));
+        jdbcTemplate.execute("ANALYZE cpu_detail_metrics_legacy");
+
+        DropResult result = manager.dropPartitionsBefore("cpu_detail_metrics", today);
+
+        assertNotNull(result);
+        assertEquals(2, result.rows());
+        assertTrue(result.bytes() > 0);
+        assertNull(relationKind("cpu_detail_metrics_legacy"));
+        assertEquals(1, count("cpu_detail_metrics"));
+        assertEquals(DAYS_AHEAD + 1, manager.listPartitions("cpu_detail_metrics").size());
+    }
+
+    @Test
+    void skipsDropBeforeInitialization() {
+        assertNull(manager.dropPartitionsBefore("cpu_detail_metrics", LocalDateTime.now()));
+    }
+
+    private void insertCpuDetails(LocalDateTime... timestamps) {
+        for (LocalDateTime timestamp : timestamps) {
+            jdbcTemplate.update("INSERT INTO cpu_detail_metrics (id, timestamp, user_pct, nice_pct, system_pct, "
+                    + "idle_pct, iowait_pct, irq_pct, softirq_pct, steal_pct) "
+                    + "VALUES (nextval('cpu_detail_metrics_seq'), ?, 10, 0, 5, 85, 0, 0, 0, 0)",
+                    Timestamp.valueOf(timestamp));
+        }
+    }
+
+    private void insertSamples(LocalDateTime... timestamps) {
+        for (LocalDateTime timestamp : timestamps) {
+            jdbcTemplate.update("INSERT INTO series_samples (series_id, ts, value) VALUES (1, ?, 42)",
+                    timestamp.toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+    }
+
+    private void insertSnapshots(LocalDateTime... timestamps) {
+        for (LocalDateTime timestamp : timestamps) {
+            jdbcTemplate.update("INSERT INTO process_snapshots (timestamp, base_timestamp, process_count, data) "
+                    + "VALUES (?, NULL, 0, ?)", Timestamp.valueOf(timestamp), new byte[0]);
+        }
+    }
+
+    private static String suffix(LocalDate day) {
+        return day.toString().replace("-", "");
+    }
+
+    private Partition partition(String table, String name) {
+        return manager.listPartitions(table).stream()
+                .filter(p -> p.name().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No existe la partición " + name));
+    }
+
+    private List<String> primaryKey(String table) {
+        return jdbcTemplate.queryForList("SELECT a.attname FROM pg_constraint c "
+                + "CROSS JOIN LATERAL unnest(c.conkey) WITH ORDINALITY k(attnum, position) "
+                + "JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = k.attnum "
+                + "WHERE c.conrelid = CAST(? AS regclass) AND c.contype = 'p' ORDER BY k.position", String.class,
+                table);
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class);
+    }
+
+    private String relationKind(String table) {
+        return jdbcTemplate.queryForList("SELECT CAST(relkind AS text) FROM pg_class WHERE oid = to_regclass(?)",
+                String.class, table).stream().findFirst().orElse(null);
+    }
+
+    private List<String> indexes(String table) {
+        return jdbcTemplate.queryForList("SELECT i.relname FROM pg_index x JOIN pg_class i ON i.oid = x.indexrelid "
+                + "WHERE x.indrelid = CAST(? AS regclass) AND NOT x.indisunique ORDER BY i.relname", String.class,
+                table);
+    }
+
+    private String parentIndex(String index) {
+        return jdbcTemplate.queryForList("SELECT p.relname FROM pg_inherits i JOIN pg_class p ON p.oid = i.inhparent "
+                + "WHERE i.inhrelid = CAST(? AS regclass)", String.class, index).stream().findFirst().orElse(null);
+    }
+}
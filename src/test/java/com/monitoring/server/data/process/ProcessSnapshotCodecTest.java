@@ -0,0 +1,119 @@
+package com.monitoring.server.data.process;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.monitoring.server.data.process.ProcessSnapshotCodec.Entry;
+
+class ProcessSnapshotCodecTest {
+
+    @Test
+    void roundTripsKeyframe() {
+        Entry[] entries = {
+                new Entry(1, 0, 1, 2, 3, 0.5, 1.2, 0.0),
+                new Entry(4_194_304, 0, 4, 2, 3, 12.3, 4.56, 789.01),
+                new Entry(-1, 5, 6, 0, 0, 0.0, 0.0, 0.0),
+        };
+
+        assertRoundTrip(entries, null);
+    }
+
+    @Test
+    void encodesUnchangedSnapshotInFewBytes() {
+        Entry[] base = snapshot(10);
+
+        byte[] data = assertRoundTrip(snapshot(10), base);
+        // 9 bits por proceso: presente, índice de 4 bits, estado y tres valores iguales
+        assertEquals(12, data.length);
+    }
+
+    @Test
+    void roundTripsChangesAgainstBase() {
+        Entry[] base = snapshot(10);
+        Entry[] next = {
+                // Reordenado, con estado y valores cambiados
+                withValues(base[7], 2, 99.9, 0.1, 1e6),
+                base[0],
+                // Mismo PID con otro nombre: proceso nuevo
+                new Entry(base[3].pid(), 0, 99, base[3].user(), 1, 1.0, 1.0, 1.0),
+                withValues(base[9], base[9].status(), base[9].cpu() - 0.3, base[9].memory() + 12.75, 0.0),
+        };
+
+        assertRoundTrip(next, base);
+    }
+
+    @Test
+    void preservesValuesThatAreNotHundredths() {
+        Entry[] base = snapshot(3);
+        Entry[] next = {
+                withValues(base[0], 1, 1.0 / 3, Math.PI, 1e15),
+                withValues(base[1], 1, -0.0, Double.NaN, Double.MAX_VALUE),
+                withValues(base[2], 1, Double.MIN_VALUE, Double.NEGATIVE_INFINITY, -123.456),
+        };
+
+        assertRoundTrip(next, base);
+        // De vuelta a centésimas desde valores que no lo son
+        assertRoundTrip(base, next);
+    }
+
+    @Test
+    void roundTripsLargePidsAndDictionaryIds() {
+        Entry[] entries = {
+                new Entry(Long.MAX_VALUE, 0, Integer.MAX_VALUE, 1, 1, 0.0, 0.0, 0.0),
+                new Entry(-1, Integer.MAX_VALUE, 1, Integer.MAX_VALUE, Integer.MAX_VALUE, 0.0, 0.0, 0.0),
+        };
+
+        assertRoundTrip(entries, null);
+        assertRoundTrip(entries, entries);
+    }
+
+    @Test
+    void encodesEmptySnapshots() {
+        assertRoundTrip(new Entry[0], snapshot(5));
+        assertRoundTrip(snapshot(1), new Entry[0]);
+    }
+
+    @Test
+    void roundTripsSingleProcessBaseWithoutIndexBits() {
+        Entry[] base = snapshot(1);
+        Entry[] next = {withValues(base[0], base[0].status(), 50.0, 0.5, 0.0)};
+
+        assertRoundTrip(next, base);
+    }
+
+    private static byte[] assertRoundTrip(Entry[] entries, Entry[] base) {
+        byte[] data = ProcessSnapshotCodec.encode(entries, base);
+        Entry[] decoded = ProcessSnapshotCodec.decode(data, entries.length, base);
+        assertEquals(entries.length, decoded.length);
+        for (int i = 0; i < entries.length; i++) {
+            assertTrue(entries[i].sameProcess(decoded[i]), "proceso " + i);
+            assertEquals(entries[i].status(), decoded[i].status(), "estado " + i);
+            // Bit a bit, para distinguir -0.0 y las distintas representaciones de NaN
+            assertArrayEquals(bits(entries[i]), bits(decoded[i]), "valores " + i);
+        }
+        return data;
+    }
+
+    private static long[] bits(Entry entry) {
+        return new long[] {Double.doubleToRawLongBits(entry.cpu()), Double.doubleToRawLongBits(entry.memory()),
+                Double.doubleToRawLongBits(entry.disk())};
+    }
+
+    /**
+     * Procesos con valores como los de "ps", de un decimal
+     */
+    private static Entry[] snapshot(int count) {
+        Entry[] entries = new Entry[count];
+        for (int i = 0; i < count; i++) {
+            entries[i] = new Entry(1000 + i, 0, 10 + i, 2, 3, i * 1.5, i * 0.1, i * 10.0);
+        }
+        return entries;
+    }
+
+    private static Entry withValues(Entry entry, int status, double cpu, double memory, double disk) {
+        return new Entry(entry.pid(), entry.pidText(), entry.name(), entry.user(), status, cpu, memory, disk);
+    }
+}
@@ -0,0 +1,82 @@
+package com.monitoring.server.data.store;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+class BitIoTest {
+
+    @Test
+    void roundTripsValuesOfEveryWidth() {
+        BitOutput out = new BitOutput(1);
+        for (int width = 1; width <= 64; width++) {
+            out.writeBits(pattern(width), width);
+        }
+        BitInput in = new BitInput(ByteBuffer.wrap(out.toByteArray()), 0);
+        for (int width = 1; width <= 64; width++) {
+            assertEquals(pattern(width), in.readBits(width), "ancho " + width);
+        }
+    }
+
+    @Test
+    void roundTripsFullSixtyFourBitValues() {
+        long[] values = {0, -1, Long.MIN_VALUE, Long.MAX_VALUE, 0x8000000000000001L, 0x0123456789ABCDEFL};
+        BitOutput out = new BitOutput(16);
+        // Un bit delante para que ningún valor quede alineado a byte
+        out.writeBit(true);
+        for (long value : values) {
+            out.writeBits(value, 64);
+        }
+        BitInput in = new BitInput(ByteBuffer.wrap(out.toByteArray()), 0);
+        assertTrue(in.readBit());
+        for (long value : values) {
+            assertEquals(value, in.readBits(64));
+        }
+    }
+
+    @Test
+    void readsSignedValuesInTwosComplement() {
+        BitOutput out = new BitOutput(16);
+        out.writeBits(-64, 7);
+        out.writeBits(63, 7);
+        out.writeBits(-1, 9);
+        out.writeBits(-2048, 12);
+        BitInput in = new BitInput(ByteBuffer.wrap(out.toByteArray()), 0);
+        assertEquals(-64, in.readSigned(7));
+        assertEquals(63, in.readSigned(7));
+        assertEquals(-1, in.readSigned(9));
+        assertEquals(-2048, in.readSigned(12));
+    }
+
+    @Test
+    void readsFromOffsetWithinBuffer() {
+        BitOutput out = new BitOutput(16);
+        out.writeBit(false);
+        out.writeBits(0x5A5A, 16);
+        byte[] data = out.toByteArray();
+        ByteBuffer buffer = ByteBuffer.allocate(data.length + 10);
+        buffer.position(7);
+        buffer.put(data);
+
+        BitInput in = new BitInput(buffer, 7);
+        assertFalse(in.readBit());
+        assertEquals(0x5A5A, in.readBits(16));
+    }
+
+    @Test
+    void padsLastByteWithZeros() {
+        BitOutput out = new BitOutput(16);
+        out.writeBits(0b101, 3);
+        assertArrayEquals(new byte[] {(byte) 0b1010_0000}, out.toByteArray());
+    }
+
+    private static long pattern(int width) {
+        long value = 0xA5C3_96F0_0F69_3C5AL;
+        return width == 64 ? value : value & ((1L << width) - 1);
+    }
+}
@@ -0,0 +1,164 @@
+package com.monitoring.server.data.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.monitoring.server.data.entity.SystemMetric;
+import com.monitoring.server.data.repository.MetricRepository;
+
+/**
+ * Comparativa de la escritura de filas resumen en system_metrics sobre PostgreSQL:
+ * {@code metricRepository.save} fila a fila (la escritura anterior al pipeline),
+ * {@code metricRepository.saveAll}, inserciones JDBC en lote y COPY binario de
+ * {@link PgBulkWriter}. Cada variante escribe en una transacción que se deshace.
+ * El número de filas se ajusta con {@code -Dbenchmark.rows}; se omite sin Docker.
+ */
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = "system.metric.store=jpa")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PgBulkWriter.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkWriteBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkWriteBenchmarkTest.class);
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 20_000);
+    private static final int WARMUP_ROWS = 2_000;
+
+    // Tamaño de lote por defecto del pipeline de ingesta (system.ingest.batch.size)
+    private static final int BATCH_SIZE = 500;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private MetricRepository metricRepository;
+
+    @Autowired
+    private PgBulkWriter bulkWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void compareSummaryWriteThroughput() {
+        assertTrue(bulkWriter.isCopyAvailable(), "El driver de PostgreSQL debe admitir COPY");
+
+        // Primera pasada para calentar el JIT, el pool y las sentencias preparadas
+        measure("save", WARMUP_ROWS, this::saveOneByOne);
+        measure("saveAll", WARMUP_ROWS, this::saveWithRepository);
+        measure("batch", WARMUP_ROWS, batch -> bulkWriter.writeSummaries(batch, false));
+        measure("copy", WARMUP_ROWS, batch -> bulkWriter.writeSummaries(batch, true));
+
+        double save = measure("save", ROWS, this::saveOneByOne);
+        double saveAll = measure("saveAll", ROWS, this::saveWithRepository);
+        double batch = measure("batch", ROWS, b -> bulkWriter.writeSummaries(b, false));
+        double copy = measure("copy", ROWS, b -> bulkWriter.writeSummaries(b, true));
+
+        logger.info("Escritura de {} filas en lotes de {}:", ROWS, BATCH_SIZE);
+        logger.info("  metricRepository.save:    {} filas/s", Math.round(save));
+        logger.info("  metricRepository.saveAll: {} filas/s (x{})", Math.round(saveAll), ratio(saveAll, save));
+        logger.info("  inserciones JDBC en lote: {} filas/s (x{})", Math.round(batch), ratio(batch, save));
+        logger.info("  COPY binario:             {} filas/s (x{})", Math.round(copy), ratio(copy, save));
+        assertEquals(0, count(), "Las transacciones de la comparativa deben deshacerse");
+    }
+
+    private void saveOneByOne(List<SystemMetric> batch) {
+        for (SystemMetric metric : batch) {
+            metricRepository.save(metric);
+        }
+        metricRepository.flush();
+    }
+
+    private void saveWithRepository(List<SystemMetric> batch) {
+        metricRepository.saveAll(batch);
+        metricRepository.flush();
+    }
+
+    /**
+     * Escribe {@code rows} filas en lotes dentro de una transacción que se deshace,
+     * comprobando antes que se escribieron todas
+     * @return Filas por segundo
+     */
+    private double measure(String name, int rows, Consumer<List<SystemMetric>> writer) {
+        List<List<SystemMetric>> batches = generate(rows);
+        long[] elapsed = new long[1];
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            long start = System.nanoTime();
+            for (List<SystemMetric> batch : batches) {
+                writer.accept(batch);
+            }
+            elapsed[0] = System.nanoTime() - start;
+            assertEquals(rows, count(), name);
+            status.setRollbackOnly();
+        });
+        logger.debug("{}: {} filas en {} ms", name, rows, elapsed[0] / 1_000_000);
+        return rows / (elapsed[0] / 1e9);
+    }
+
+    private long count() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM system_metrics", Long.class);
+    }
+
+    private static List<List<SystemMetric>> generate(int rows) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime time = LocalDateTime.now().minusSeconds(rows);
+        List<List<SystemMetric>> batches = new ArrayList<>();
+        List<SystemMetric> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            SystemMetric metric = new SystemMetric(random.nextDouble(100), random.nextDouble(100),
+                    random.nextDouble(100));
+            metric.setTimestamp(time.plusSeconds(i));
+            metric.setCpuAlert(metric.getCpuUsage() > 80);
+            batch.add(metric);
+            if (batch.size() == BATCH_SIZE) {
+                batches.add(batch);
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private static String ratio(double value, double baseline) {
+        return String.format("%.1f", value / baseline);
+    }
+}
@@ -0,0 +1,111 @@
+package com.monitoring.server.data.store;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+class ChunkCodecTest {
+
+    @Test
+    void encodesRegularSeriesCompactly() {
+        int count = 120;
+        long[] timestamps = new long[count];
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = 1_700_000_000_000L + i * 10_000L;
+            values[i] = 42.5;
+        }
+        byte[] data = assertRoundTrip(timestamps, new double[][] {values}, count);
+        // Valores iniciales completos y después un bit por columna y punto: menos de medio byte por punto
+        assertTrue(data.length < count / 2, "ocupa " + data.length + " bytes");
+    }
+
+    @Test
+    void roundTripsNegativeAndLargeDeltaOfDeltas() {
+        // Límites de cada prefijo (7, 9, 12 y 64 bits), en ambos sentidos
+        long[] deltaOfDeltas = {0, -64, 63, -65, 64, -256, 255, -257, 256, -2048, 2047, -2049, 2048,
+                -86_400_000L, 86_400_000L, Long.MAX_VALUE / 4, Long.MIN_VALUE / 4};
+        long[] timestamps = new long[deltaOfDeltas.length + 2];
+        timestamps[0] = 0;
+        timestamps[1] = 10_000;
+        long delta = 10_000;
+        for (int i = 0; i < deltaOfDeltas.length; i++) {
+            delta += deltaOfDeltas[i];
+            timestamps[i + 2] = timestamps[i + 1] + delta;
+        }
+        assertRoundTrip(timestamps, new double[][] {new double[timestamps.length]}, timestamps.length);
+    }
+
+    @Test
+    void roundTripsFullWidthXor() {
+        // El XOR entre ambos valores ocupa los 64 bits (significativos = 64, escrito como 0)
+        double[] values = {Double.longBitsToDouble(0x8000000000000001L), Double.longBitsToDouble(0),
+                Double.longBitsToDouble(-1L), Double.longBitsToDouble(0x7FFFFFFFFFFFFFFEL)};
+        assertRoundTrip(new long[] {1, 2, 3, 4}, new double[][] {values}, values.length);
+    }
+
+    @Test
+    void preservesSpecialValuesBitForBit() {
+        double[] values = {0.0, -0.0, Double.NaN, Double.longBitsToDouble(0x7FF8_0000_0000_0001L),
+                Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MIN_VALUE, -Double.MAX_VALUE, -0.0, 0.0};
+        long[] timestamps = new long[values.length];
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = i * 1000L;
+        }
+        assertRoundTrip(timestamps, new double[][] {values}, values.length);
+    }
+
+    @Test
+    void roundTripsSeveralColumnsAndReusesValueWindow() {
+        int count = 200;
+        long[] timestamps = new long[count];
+        double[][] columns = new double[4][count];
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = i * 10_000L + (i % 7 == 0 ? 3 : 0);
+            columns[0][i] = Math.sin(i / 10.0) * 100;
+            columns[1][i] = 50 + (i % 3) * 0.25;
+            columns[2][i] = i;
+            columns[3][i] = i % 5 == 0 ? 1 : 0;
+        }
+        assertRoundTrip(timestamps, columns, count);
+    }
+
+    @Test
+    void decodesAtOffsetWithinLargerBuffer() {
+        long[] timestamps = {5, 15, 25};
+        double[][] columns = {{1.5, 2.5, 3.5}};
+        byte[] data = ChunkCodec.encode(timestamps, columns, 3);
+        ByteBuffer buffer = ByteBuffer.allocate(100 + data.length);
+        buffer.put(100, data);
+
+        long[] decodedTimestamps = new long[3];
+        double[][] decodedColumns = new double[1][3];
+        ChunkCodec.decode(buffer, 100, 3, decodedTimestamps, decodedColumns);
+        assertArrayEquals(timestamps, decodedTimestamps);
+        assertArrayEquals(columns[0], decodedColumns[0]);
+    }
+
+    @Test
+    void encodesEmptyChunk() {
+        assertEquals(0, ChunkCodec.encode(new long[0], new double[][] {new double[0]}, 0).length);
+    }
+
+    private static byte[] assertRoundTrip(long[] timestamps, double[][] columns, int count) {
+        byte[] data = ChunkCodec.encode(timestamps, columns, count);
+        long[] decodedTimestamps = new long[count];
+        double[][] decodedColumns = new double[columns.length][count];
+        ChunkCodec.decode(ByteBuffer.wrap(data), 0, count, decodedTimestamps, decodedColumns);
+        assertArrayEquals(timestamps, decodedTimestamps);
+        for (int c = 0; c < columns.length; c++) {
+            for (int i = 0; i < count; i++) {
+                assertEquals(Double.doubleToRawLongBits(columns[c][i]), Double.doubleToRawLongBits(decodedColumns[c][i]),
+                        "columna " + c + ", punto " + i);
+            }
+        }
+        return data;
+    }
+}
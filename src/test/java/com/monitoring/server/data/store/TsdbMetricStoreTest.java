@@ -0,0 +1,183 @@
+package com.monitoring.server.data.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.monitoring.server.data.entity.SystemMetric;
+
+class TsdbMetricStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 1, 0, 0);
+    private static final LocalDateTime END = START.plusHours(12);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopensSealedChunks() throws IOException {
+        TsdbMetricStore store = open();
+        store.append(summaries(0, 300));
+        store.close();
+
+        TsdbMetricStore reopened = open();
+        List<SystemMetric> metrics = reopened.findSystemMetrics(START, END);
+        assertEquals(300, metrics.size());
+        assertEquals(299.0, metrics.get(299).getCpuUsage());
+        reopened.close();
+    }
+
+    @Test
+    void dropsTruncatedTailRecordOnOpen() throws IOException {
+        TsdbMetricStore store = open();
+        // Un bloque cada 5 minutos (30 puntos a 10 s); close() sella el último
+        store.append(summaries(0, 150));
+        store.close();
+        Path file = singleDataFile();
+        long size = Files.size(file);
+        truncate(file, size - 5);
+
+        TsdbMetricStore reopened = open();
+        assertEquals(120, reopened.findSystemMetrics(START, END).size());
+        assertTrue(Files.size(file) < size - 5, "el registro incompleto se recorta");
+
+        // Lo que se anexa después queda detrás del último registro válido
+        reopened.append(summaries(150, 10));
+        reopened.close();
+        assertEquals(130, open().findSystemMetrics(START, END).size());
+    }
+
+    @Test
+    void recoversOpenChunksFromWalAfterCrash() throws IOException {
+        TsdbMetricStore store = open();
+        store.append(summaries(0, 50));
+        List<SystemMetric> generic = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            generic.add(new SystemMetric("NET_RxKBps", i * 1.5, "KB/s", START.plusSeconds(i * 10L)));
+        }
+        store.append(generic);
+        // Sin close(): los últimos 20 puntos de cada serie siguen en bloques abiertos, solo en el WAL
+
+        TsdbMetricStore reopened = open();
+        assertEquals(50, reopened.findSystemMetrics(START, END).size());
+        List<SystemMetric> recovered = reopened.findByMetricName("NET_RxKBps", START, END);
+        assertEquals(50, recovered.size());
+        assertEquals("KB/s", recovered.get(0).getUnit());
+        assertEquals(73.5, recovered.get(49).getValue());
+    }
+
+    @Test
+    void dropsTruncatedWalTail() throws IOException {
+        TsdbMetricStore store = open();
+        // Dos registros del WAL dentro de un mismo bloque abierto (menos de 5 minutos)
+        store.append(summaries(0, 10));
+        store.append(summaries(10, 10));
+        Path wal = directory.resolve("heads.wal");
+        truncate(wal, Files.size(wal) - 3);
+
+        assertEquals(10, open().findSystemMetrics(START, END).size());
+    }
+
+    @Test
+    void ignoresPointsAlreadyStored() throws IOException {
+        TsdbMetricStore store = open();
+        store.append(summaries(0, 100));
+        store.append(summaries(50, 100));
+        store.append(summaries(10, 5));
+
+        List<SystemMetric> metrics = store.findSystemMetrics(START, END);
+        assertEquals(150, metrics.size());
+        for (int i = 1; i < metrics.size(); i++) {
+            assertTrue(metrics.get(i).getTimestamp().isAfter(metrics.get(i - 1).getTimestamp()));
+        }
+        store.close();
+    }
+
+    @Test
+    void keepsSealedChunksWhenDataFileCannotBeWritten() throws IOException {
+        TsdbMetricStore store = open();
+        // Un directorio en lugar del archivo del día: falla la escritura incluso como root
+        Path file = directory.resolve("metrics-" + START.toLocalDate() + ".tsdb");
+        Files.createDirectory(file);
+
+        store.append(summaries(0, 100));
+        assertEquals(100, store.findSystemMetrics(START, END).size());
+        // close() no puede sellar nada: los puntos quedan en el WAL
+        store.close();
+        Files.delete(file);
+
+        TsdbMetricStore reopened = open();
+        assertEquals(100, reopened.findSystemMetrics(START, END).size());
+        reopened.close();
+        assertTrue(Files.size(file) > 0);
+        assertEquals(0, Files.size(directory.resolve("heads.wal")));
+        assertEquals(100, open().findSystemMetrics(START, END).size());
+    }
+
+    @Test
+    void retriesUnwrittenChunksOnNextAppend() throws IOException {
+        TsdbMetricStore store = open();
+        Path file = directory.resolve("metrics-" + START.toLocalDate() + ".tsdb");
+        Files.createDirectory(file);
+        store.append(summaries(0, 100));
+        Files.delete(file);
+
+        store.append(summaries(100, 40));
+        // Los bloques pendientes ya están en el archivo, antes que los nuevos
+        assertTrue(Files.size(file) > 0);
+        List<SystemMetric> metrics = store.findSystemMetrics(START, END);
+        assertEquals(140, metrics.size());
+        for (int i = 0; i < metrics.size(); i++) {
+            assertEquals(i, metrics.get(i).getCpuUsage());
+        }
+        store.close();
+        assertEquals(140, open().findSystemMetrics(START, END).size());
+    }
+
+    private TsdbMetricStore open() throws IOException {
+        TsdbMetricStore store = new TsdbMetricStore();
+        ReflectionTestUtils.setField(store, "directory", directory.toString());
+        store.open();
+        return store;
+    }
+
+    /**
+     * Filas resumen cada 10 s con la CPU igual a su índice
+     */
+    private static List<SystemMetric> summaries(int from, int count) {
+        List<SystemMetric> metrics = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++) {
+            SystemMetric metric = new SystemMetric(i, 50, 25);
+            metric.setTimestamp(START.plusSeconds(i * 10L));
+            metrics.add(metric);
+        }
+        return metrics;
+    }
+
+    private Path singleDataFile() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> data = files.filter(path -> path.toString().endsWith(".tsdb")).toList();
+            assertEquals(1, data.size());
+            return data.get(0);
+        }
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+}
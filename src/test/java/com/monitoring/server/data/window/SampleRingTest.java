@@ -0,0 +1,150 @@
+package com.monitoring.server.data.window;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SampleRingTest {
+
+    private static final int CAPACITY = 8;
+
+    @Test
+    void keepsNewestSamplesAfterWrapping() {
+        SampleRing ring = ring(CAPACITY, 0, 20);
+
+        assertEquals(CAPACITY, ring.size());
+        assertArrayEquals(range(12, 20), timestamps(ring, Long.MIN_VALUE, Long.MAX_VALUE));
+        // La muestra 11 se sobrescribió: la cobertura empieza justo después
+        assertEquals(11_001, ring.coveredFrom());
+    }
+
+    @Test
+    void visitsRangeAcrossWrapPoint() {
+        SampleRing ring = ring(CAPACITY, 0, 13);
+
+        assertArrayEquals(range(6, 11), timestamps(ring, 6_000, 10_500));
+        assertArrayEquals(range(12, 13), timestamps(ring, 11_500, 99_000));
+        assertArrayEquals(new long[0], timestamps(ring, 0, 4_999));
+        assertArrayEquals(new long[0], timestamps(ring, 20_000, 30_000));
+    }
+
+    @Test
+    void ignoresSamplesOutOfOrder() {
+        SampleRing ring = ring(CAPACITY, 0, 3);
+
+        assertEquals(-1, ring.append(2_000));
+        assertEquals(-1, ring.append(1_000));
+        assertEquals(3, ring.size());
+    }
+
+    @Test
+    void restoresWrappedRing() {
+        SampleRing ring = ring(CAPACITY, 0, 13);
+
+        SampleRing restored = roundTrip(ring, CAPACITY, 2);
+
+        assertEquals(ring.coveredFrom(), restored.coveredFrom());
+        assertArrayEquals(range(5, 13), timestamps(restored, Long.MIN_VALUE, Long.MAX_VALUE));
+        assertArrayEquals(values(ring, 1), values(restored, 1));
+
+        // Sigue escribiendo a continuación de lo restaurado
+        int slot = restored.append(13_000);
+        restored.set(0, slot, 13);
+        restored.set(1, slot, -13);
+        assertArrayEquals(range(6, 14), timestamps(restored, Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(5_001, restored.coveredFrom());
+    }
+
+    @Test
+    void restoresPartialRing() {
+        SampleRing ring = ring(CAPACITY, 0, 3);
+
+        SampleRing restored = roundTrip(ring, CAPACITY, 2);
+
+        assertEquals(0, restored.coveredFrom());
+        assertArrayEquals(range(0, 3), timestamps(restored, Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    void keepsNewestSamplesWhenRestoringIntoSmallerRing() {
+        SampleRing ring = ring(CAPACITY, 0, 13);
+
+        SampleRing restored = roundTrip(ring, 3, 2);
+
+        assertArrayEquals(range(10, 13), timestamps(restored, Long.MIN_VALUE, Long.MAX_VALUE));
+        assertArrayEquals(new double[] {-10, -11, -12}, values(restored, 1));
+        assertEquals(10_000, restored.coveredFrom());
+    }
+
+    @Test
+    void skipsRingWithOtherColumnCount() {
+        SampleRing first = ring(CAPACITY, 0, 13);
+        SampleRing second = ring(CAPACITY, 100, 104);
+        ByteBuffer buffer = ByteBuffer.allocate(first.stateSize() + second.stateSize());
+        first.write(buffer);
+        second.write(buffer);
+        buffer.flip();
+
+        assertNull(SampleRing.read(buffer, "%", CAPACITY, 3));
+        // La lectura continúa en el búfer siguiente
+        SampleRing restored = SampleRing.read(buffer, "%", CAPACITY, 2);
+        assertArrayEquals(range(100, 104), timestamps(restored, Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(0, buffer.remaining());
+    }
+
+    /**
+     * Búfer con una muestra por segundo desde {@code from} hasta {@code to} (excluido);
+     * la primera columna es el segundo y la segunda su opuesto
+     */
+    private static SampleRing ring(int capacity, int from, int to) {
+        SampleRing ring = new SampleRing("%", capacity, 2, from * 1000L);
+        for (int second = from; second < to; second++) {
+            int slot = ring.append(second * 1000L);
+            ring.set(0, slot, second);
+            ring.set(1, slot, -second);
+        }
+        return ring;
+    }
+
+    private static SampleRing roundTrip(SampleRing ring, int capacity, int columns) {
+        ByteBuffer buffer = ByteBuffer.allocate(ring.stateSize());
+        ring.write(buffer);
+        assertEquals(0, buffer.remaining());
+        buffer.flip();
+        SampleRing restored = SampleRing.read(buffer, ring.unit(), capacity, columns);
+        assertEquals(0, buffer.remaining());
+        return restored;
+    }
+
+    private static long[] timestamps(SampleRing ring, long from, long to) {
+        List<Long> result = new ArrayList<>();
+        ring.forEach(from, to, (timestamp, columns, index) -> {
+            assertEquals(timestamp / 1000.0, columns[0][index]);
+            result.add(timestamp);
+        });
+        return result.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static double[] values(SampleRing ring, int column) {
+        List<Double> result = new ArrayList<>();
+        ring.forEach(Long.MIN_VALUE, Long.MAX_VALUE, (timestamp, columns, index) -> result.add(columns[column][index]));
+        return result.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    /**
+     * Timestamps de los segundos {@code from} a {@code to} (excluido)
+     */
+    private static long[] range(int from, int to) {
+        long[] result = new long[to - from];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (from + i) * 1000L;
+        }
+        return result;
+    }
+}
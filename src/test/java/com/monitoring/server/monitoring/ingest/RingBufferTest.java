@@ -0,0 +1,134 @@
+package com.monitoring.server.monitoring.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.Test;
+
+class RingBufferTest {
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        assertEquals(2, new RingBuffer<Integer>(0).capacity());
+        assertEquals(8, new RingBuffer<Integer>(8).capacity());
+        assertEquals(16, new RingBuffer<Integer>(9).capacity());
+    }
+
+    @Test
+    void rejectsOfferWhenFull() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(4));
+    }
+
+    @Test
+    void keepsArrivalOrderAcrossManyLaps() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int i = 0; i < 1000; i++) {
+            // Ocupación variable para que cabeza y cola crucen el final del array en distintas posiciones
+            int count = i % 4 + 1;
+            for (int j = 0; j < count; j++) {
+                assertTrue(buffer.offer(i * 4 + j));
+            }
+            for (int j = 0; j < count; j++) {
+                assertEquals(i * 4 + j, buffer.poll());
+            }
+        }
+
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void drainsAtMostRequestedElements() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(8);
+        for (int i = 0; i < 6; i++) {
+            buffer.offer(i);
+        }
+        List<Integer> target = new ArrayList<>();
+
+        assertEquals(4, buffer.drainTo(target, 4));
+        assertEquals(List.of(0, 1, 2, 3), target);
+        assertEquals(2, buffer.drainTo(target, 10));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), target);
+        assertEquals(0, buffer.drainTo(target, 10));
+    }
+
+    @Test
+    void deliversEveryElementOnceWithConcurrentProducersAndConsumers() throws Exception {
+        // Dos hilos de cada tipo como mínimo; más solo si hay procesadores para ellos
+        int producers = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        int consumers = producers;
+        int perProducer = 10_000;
+        RingBuffer<Integer> buffer = new RingBuffer<>(64);
+        AtomicIntegerArray seen = new AtomicIntegerArray(producers * perProducer);
+        CountDownLatch produced = new CountDownLatch(producers);
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int first = p * perProducer;
+                tasks.add(executor.submit(() -> {
+                    for (int i = first; i < first + perProducer; i++) {
+                        while (!buffer.offer(i)) {
+                            // Cede el procesador: con menos núcleos que hilos, esperar activamente frena al consumidor
+                            Thread.yield();
+                        }
+                    }
+                    produced.countDown();
+                }));
+            }
+            for (int c = 0; c < consumers; c++) {
+                tasks.add(executor.submit(() -> {
+                    // Cada productor encola en orden: lo que un consumidor ve de él también va en orden
+                    int[] last = new int[producers];
+                    Arrays.fill(last, -1);
+                    while (true) {
+                        // Comprobado antes de leer: si ya no quedan productores, null es cola vacía
+                        boolean done = produced.getCount() == 0;
+                        Integer item = buffer.poll();
+                        if (item == null) {
+                            if (done) {
+                                break;
+                            }
+                            Thread.yield();
+                            continue;
+                        }
+                        seen.incrementAndGet(item);
+                        int producer = item / perProducer;
+                        assertTrue(item > last[producer], "orden del productor " + producer);
+                        last[producer] = item;
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int i = 0; i < seen.length(); i++) {
+            assertEquals(1, seen.get(i), "elemento " + i);
+        }
+        assertEquals(0, buffer.size());
+    }
+}